@@ -0,0 +1,30 @@
+package engineer.omnis.graphviz;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// Storage backend of GraphModel. Callers are responsible for null checks and duplicate edges
+interface Adjacency<V, E> {
+    void clear();
+
+    boolean addVertex(V v);
+
+    void addEdge(V from, V to, E edge);
+
+    boolean containsEdge(V from, V to);
+
+    Optional<E> getEdge(V from, V to);
+
+    void removeVertex(V v);
+
+    void removeEdge(V from, V to);
+
+    List<SimpleEntry<V, E>> getNeighbors(V v);
+
+    // Vertices with an edge to v
+    Set<V> getPredecessors(V v);
+
+    Set<V> getVertices();
+}
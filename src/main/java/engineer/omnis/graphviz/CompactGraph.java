@@ -0,0 +1,296 @@
+package engineer.omnis.graphviz;
+
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+// Immutable compressed-sparse-row copy of a GraphModel or one of its snapshots.
+// Vertices are numbered densely in [0, vertexCount), and the outgoing arcs of vertex v
+// occupy [firstArc(v), endArc(v)) in the target/weight arrays, in the model's neighbor order.
+// Vertices may carry plane positions, which geometric algorithms such as A* rely on
+public final class CompactGraph<V, E> {
+    private final Object[] vertices;
+    private final Map<V, Integer> indices;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final Object[] edges;
+    // x and y of every vertex, interleaved
+    private final double[] positions;
+
+    private CompactGraph(Object[] vertices, Map<V, Integer> indices, int[] offsets, int[] targets, int[] weights,
+                         Object[] edges, double[] positions) {
+        this.vertices = vertices;
+        this.indices = indices;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.edges = edges;
+        this.positions = positions;
+    }
+
+    public static <V, E> CompactGraph<V, E> freeze(GraphView<V, E> model, ToIntFunction<E> weightFunction) {
+        return freeze(model, weightFunction, null);
+    }
+
+    public static <V, E> CompactGraph<V, E> freeze(GraphView<V, E> model, ToIntFunction<E> weightFunction,
+                                                   Function<V, Point2D> positionFunction) {
+        int vertexCount = model.getVertices().size();
+        Object[] vertices = new Object[vertexCount];
+        Map<V, Integer> indices = new HashMap<>(vertexCount * 2);
+
+        int arcCount = 0;
+        for (V v : model.getVertices()) {
+            vertices[indices.size()] = v;
+            indices.put(v, indices.size());
+            arcCount += model.getNeighbors(v).size();
+        }
+
+        int[] offsets = new int[vertexCount + 1];
+        int[] targets = new int[arcCount];
+        int[] weights = new int[arcCount];
+        Object[] edges = new Object[arcCount];
+
+        int arc = 0;
+        for (int v = 0; v < vertexCount; ++v) {
+            offsets[v] = arc;
+            @SuppressWarnings("unchecked")
+            V vertex = (V) vertices[v];
+            for (var neighbor : model.getNeighbors(vertex)) {
+                targets[arc] = indices.get(neighbor.getKey());
+                weights[arc] = weightFunction.applyAsInt(neighbor.getValue());
+                edges[arc] = neighbor.getValue();
+                ++arc;
+            }
+        }
+        offsets[vertexCount] = arc;
+
+        double[] positions = null;
+        if (positionFunction != null) {
+            positions = new double[2 * vertexCount];
+            for (int v = 0; v < vertexCount; ++v) {
+                @SuppressWarnings("unchecked")
+                Point2D position = positionFunction.apply((V) vertices[v]);
+                positions[2 * v] = position.getX();
+                positions[2 * v + 1] = position.getY();
+            }
+        }
+
+        return new CompactGraph<>(vertices, indices, offsets, targets, weights, edges, positions);
+    }
+
+    public static CompactGraph<Integer, Void> fromArrays(int[] offsets, int[] targets, int[] weights) {
+        if (offsets.length == 0 || offsets[0] != 0 || offsets[offsets.length - 1] != targets.length
+                || targets.length != weights.length) {
+            throw new IllegalArgumentException("Malformed CSR arrays");
+        }
+
+        return new CompactGraph<>(null, null, offsets, targets, weights, null, null);
+    }
+
+    // Same graph with the given vertex positions
+    public CompactGraph<V, E> withPositions(double[] xs, double[] ys) {
+        if (xs.length != vertexCount() || ys.length != vertexCount()) {
+            throw new IllegalArgumentException("Expected " + vertexCount() + " positions");
+        }
+
+        double[] newPositions = new double[2 * vertexCount()];
+        for (int v = 0; v < vertexCount(); ++v) {
+            newPositions[2 * v] = xs[v];
+            newPositions[2 * v + 1] = ys[v];
+        }
+        return new CompactGraph<>(vertices, indices, offsets, targets, weights, edges, newPositions);
+    }
+
+    public int vertexCount() {
+        return offsets.length - 1;
+    }
+
+    public int arcCount() {
+        return targets.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V vertex(int v) {
+        if (vertices == null) {
+            Objects.checkIndex(v, vertexCount());
+            return (V) Integer.valueOf(v);
+        }
+        return (V) vertices[v];
+    }
+
+    public int indexOf(V v) {
+        if (indices == null) {
+            return v instanceof Integer i && i >= 0 && i < vertexCount() ? i : -1;
+        }
+
+        Integer index = indices.get(v);
+        return index == null ? -1 : index;
+    }
+
+    public int firstArc(int v) {
+        return offsets[v];
+    }
+
+    public int endArc(int v) {
+        return offsets[v + 1];
+    }
+
+    public int degree(int v) {
+        return offsets[v + 1] - offsets[v];
+    }
+
+    public int target(int arc) {
+        return targets[arc];
+    }
+
+    public int weight(int arc) {
+        return weights[arc];
+    }
+
+    @SuppressWarnings("unchecked")
+    public E edge(int arc) {
+        return edges == null ? null : (E) edges[arc];
+    }
+
+    // The cheapest arc from one vertex to another, or -1 if they aren't adjacent
+    public int lightestArc(int from, int to) {
+        int lightest = -1;
+        for (int arc = firstArc(from); arc < endArc(from); ++arc) {
+            if (targets[arc] == to && (lightest == -1 || weights[arc] < weights[lightest])) {
+                lightest = arc;
+            }
+        }
+        return lightest;
+    }
+
+    public boolean hasPositions() {
+        return positions != null;
+    }
+
+    public double x(int v) {
+        return positions[2 * v];
+    }
+
+    public double y(int v) {
+        return positions[2 * v + 1];
+    }
+
+    public double distance(int u, int v) {
+        return Math.hypot(x(u) - x(v), y(u) - y(v));
+    }
+
+    // Same vertices with every arc reversed, i.e. the incoming arcs of every vertex
+    public CompactGraph<V, E> transpose() {
+        int[] transposedOffsets = new int[offsets.length];
+        for (int arc = 0; arc < arcCount(); ++arc) {
+            ++transposedOffsets[targets[arc] + 1];
+        }
+        for (int v = 0; v < vertexCount(); ++v) {
+            transposedOffsets[v + 1] += transposedOffsets[v];
+        }
+
+        int[] fill = Arrays.copyOf(transposedOffsets, vertexCount());
+        int[] transposedTargets = new int[arcCount()];
+        int[] transposedWeights = new int[arcCount()];
+        Object[] transposedEdges = edges == null ? null : new Object[arcCount()];
+        for (int v = 0; v < vertexCount(); ++v) {
+            for (int arc = firstArc(v); arc < endArc(v); ++arc) {
+                int position = fill[targets[arc]]++;
+                transposedTargets[position] = v;
+                transposedWeights[position] = weights[arc];
+                if (edges != null) {
+                    transposedEdges[position] = edges[arc];
+                }
+            }
+        }
+
+        return new CompactGraph<>(vertices, indices, transposedOffsets, transposedTargets, transposedWeights, transposedEdges,
+                positions);
+    }
+
+    // Same graph where every vertex's arcs are ordered by target; arcs with equal targets keep their neighbor order.
+    // Imported graphs are sorted already, and are returned as they are
+    public CompactGraph<V, E> sortedByTarget() {
+        int v = 0;
+        while (v < vertexCount() && isSortedByTarget(v)) {
+            ++v;
+        }
+        if (v == vertexCount()) {
+            return this;
+        }
+
+        int[] sortedTargets = targets.clone();
+        int[] sortedWeights = weights.clone();
+        Object[] sortedEdges = edges == null ? null : edges.clone();
+        long[] sortKeys = new long[0];
+        for (; v < vertexCount(); ++v) {
+            if (isSortedByTarget(v)) {
+                continue;
+            }
+
+            int first = firstArc(v);
+            int degree = degree(v);
+            if (sortKeys.length < degree) {
+                sortKeys = new long[degree];
+            }
+
+            // Target in the upper half, position in the lower half, so that sorting is stable
+            for (int i = 0; i < degree; ++i) {
+                sortKeys[i] = ((long) targets[first + i] << Integer.SIZE) | i;
+            }
+            Arrays.sort(sortKeys, 0, degree);
+
+            for (int i = 0; i < degree; ++i) {
+                int arc = first + (int) sortKeys[i];
+                sortedTargets[first + i] = targets[arc];
+                sortedWeights[first + i] = weights[arc];
+                if (edges != null) {
+                    sortedEdges[first + i] = edges[arc];
+                }
+            }
+        }
+
+        return new CompactGraph<>(vertices, indices, offsets, sortedTargets, sortedWeights, sortedEdges, positions);
+    }
+
+    private boolean isSortedByTarget(int v) {
+        for (int arc = firstArc(v) + 1; arc < endArc(v); ++arc) {
+            if (targets[arc - 1] > targets[arc]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Arc indices where every vertex's arcs are ordered by weight; arcs with equal weights keep their neighbor order
+    public int[] arcsByWeight(boolean descending) {
+        int[] order = new int[arcCount()];
+        long[] sortKeys = new long[0];
+
+        for (int v = 0; v < vertexCount(); ++v) {
+            int first = firstArc(v);
+            int degree = degree(v);
+            if (sortKeys.length < degree) {
+                sortKeys = new long[degree];
+            }
+
+            // Weight in the upper half, position in the lower half, so that sorting is stable
+            for (int i = 0; i < degree; ++i) {
+                int weight = descending ? ~weights[first + i] : weights[first + i];
+                sortKeys[i] = ((long) weight << Integer.SIZE) | i;
+            }
+            Arrays.sort(sortKeys, 0, degree);
+
+            for (int i = 0; i < degree; ++i) {
+                order[first + i] = first + (int) sortKeys[i];
+            }
+        }
+
+        return order;
+    }
+}
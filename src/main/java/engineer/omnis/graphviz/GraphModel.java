@@ -2,19 +2,108 @@ package engineer.omnis.graphviz;
 
 import java.util.AbstractMap.SimpleEntry;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Algorithms shouldn't read the model directly while it can still change: snapshot() hands out an immutable
+// version of it that is kept up to date with every edit and can be shared by any number of threads
+public class GraphModel<V, E> implements GraphView<V, E> {
+    private static final int RESULT_CACHE_CAPACITY = 16;
+    private Adjacency<V, E> graphData;
+    private final ResultCache<V, E> resultCache = new ResultCache<>(RESULT_CACHE_CAPACITY);
+    // Bumped by every change to vertices or edges, so results computed on a version stay valid until the next bump
+    private volatile long version = 0;
+    private volatile GraphSnapshot<V, E> snapshot = GraphSnapshot.empty();
+    // While a batch runs, the snapshot stays as it was before it and is built anew once at its end
+    private boolean batching = false;
+    private final List<GraphModelListener<V, E>> listeners = new CopyOnWriteArrayList<>();
+
+    public GraphModel() {
+        this(AdjacencyMode.LIST);
+    }
+
+    public GraphModel(AdjacencyMode adjacencyMode) {
+        graphData = switch (adjacencyMode) {
+            case LIST -> new ListAdjacency<>();
+            case INDEXED -> new IndexedAdjacency<>();
+        };
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
 
-// I could've added unmodifiable proxies for GraphModel and Vertices/Edges for their use in algorithms,
-// but it feels like overkill for the task at hand tbh
-public class GraphModel<V, E> {
-    private final Map<V, List<SimpleEntry<V, E>>> graphData = new HashMap<>();
+    // O(1), the snapshot of the latest version is always published already
+    public GraphSnapshot<V, E> snapshot() {
+        return snapshot;
+    }
+
+    public ResultCache<V, E> getResultCache() {
+        return resultCache;
+    }
+
+    public void addListener(GraphModelListener<V, E> listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    public void removeListener(GraphModelListener<V, E> listener) {
+        listeners.remove(listener);
+    }
+
+    public <L> Optional<L> findListener(Class<L> type) {
+        return listeners.stream().filter(type::isInstance).map(type::cast).findFirst();
+    }
+
+    // Makes many edits at once, e.g. loading a whole graph. Listeners hear about every edit as usual, but the
+    // snapshot is only published once at the end, in O(V + E) instead of O(log V) per edit
+    public void batch(Runnable edits) {
+        if (batching) {
+            edits.run();
+            return;
+        }
+
+        batching = true;
+        try {
+            edits.run();
+        } finally {
+            batching = false;
+            snapshot = GraphSnapshot.of(this, version);
+        }
+    }
 
     public void resetGraphState() {
         graphData.clear();
+        resultCache.clear();
+        ++version;
+        snapshot = GraphSnapshot.<V, E>empty().withVersion(version);
+        listeners.forEach(GraphModelListener::graphCleared);
+    }
+
+    // Replaces the graph with the other model's in O(1), e.g. one built on a worker thread. The other model is left
+    // empty, and as the whole graph changes at once, listeners only hear that it was cleared
+    public void takeOver(GraphModel<V, E> other) {
+        Adjacency<V, E> previous = graphData;
+        graphData = other.graphData;
+        other.graphData = previous;
+        resultCache.clear();
+        version = Math.max(version, other.version) + 1;
+        snapshot = other.snapshot.withVersion(version);
+        other.resetGraphState();
+        listeners.forEach(GraphModelListener::graphCleared);
     }
 
     public boolean addVertex(V v) {
         Objects.requireNonNull(v);
-        return graphData.putIfAbsent(v, new LinkedList<>()) == null;
+        if (!graphData.addVertex(v)) {
+            return false;
+        }
+
+        ++version;
+        if (!batching) {
+            snapshot = snapshot.withVertex(v, version);
+        }
+        listeners.forEach(l -> l.vertexAdded(v));
+        return true;
     }
 
     public void connectVertices(V v1, V v2, E edge) {
@@ -25,49 +114,83 @@ public class GraphModel<V, E> {
             return;
         }
 
-        graphData.get(v1).add(new SimpleEntry<>(v2, edge));
+        graphData.addEdge(v1, v2, edge);
+        ++version;
+        if (!batching) {
+            snapshot = snapshot.withEdge(v1, v2, edge, version);
+        }
+        listeners.forEach(l -> l.edgeAdded(v1, v2, edge));
     }
 
+    @Override
     public boolean areConnected(V v1, V v2) {
-        return graphData.get(v1).stream().anyMatch(v -> v.equals(v2));
+        return graphData.containsEdge(v1, v2);
     }
 
     public void removeVertex(V v) {
         Objects.requireNonNull(v);
-        graphData.remove(v);
-        for (var vertexList : graphData.values()) {
-            vertexList.removeIf(p -> p.getKey().equals(v));
+        if (!getVertices().contains(v)) {
+            return;
         }
+
+        List<SimpleEntry<V, E>> outgoing = new ArrayList<>(graphData.getNeighbors(v));
+        List<SimpleEntry<V, E>> incoming = new ArrayList<>();
+        for (V from : graphData.getPredecessors(v)) {
+            incoming.add(new SimpleEntry<>(from, graphData.getEdge(from, v).orElse(null)));
+        }
+
+        graphData.removeVertex(v);
+        ++version;
+        if (!batching) {
+            snapshot = snapshot.withoutVertex(v, version);
+        }
+        for (var listener : listeners) {
+            incoming.forEach(e -> listener.edgeRemoved(e.getKey(), v, e.getValue()));
+            outgoing.forEach(e -> listener.edgeRemoved(v, e.getKey(), e.getValue()));
+            listener.vertexRemoved(v);
+        }
+    }
+
+    @Override
+    public Set<V> getPredecessors(V v) {
+        return graphData.getPredecessors(v);
     }
 
+    @Override
     public List<SimpleEntry<V, E>> getNeighbors(V v) {
-        return graphData.get(v);
+        return graphData.getNeighbors(v);
     }
 
+    @Override
     public Set<V> getVertices() {
-        return graphData.keySet();
+        return graphData.getVertices();
     }
 
     public List<E> getEdges(V v) {
-        if (!graphData.containsKey(v)) {
+        var neighbors = graphData.getNeighbors(v);
+        if (neighbors == null) {
             return null;
         }
 
-        return graphData.get(v).stream().map(SimpleEntry::getValue).toList();
+        return neighbors.stream().map(SimpleEntry::getValue).toList();
     }
 
+    @Override
     public Optional<E> getEdgeBetween(V v1, V v2) {
-        var neighbors = getNeighbors(v1);
-        return neighbors == null ? Optional.empty()
-                : neighbors.stream().filter(p -> p.getKey() == v2).findAny().map(SimpleEntry::getValue);
+        return graphData.getEdge(v1, v2);
     }
 
     public void removeEdge(V v1, V v2) {
         Objects.requireNonNull(v1);
         Objects.requireNonNull(v2);
-        List<SimpleEntry<V, E>> v1Neighbors = graphData.get(v1);
-        if (v1Neighbors != null) {
-            v1Neighbors.removeIf(p -> p.getKey().equals(v2));
+        if (getVertices().contains(v1) && areConnected(v1, v2)) {
+            E edge = graphData.getEdge(v1, v2).orElse(null);
+            graphData.removeEdge(v1, v2);
+            ++version;
+            if (!batching) {
+                snapshot = snapshot.withoutEdge(v1, v2, version);
+            }
+            listeners.forEach(l -> l.edgeRemoved(v1, v2, edge));
         }
     }
 
@@ -81,14 +204,21 @@ public class GraphModel<V, E> {
         String newLine = System.getProperty("line.separator");
         StringBuilder graphString = new StringBuilder();
 
-        for (var vertex : graphData.keySet()) {
+        for (var vertex : getVertices()) {
+            var neighbors = getNeighbors(vertex);
             graphString.append("Vertex: ").append(vertex).append(newLine);
             graphString.append("Neighbors: ");
-            graphString.append(graphData.get(vertex).size() > 0 ? graphData.get(vertex).toString() : "None")
+            graphString.append(neighbors.size() > 0 ? neighbors.toString() : "None")
                     .append(newLine)
                     .append(newLine);
         }
 
         return graphString.toString();
     }
+
+    // LIST keeps plain neighbor lists, INDEXED trades some memory for O(1) edge lookups and O(degree) vertex removal
+    public enum AdjacencyMode {
+        LIST,
+        INDEXED
+    }
 }
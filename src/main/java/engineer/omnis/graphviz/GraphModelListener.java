@@ -0,0 +1,21 @@
+package engineer.omnis.graphviz;
+
+// Notified synchronously after every change to a GraphModel, on the thread that made it.
+// Removing a vertex first reports the removal of each of its edges, then the vertex itself, and taking over another
+// model's graph is reported as clearing the graph
+public interface GraphModelListener<V, E> {
+    default void vertexAdded(V v) {
+    }
+
+    default void vertexRemoved(V v) {
+    }
+
+    default void edgeAdded(V from, V to, E edge) {
+    }
+
+    default void edgeRemoved(V from, V to, E edge) {
+    }
+
+    default void graphCleared() {
+    }
+}
@@ -0,0 +1,335 @@
+package engineer.omnis.graphviz;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.AbstractList;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+// Immutable version of a GraphModel. Every edit makes a new snapshot that shares all untouched vertices with the
+// previous one: the vertex table is a PersistentMap and only the rows of the edited vertices are copied.
+// That makes it safe to hand one snapshot to any number of worker threads while the EDT keeps editing the model
+public final class GraphSnapshot<V, E> implements GraphView<V, E> {
+    private static final GraphSnapshot<?, ?> EMPTY = new GraphSnapshot<>(PersistentMap.empty(), 0);
+    private final PersistentMap<V, Row<V, E>> rows;
+    private final long version;
+
+    private GraphSnapshot(PersistentMap<V, Row<V, E>> rows, long version) {
+        this.rows = rows;
+        this.version = version;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V, E> GraphSnapshot<V, E> empty() {
+        return (GraphSnapshot<V, E>) EMPTY;
+    }
+
+    // The whole graph at once, for when it changed too much for updating the previous snapshot edit by edit to pay off
+    public static <V, E> GraphSnapshot<V, E> of(GraphView<V, E> graph, long version) {
+        Map<V, PersistentMap<V, E>> incoming = new HashMap<>(graph.getVertices().size() * 2);
+        for (V from : graph.getVertices()) {
+            for (var neighbor : graph.getNeighbors(from)) {
+                V to = neighbor.getKey();
+                incoming.put(to, incoming.getOrDefault(to, PersistentMap.empty()).plus(from, neighbor.getValue()));
+            }
+        }
+
+        PersistentMap<V, Row<V, E>> rows = PersistentMap.empty();
+        for (V v : graph.getVertices()) {
+            rows = rows.plus(v, new Row<>(OutgoingEdges.of(graph.getNeighbors(v)),
+                    incoming.getOrDefault(v, PersistentMap.empty())));
+        }
+        return new GraphSnapshot<>(rows, version);
+    }
+
+    public GraphSnapshot<V, E> withVersion(long newVersion) {
+        return new GraphSnapshot<>(rows, newVersion);
+    }
+
+    public GraphSnapshot<V, E> withVertex(V v, long newVersion) {
+        if (rows.containsKey(v)) {
+            return withVersion(newVersion);
+        }
+        return new GraphSnapshot<>(rows.plus(v, Row.empty()), newVersion);
+    }
+
+    public GraphSnapshot<V, E> withEdge(V from, V to, E edge, long newVersion) {
+        var fromRow = rows.get(from);
+        if (fromRow == null) {
+            return withVersion(newVersion);
+        }
+
+        var newRows = rows.plus(from, fromRow.withOutgoing(to, edge));
+        var toRow = newRows.get(to);
+        if (toRow != null) {
+            newRows = newRows.plus(to, toRow.withIncoming(from, edge));
+        }
+        return new GraphSnapshot<>(newRows, newVersion);
+    }
+
+    public GraphSnapshot<V, E> withoutEdge(V from, V to, long newVersion) {
+        var newRows = rows;
+        var fromRow = newRows.get(from);
+        if (fromRow != null) {
+            newRows = newRows.plus(from, fromRow.withoutOutgoing(to));
+        }
+        var toRow = newRows.get(to);
+        if (toRow != null) {
+            newRows = newRows.plus(to, toRow.withoutIncoming(from));
+        }
+        return new GraphSnapshot<>(newRows, newVersion);
+    }
+
+    public GraphSnapshot<V, E> withoutVertex(V v, long newVersion) {
+        var row = rows.get(v);
+        if (row == null) {
+            return withVersion(newVersion);
+        }
+
+        var newRows = rows;
+        for (var neighbor : row.outgoing()) {
+            var toRow = newRows.get(neighbor.getKey());
+            if (toRow != null) {
+                newRows = newRows.plus(neighbor.getKey(), toRow.withoutIncoming(v));
+            }
+        }
+        for (var predecessor : row.incoming()) {
+            var fromRow = newRows.get(predecessor.getKey());
+            if (fromRow != null) {
+                newRows = newRows.plus(predecessor.getKey(), fromRow.withoutOutgoing(v));
+            }
+        }
+        return new GraphSnapshot<>(newRows.minus(v), newVersion);
+    }
+
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public Set<V> getVertices() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<V> iterator() {
+                var entries = rows.iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public V next() {
+                        return entries.next().getKey();
+                    }
+                };
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                return o != null && rows.containsKey((V) o);
+            }
+
+            @Override
+            public int size() {
+                return rows.size();
+            }
+        };
+    }
+
+    @Override
+    public List<SimpleEntry<V, E>> getNeighbors(V v) {
+        var row = rows.get(v);
+        return row == null ? null : row.outgoing();
+    }
+
+    @Override
+    public Set<V> getPredecessors(V v) {
+        var row = rows.get(v);
+        if (row == null) {
+            return Set.of();
+        }
+
+        Set<V> predecessors = new HashSet<>(row.incoming().size() * 2);
+        row.incoming().forEach(e -> predecessors.add(e.getKey()));
+        return Collections.unmodifiableSet(predecessors);
+    }
+
+    @Override
+    public Optional<E> getEdgeBetween(V v1, V v2) {
+        return findEdge(v1, v2).map(SimpleEntry::getValue);
+    }
+
+    @Override
+    public boolean areConnected(V v1, V v2) {
+        return findEdge(v1, v2).isPresent();
+    }
+
+    private Optional<SimpleEntry<V, E>> findEdge(V from, V to) {
+        var toRow = rows.get(to);
+        if (toRow != null) {
+            return toRow.incoming().containsKey(from)
+                    ? Optional.of(new SimpleEntry<>(to, toRow.incoming().get(from)))
+                    : Optional.empty();
+        }
+
+        var fromRow = rows.get(from);
+        if (fromRow == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(fromRow.outgoing().find(to));
+    }
+
+    // Outgoing edges in insertion order, like the model's neighbor lists, and incoming edges keyed by their source.
+    // Both are persistent, so an edit copies O(log deg) of a row instead of all of it
+    private record Row<V, E>(OutgoingEdges<V, E> outgoing, PersistentMap<V, E> incoming) {
+        private static <V, E> Row<V, E> empty() {
+            return new Row<>(OutgoingEdges.empty(), PersistentMap.empty());
+        }
+
+        private Row<V, E> withOutgoing(V to, E edge) {
+            return new Row<>(outgoing.plus(to, edge), incoming);
+        }
+
+        private Row<V, E> withoutOutgoing(V to) {
+            var newOutgoing = outgoing.minus(to);
+            return newOutgoing == outgoing ? this : new Row<>(newOutgoing, incoming);
+        }
+
+        private Row<V, E> withIncoming(V from, E edge) {
+            return new Row<>(outgoing, incoming.plus(from, edge));
+        }
+
+        private Row<V, E> withoutIncoming(V from) {
+            return new Row<>(outgoing, incoming.minus(from));
+        }
+    }
+
+    // The neighbor list handed out by the snapshot. Edges sit in a vector in the order they were added, and a removed
+    // edge leaves a gap behind, found through the slot map. Once gaps make up half of the vector it's packed anew,
+    // which is O(deg) but only happens after deg / 2 removals
+    private static final class OutgoingEdges<V, E> extends AbstractList<SimpleEntry<V, E>> {
+        private static final OutgoingEdges<?, ?> EMPTY = new OutgoingEdges<>(PersistentVector.empty(), PersistentMap.empty());
+        private final PersistentVector<SimpleEntry<V, E>> edges;
+        private final PersistentMap<V, Integer> slots;
+
+        private OutgoingEdges(PersistentVector<SimpleEntry<V, E>> edges, PersistentMap<V, Integer> slots) {
+            this.edges = edges;
+            this.slots = slots;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V, E> OutgoingEdges<V, E> empty() {
+            return (OutgoingEdges<V, E>) EMPTY;
+        }
+
+        private static <V, E> OutgoingEdges<V, E> of(List<SimpleEntry<V, E>> neighbors) {
+            List<SimpleEntry<V, E>> edges = new ArrayList<>(neighbors.size());
+            PersistentMap<V, Integer> slots = PersistentMap.empty();
+            for (var neighbor : neighbors) {
+                if (!slots.containsKey(neighbor.getKey())) {
+                    slots = slots.plus(neighbor.getKey(), edges.size());
+                    edges.add(neighbor);
+                }
+            }
+            return new OutgoingEdges<>(PersistentVector.of(edges), slots);
+        }
+
+        private SimpleEntry<V, E> find(V to) {
+            Integer slot = slots.get(to);
+            return slot == null ? null : edges.get(slot);
+        }
+
+        private OutgoingEdges<V, E> plus(V to, E edge) {
+            var base = minus(to);
+            return new OutgoingEdges<>(base.edges.plus(new SimpleEntry<>(to, edge)),
+                    base.slots.plus(to, base.edges.size()));
+        }
+
+        private OutgoingEdges<V, E> minus(V to) {
+            Integer slot = slots.get(to);
+            if (slot == null) {
+                return this;
+            }
+
+            var newEdges = edges.with(slot, null);
+            var newSlots = slots.minus(to);
+            if (2 * newSlots.size() >= newEdges.size()) {
+                return new OutgoingEdges<>(newEdges, newSlots);
+            }
+
+            List<SimpleEntry<V, E>> packed = new ArrayList<>(newSlots.size());
+            newEdges.forEach(e -> {
+                if (e != null) {
+                    packed.add(e);
+                }
+            });
+            return of(packed);
+        }
+
+        @Override
+        public int size() {
+            return slots.size();
+        }
+
+        // Only direct without gaps, the snapshot's readers iterate anyway
+        @Override
+        public SimpleEntry<V, E> get(int index) {
+            if (edges.size() == slots.size()) {
+                return edges.get(index);
+            }
+
+            Objects.checkIndex(index, size());
+            var iterator = iterator();
+            for (int i = 0; i < index; ++i) {
+                iterator.next();
+            }
+            return iterator.next();
+        }
+
+        @Override
+        public Iterator<SimpleEntry<V, E>> iterator() {
+            var slotIterator = edges.iterator();
+            return new Iterator<>() {
+                private SimpleEntry<V, E> next = advance();
+
+                private SimpleEntry<V, E> advance() {
+                    while (slotIterator.hasNext()) {
+                        var edge = slotIterator.next();
+                        if (edge != null) {
+                            return edge;
+                        }
+                    }
+                    return null;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public SimpleEntry<V, E> next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+
+                    var current = next;
+                    next = advance();
+                    return current;
+                }
+            };
+        }
+    }
+}
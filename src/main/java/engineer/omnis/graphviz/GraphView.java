@@ -0,0 +1,22 @@
+package engineer.omnis.graphviz;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// Read access shared by the live GraphModel and its immutable snapshots
+public interface GraphView<V, E> {
+    long getVersion();
+
+    Set<V> getVertices();
+
+    List<SimpleEntry<V, E>> getNeighbors(V v);
+
+    // Vertices with an edge to v
+    Set<V> getPredecessors(V v);
+
+    Optional<E> getEdgeBetween(V v1, V v2);
+
+    boolean areConnected(V v1, V v2);
+}
@@ -0,0 +1,127 @@
+package engineer.omnis.graphviz;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.*;
+
+// Every vertex keeps its outgoing edges in an insertion-ordered hash map and the set of vertices pointing at it,
+// so edge lookups and insertions are O(1) and removing a vertex only touches its own neighborhood
+class IndexedAdjacency<V, E> implements Adjacency<V, E> {
+    private final Map<V, Map<V, SimpleEntry<V, E>>> outgoing = new HashMap<>();
+    private final Map<V, Set<V>> incoming = new HashMap<>();
+
+    @Override
+    public void clear() {
+        outgoing.clear();
+        incoming.clear();
+    }
+
+    @Override
+    public boolean addVertex(V v) {
+        if (outgoing.putIfAbsent(v, new LinkedHashMap<>()) != null) {
+            return false;
+        }
+        incoming.putIfAbsent(v, new HashSet<>());
+        return true;
+    }
+
+    @Override
+    public void addEdge(V from, V to, E edge) {
+        outgoing.get(from).put(to, new SimpleEntry<>(to, edge));
+        incoming.computeIfAbsent(to, k -> new HashSet<>()).add(from);
+    }
+
+    @Override
+    public boolean containsEdge(V from, V to) {
+        return outgoing.get(from).containsKey(to);
+    }
+
+    @Override
+    public Optional<E> getEdge(V from, V to) {
+        var neighbors = outgoing.get(from);
+        if (neighbors == null) {
+            return Optional.empty();
+        }
+
+        var entry = neighbors.get(to);
+        return entry == null ? Optional.empty() : Optional.ofNullable(entry.getValue());
+    }
+
+    @Override
+    public void removeVertex(V v) {
+        var neighbors = outgoing.remove(v);
+        if (neighbors != null) {
+            for (V to : neighbors.keySet()) {
+                var sources = incoming.get(to);
+                if (sources != null) {
+                    sources.remove(v);
+                }
+            }
+        }
+
+        var sources = incoming.remove(v);
+        if (sources != null) {
+            for (V from : sources) {
+                var fromNeighbors = outgoing.get(from);
+                if (fromNeighbors != null) {
+                    fromNeighbors.remove(v);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void removeEdge(V from, V to) {
+        var neighbors = outgoing.get(from);
+        if (neighbors != null && neighbors.remove(to) != null) {
+            incoming.get(to).remove(from);
+        }
+    }
+
+    // A read-only view rather than a copy, so that callers going over every row, like CompactGraph.freeze, don't copy
+    // the whole graph. Like the lists of ListAdjacency, it follows later edits of the row
+    @Override
+    public List<SimpleEntry<V, E>> getNeighbors(V v) {
+        var neighbors = outgoing.get(v);
+        return neighbors == null ? null : new NeighborList<>(neighbors.values());
+    }
+
+    @Override
+    public Set<V> getPredecessors(V v) {
+        var sources = incoming.get(v);
+        return sources == null ? Set.of() : Collections.unmodifiableSet(sources);
+    }
+
+    @Override
+    public Set<V> getVertices() {
+        return outgoing.keySet();
+    }
+
+    // size() and iterating are as fast as on the map, get(i) has to walk to the i-th edge like a linked list does
+    private static final class NeighborList<V, E> extends AbstractList<SimpleEntry<V, E>> {
+        private final Collection<SimpleEntry<V, E>> edges;
+
+        private NeighborList(Collection<SimpleEntry<V, E>> edges) {
+            this.edges = Collections.unmodifiableCollection(edges);
+        }
+
+        @Override
+        public SimpleEntry<V, E> get(int index) {
+            Objects.checkIndex(index, edges.size());
+            var iterator = edges.iterator();
+            for (int i = 0; i < index; ++i) {
+                iterator.next();
+            }
+            return iterator.next();
+        }
+
+        @Override
+        public int size() {
+            return edges.size();
+        }
+
+        @Override
+        public Iterator<SimpleEntry<V, E>> iterator() {
+            return edges.iterator();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package engineer.omnis.graphviz;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.*;
+
+// Plain adjacency lists: cheap to build, but lookups and removals scan the neighbor lists
+class ListAdjacency<V, E> implements Adjacency<V, E> {
+    private final Map<V, List<SimpleEntry<V, E>>> graphData = new HashMap<>();
+
+    @Override
+    public void clear() {
+        graphData.clear();
+    }
+
+    @Override
+    public boolean addVertex(V v) {
+        return graphData.putIfAbsent(v, new LinkedList<>()) == null;
+    }
+
+    @Override
+    public void addEdge(V from, V to, E edge) {
+        graphData.get(from).add(new SimpleEntry<>(to, edge));
+    }
+
+    @Override
+    public boolean containsEdge(V from, V to) {
+        return graphData.get(from).stream().anyMatch(p -> p.getKey().equals(to));
+    }
+
+    @Override
+    public Optional<E> getEdge(V from, V to) {
+        var neighbors = graphData.get(from);
+        return neighbors == null ? Optional.empty()
+                : neighbors.stream().filter(p -> p.getKey().equals(to)).findAny().map(SimpleEntry::getValue);
+    }
+
+    @Override
+    public void removeVertex(V v) {
+        graphData.remove(v);
+        for (var vertexList : graphData.values()) {
+            vertexList.removeIf(p -> p.getKey().equals(v));
+        }
+    }
+
+    @Override
+    public void removeEdge(V from, V to) {
+        List<SimpleEntry<V, E>> neighbors = graphData.get(from);
+        if (neighbors != null) {
+            neighbors.removeIf(p -> p.getKey().equals(to));
+        }
+    }
+
+    @Override
+    public List<SimpleEntry<V, E>> getNeighbors(V v) {
+        return graphData.get(v);
+    }
+
+    // Scans every neighbor list
+    @Override
+    public Set<V> getPredecessors(V v) {
+        Set<V> sources = new HashSet<>();
+        for (var entry : graphData.entrySet()) {
+            if (entry.getValue().stream().anyMatch(p -> p.getKey().equals(v))) {
+                sources.add(entry.getKey());
+            }
+        }
+        return sources;
+    }
+
+    @Override
+    public Set<V> getVertices() {
+        return graphData.keySet();
+    }
+}
@@ -1,22 +1,65 @@
 package engineer.omnis.graphviz;
 
 import engineer.omnis.graphviz.algorithms.*;
+import engineer.omnis.graphviz.generators.BarabasiAlbertGenerator;
+import engineer.omnis.graphviz.generators.CompactGraphSource;
+import engineer.omnis.graphviz.generators.ErdosRenyiGenerator;
+import engineer.omnis.graphviz.generators.GraphGenerator;
+import engineer.omnis.graphviz.generators.GridGenerator;
+import engineer.omnis.graphviz.generators.RandomGeometricGenerator;
+import engineer.omnis.graphviz.generators.RecordedGraph;
 import engineer.omnis.graphviz.graph.EditModeOption;
 import engineer.omnis.graphviz.graph.components.GraphComponent;
+import engineer.omnis.graphviz.graph.components.GraphEdgePair;
+import engineer.omnis.graphviz.graph.components.GraphNodeComponent;
+import engineer.omnis.graphviz.graph.components.PreparedGraph;
 import engineer.omnis.graphviz.graph.GraphComponentStyle;
+import engineer.omnis.graphviz.graph.RenderMode;
+import engineer.omnis.graphviz.io.BinaryGraphFile;
+import engineer.omnis.graphviz.io.GraphFormat;
+import engineer.omnis.graphviz.io.GraphImporter;
+import engineer.omnis.graphviz.trace.TraceElements;
+import engineer.omnis.graphviz.trace.TraceReader;
 
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.regex.Pattern;
 
 public class MainFrame extends JFrame {
     public static final int SCREEN_WIDTH = 800;
     public static final int SCREEN_HEIGHT = 600;
+    private static final Pattern SIZES_PATTERN = Pattern.compile("\\s*\\d+\\s+\\d+\\s*");
+    private static final int GENERATED_MAX_WEIGHT = 100;
+    // In the COMPONENTS render mode every vertex and edge is a Swing component, which doesn't scale much further.
+    // Bigger graphs are shown on the canvas
+    private static final int MAX_COMPONENT_VERTICES = 20_000;
+    private static final int MAX_COMPONENT_EDGES = 40_000;
+    private static final int MAX_DISPLAYED_VERTICES = 200_000;
+    // Generators and imports stop as soon as they go past it, e.g. a dense Erdős–Rényi graph would ask for billions
+    private static final int MAX_DISPLAYED_EDGES = 1_000_000;
+    private static final String TRACE_EXTENSION = ".gtrace";
+    private static final double[] PLAYBACK_SPEEDS = {0.25, 0.5, 1, 2, 5, 10, 100, 1000, 10_000};
     private GraphComponent graph = null;
     private JLabel modeLabel;
     private JLabel infoLabel;
+    private JSlider timelineSlider;
+    private final Map<RenderMode, JRadioButtonMenuItem> renderModeItems = new EnumMap<>(RenderMode.class);
+    // Zooming and panning only work on the canvas
+    private final List<JMenuItem> viewportItems = new ArrayList<>();
 
     public MainFrame() {
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
@@ -72,6 +115,7 @@ public class MainFrame extends JFrame {
         installMenuBar();
         installInfoLabel();
         installModeLabel();
+        installTimelineSlider();
         setGraphEditModeOption(EditModeOption.ADD_VERTEX);
     }
 
@@ -113,12 +157,30 @@ public class MainFrame extends JFrame {
         newMenuItem.setName(newItemName);
         newMenuItem.addActionListener(e -> graph.resetGraphState());
 
+        String openItemName = "Open...";
+        JMenuItem openMenuItem = new JMenuItem(openItemName);
+        openMenuItem.setName(openItemName);
+        openMenuItem.addActionListener(e -> openGraph());
+
+        String saveItemName = "Save...";
+        JMenuItem saveMenuItem = new JMenuItem(saveItemName);
+        saveMenuItem.setName(saveItemName);
+        saveMenuItem.addActionListener(e -> saveGraph());
+
+        String importItemName = "Import...";
+        JMenuItem importMenuItem = new JMenuItem(importItemName);
+        importMenuItem.setName(importItemName);
+        importMenuItem.addActionListener(e -> importGraph());
+
         String exitItemName = "Exit";
         JMenuItem exitMenuItem = new JMenuItem(exitItemName);
         exitMenuItem.setName(exitItemName);
         exitMenuItem.addActionListener(e -> dispose());
 
         fileMenu.add(newMenuItem);
+        fileMenu.add(openMenuItem);
+        fileMenu.add(saveMenuItem);
+        fileMenu.add(importMenuItem);
         fileMenu.add(exitMenuItem);
 
         // Algos
@@ -132,6 +194,19 @@ public class MainFrame extends JFrame {
             menuItem.addActionListener(e -> initiateAlgorithmVisualization(algo));
             algorithmsMenu.add(menuItem);
         }
+        algorithmsMenu.addSeparator();
+
+        String recordItemName = "Record next run...";
+        JMenuItem recordMenuItem = new JMenuItem(recordItemName);
+        recordMenuItem.setName(recordItemName);
+        recordMenuItem.addActionListener(e -> recordNextRun());
+        algorithmsMenu.add(recordMenuItem);
+
+        String replayItemName = "Replay trace...";
+        JMenuItem replayMenuItem = new JMenuItem(replayItemName);
+        replayMenuItem.setName(replayItemName);
+        replayMenuItem.addActionListener(e -> replayTrace());
+        algorithmsMenu.add(replayMenuItem);
 
         // Presets
         String graphPresetsMenuName = "Presets";
@@ -139,14 +214,356 @@ public class MainFrame extends JFrame {
         JMenuItem fullyConnected = new JMenuItem("Fully connected-6");
         fullyConnected.addActionListener(e -> graph.generateFullyConnectedGraph(6));
         presetsMenu.add(fullyConnected);
+        presetsMenu.addSeparator();
+        presetsMenu.add(createGeneratorMenuItem("Erdős–Rényi...", "Vertex count and average degree:", "200 4",
+                sizes -> ErdosRenyiGenerator.withAverageDegree(sizes[0], sizes[1], GENERATED_MAX_WEIGHT, randomSeed())));
+        presetsMenu.add(createGeneratorMenuItem("Grid...", "Rows and columns:", "10 15",
+                sizes -> new GridGenerator(sizes[0], sizes[1], GENERATED_MAX_WEIGHT, randomSeed())));
+        presetsMenu.add(createGeneratorMenuItem("Barabási–Albert...", "Vertex count and edges per new vertex:", "200 2",
+                sizes -> new BarabasiAlbertGenerator(sizes[0], sizes[1], GENERATED_MAX_WEIGHT, randomSeed())));
+        presetsMenu.add(createGeneratorMenuItem("Random geometric...", "Vertex count and average degree:", "200 6",
+                sizes -> RandomGeometricGenerator.withAverageDegree(sizes[0], sizes[1], randomSeed())));
 
         menuBar.add(fileMenu);
         menuBar.add(modeMenu);
         menuBar.add(algorithmsMenu);
         menuBar.add(presetsMenu);
+        menuBar.add(createViewMenu());
+        menuBar.add(createPlaybackMenu());
         setJMenuBar(menuBar);
     }
 
+    // Asks for two sizes and loads the graph generated off the EDT, or explains why the generator rejected them
+    private JMenuItem createGeneratorMenuItem(String name, String message, String defaultSizes,
+                                              Function<int[], GraphGenerator> generatorFactory) {
+        JMenuItem menuItem = new JMenuItem(name);
+        menuItem.setName(name);
+        menuItem.addActionListener(e -> {
+            if (graph.isClosedForModification()) {
+                return;
+            }
+
+            Object input = defaultSizes;
+            do {
+                input = JOptionPane.showInputDialog(this, message, name, JOptionPane.QUESTION_MESSAGE, null, null, input);
+            } while (input != null && !SIZES_PATTERN.matcher(input.toString()).matches());
+            if (input == null) {
+                return;
+            }
+
+            GraphGenerator generator;
+            try {
+                int[] sizes = Arrays.stream(input.toString().trim().split("\\s+")).mapToInt(Integer::parseInt).toArray();
+                generator = generatorFactory.apply(sizes);
+            } catch (IllegalArgumentException ex) {
+                // NumberFormatException included, for sizes that don't fit into an int
+                JOptionPane.showMessageDialog(this, ex.getMessage(), name, JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            new GraphLoader(name) {
+                @Override
+                protected PreparedGraph prepare(RenderMode currentMode) {
+                    return prepareDisplayable(generator, currentMode);
+                }
+            }.execute();
+        });
+        return menuItem;
+    }
+
+    // Off the EDT. Graphs too big to be displayed are refused before anything is generated, if only their edges are,
+    // the generator stops as soon as there are too many. It's recorded first, as the render mode depends on its size
+    private PreparedGraph prepareDisplayable(GraphGenerator generator, RenderMode currentMode) {
+        if (generator.vertexCount() > MAX_DISPLAYED_VERTICES) {
+            throw new IllegalArgumentException(tooManyVertices(generator.vertexCount()));
+        }
+        // Known up front for some generators, the others are stopped while generating
+        if (generator.edgeCount() > MAX_DISPLAYED_EDGES) {
+            throw new IllegalArgumentException(tooManyEdges(generator.edgeCount()));
+        }
+        RecordedGraph recorded = RecordedGraph.record(generator, MAX_DISPLAYED_EDGES);
+        return graph.prepareGeneratedGraph(recorded,
+                displayMode(recorded.vertexCount(), recorded.edgeCount(), currentMode));
+    }
+
+    // Parses the file and merges its arcs into edges off the EDT, the format is picked by file extension
+    private void importGraph() {
+        if (graph.isClosedForModification()) {
+            return;
+        }
+
+        JFileChooser fileChooser = new JFileChooser();
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        Path path = fileChooser.getSelectedFile().toPath();
+        GraphFormat format = GraphFormat.forFileName(path.getFileName().toString());
+        new GraphLoader("Import") {
+            @Override
+            protected PreparedGraph prepare(RenderMode currentMode) throws IOException {
+                return prepareDisplayable(new CompactGraphSource(new GraphImporter().importGraph(path, format),
+                        randomSeed()), currentMode);
+            }
+        }.execute();
+    }
+
+    // Reads one of our own binary graph files, falling back to generated positions for files saved without any
+    private void openGraph() {
+        if (graph.isClosedForModification()) {
+            return;
+        }
+
+        JFileChooser fileChooser = createFileChooser("Graph files", BinaryGraphFile.EXTENSION);
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        Path path = fileChooser.getSelectedFile().toPath();
+        new GraphLoader("Open") {
+            @Override
+            protected PreparedGraph prepare(RenderMode currentMode) throws IOException {
+                BinaryGraphFile file = BinaryGraphFile.open(path);
+                // Both directions of every edge are saved
+                RenderMode mode = displayMode(file.vertexCount(), file.arcCount() / 2, currentMode);
+                CompactGraph<Integer, Void> opened = file.toCompactGraph();
+                return opened.hasPositions()
+                        ? graph.prepareGraph(opened, file::label, mode)
+                        : graph.prepareGeneratedGraph(new CompactGraphSource(opened, randomSeed()), mode);
+            }
+        }.execute();
+    }
+
+    // Freezes the current snapshot on the EDT, where the vertex positions are stable, and writes it in the background
+    private void saveGraph() {
+        JFileChooser fileChooser = createFileChooser("Graph files", BinaryGraphFile.EXTENSION);
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        Path path = withExtension(fileChooser.getSelectedFile().toPath(), BinaryGraphFile.EXTENSION);
+        CompactGraph<GraphNodeComponent, GraphEdgePair> frozen = CompactGraph.freeze(graph.getGraphModel().snapshot(),
+                GraphEdgePair::getWeight, GraphNodeComponent::getCenterPos);
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                BinaryGraphFile.write(path, frozen, v -> frozen.vertex(v).getId());
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                } catch (ExecutionException e) {
+                    showFileMessage("Save", String.valueOf(e.getCause().getMessage()), JOptionPane.ERROR_MESSAGE);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }.execute();
+    }
+
+    private void recordNextRun() {
+        if (graph.isClosedForModification()) {
+            return;
+        }
+
+        JFileChooser fileChooser = createFileChooser("Trace files", TRACE_EXTENSION);
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        Path path = withExtension(fileChooser.getSelectedFile().toPath(), TRACE_EXTENSION);
+        graph.recordNextRun(path);
+        showInfoLabel();
+        updateInfoLabel("The next run will be recorded to " + path.getFileName());
+    }
+
+    // Replays on the current graph, which has to have the vertex IDs and edges the trace was recorded on
+    private void replayTrace() {
+        if (graph.isClosedForModification()) {
+            return;
+        }
+
+        JFileChooser fileChooser = createFileChooser("Trace files", TRACE_EXTENSION);
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        TraceReader trace;
+        TraceElements elements;
+        try {
+            trace = TraceReader.open(fileChooser.getSelectedFile().toPath());
+            elements = TraceElements.resolve(trace, graph.getGraphModel());
+        } catch (IOException | IllegalArgumentException e) {
+            showFileMessage("Replay", String.valueOf(e.getMessage()), JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        setGraphEditModeOption(EditModeOption.NONE);
+        showInfoLabel();
+        // Replays start right away, so there is no input to ask for in between
+        Runnable showReplaying = () -> updateInfoLabel("Replaying " + trace.stepCount() + " steps...");
+        graph.initiateAlgorithmVisualization(new GraphTraceReplayStrategy(trace, elements,
+                showReplaying,
+                showReplaying,
+                this::updateInfoLabel,
+                () -> updateInfoLabel("Replay aborted")));
+    }
+
+    private static JFileChooser createFileChooser(String description, String extension) {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setFileFilter(new FileNameExtensionFilter(description + " (*" + extension + ")",
+                extension.substring(1)));
+        return fileChooser;
+    }
+
+    private static Path withExtension(Path path, String extension) {
+        String fileName = path.getFileName().toString();
+        return fileName.endsWith(extension) ? path : path.resolveSibling(fileName + extension);
+    }
+
+    private JMenu createViewMenu() {
+        String viewMenuName = "View";
+        JMenu viewMenu = new JMenu(viewMenuName);
+        viewMenu.setName(viewMenuName);
+
+        ButtonGroup renderModeGroup = new ButtonGroup();
+        for (RenderMode renderMode : RenderMode.values()) {
+            JRadioButtonMenuItem menuItem = new JRadioButtonMenuItem(renderMode.toString());
+            menuItem.setName(renderMode.toString());
+            menuItem.setSelected(renderMode == graph.getRenderMode());
+            menuItem.addActionListener(e -> setRenderMode(renderMode));
+            renderModeGroup.add(menuItem);
+            renderModeItems.put(renderMode, menuItem);
+            viewMenu.add(menuItem);
+        }
+
+        viewMenu.addSeparator();
+        viewMenu.add(createViewportMenuItem("Zoom In", graph::zoomIn));
+        viewMenu.add(createViewportMenuItem("Zoom Out", graph::zoomOut));
+        viewMenu.add(createViewportMenuItem("Fit Graph", graph::fitGraphToView));
+        viewMenu.add(createViewportMenuItem("Actual Size", graph::resetView));
+        return viewMenu;
+    }
+
+    // Applies to the run being shown and to the ones after it
+    private JMenu createPlaybackMenu() {
+        String playbackMenuName = "Playback";
+        JMenu playbackMenu = new JMenu(playbackMenuName);
+        playbackMenu.setName(playbackMenuName);
+
+        JCheckBoxMenuItem pauseItem = new JCheckBoxMenuItem("Pause");
+        pauseItem.setName("Pause");
+        pauseItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_SPACE, 0));
+        pauseItem.addActionListener(e -> graph.setPlaybackPaused(pauseItem.isSelected()));
+        playbackMenu.add(pauseItem);
+
+        JMenuItem stepItem = new JMenuItem("Step");
+        stepItem.setName("Step");
+        stepItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_RIGHT, 0));
+        stepItem.addActionListener(e -> {
+            graph.stepPlayback();
+            pauseItem.setSelected(true);
+        });
+        playbackMenu.add(stepItem);
+
+        JMenuItem skipItem = new JMenuItem("Skip to End");
+        skipItem.setName("Skip to End");
+        skipItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_END, 0));
+        skipItem.addActionListener(e -> graph.skipToEnd());
+        playbackMenu.add(skipItem);
+
+        playbackMenu.addSeparator();
+        ButtonGroup speedGroup = new ButtonGroup();
+        for (double speed : PLAYBACK_SPEEDS) {
+            String name = (speed == Math.rint(speed) ? String.valueOf((long) speed) : String.valueOf(speed)) + "x";
+            JRadioButtonMenuItem menuItem = new JRadioButtonMenuItem(name);
+            menuItem.setName(name);
+            menuItem.setSelected(speed == graph.getPlaybackSpeed());
+            menuItem.addActionListener(e -> graph.setPlaybackSpeed(speed));
+            speedGroup.add(menuItem);
+            playbackMenu.add(menuItem);
+        }
+        return playbackMenu;
+    }
+
+    private JMenuItem createViewportMenuItem(String name, Runnable action) {
+        JMenuItem menuItem = new JMenuItem(name);
+        menuItem.setName(name);
+        menuItem.setEnabled(graph.getRenderMode() == RenderMode.CANVAS);
+        menuItem.addActionListener(e -> action.run());
+        viewportItems.add(menuItem);
+        return menuItem;
+    }
+
+    private void setRenderMode(RenderMode renderMode) {
+        graph.setRenderMode(renderMode);
+        renderModeItems.get(renderMode).setSelected(true);
+        viewportItems.forEach(item -> item.setEnabled(renderMode == RenderMode.CANVAS));
+    }
+
+    // Graphs too big for Swing components go onto the canvas, and past that aren't displayed at all
+    private static RenderMode displayMode(int vertexCount, long edgeCount, RenderMode currentMode) {
+        if (vertexCount > MAX_DISPLAYED_VERTICES) {
+            throw new IllegalArgumentException(tooManyVertices(vertexCount));
+        }
+        if (edgeCount > MAX_DISPLAYED_EDGES) {
+            throw new IllegalArgumentException(tooManyEdges(edgeCount));
+        }
+        return vertexCount > MAX_COMPONENT_VERTICES || edgeCount > MAX_COMPONENT_EDGES ? RenderMode.CANVAS : currentMode;
+    }
+
+    private static String tooManyVertices(int vertexCount) {
+        return "The graph has " + vertexCount + " vertices, but at most " + MAX_DISPLAYED_VERTICES
+                + " vertices can be displayed";
+    }
+
+    private static String tooManyEdges(long edgeCount) {
+        return "The graph has " + edgeCount + " edges, but at most " + MAX_DISPLAYED_EDGES + " edges can be displayed";
+    }
+
+    private void showFileMessage(String title, String message, int messageType) {
+        JOptionPane.showMessageDialog(this, message, title, messageType);
+    }
+
+    // Builds the whole graph off the EDT for the render mode it will be shown in, so all that's left for the EDT is
+    // switching to that mode and showing it
+    private abstract class GraphLoader extends SwingWorker<PreparedGraph, Void> {
+        private final String title;
+        private final RenderMode currentMode = graph.getRenderMode();
+
+        GraphLoader(String title) {
+            this.title = title;
+        }
+
+        protected abstract PreparedGraph prepare(RenderMode mode) throws Exception;
+
+        @Override
+        protected PreparedGraph doInBackground() throws Exception {
+            return prepare(currentMode);
+        }
+
+        @Override
+        protected void done() {
+            try {
+                PreparedGraph prepared = get();
+                if (!graph.isClosedForModification()) {
+                    setRenderMode(prepared.getRenderMode());
+                    graph.loadPreparedGraph(prepared);
+                }
+            } catch (ExecutionException e) {
+                showFileMessage(title, String.valueOf(e.getCause().getMessage()), JOptionPane.ERROR_MESSAGE);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static long randomSeed() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
     @SuppressWarnings("checkstyle:magicnumber")
     private void installModeLabel() {
         modeLabel = new JLabel("Placeholder");
@@ -161,6 +578,65 @@ public class MainFrame extends JFrame {
         glass.add(modeLabel);
     }
 
+    // Shown above the output of a finished run, for as long as its colors are, to scrub back and forth through it
+    private void installTimelineSlider() {
+        timelineSlider = new JSlider(0, 0, 0);
+        timelineSlider.setName("Timeline");
+        timelineSlider.setOpaque(true);
+        timelineSlider.setBackground(infoLabel.getBackground());
+        timelineSlider.addChangeListener(e -> graph.scrubTo(timelineSlider.getValue()));
+        graph.addPropertyChangeListener("timeline", e -> {
+            if ((int) e.getNewValue() > 0) {
+                showTimelineSlider();
+            } else {
+                hideTimelineSlider();
+            }
+        });
+    }
+
+    @SuppressWarnings("checkstyle:magicnumber")
+    private void showTimelineSlider() {
+        JPanel glass = (JPanel) getGlassPane();
+        if (infoLabel.getParent() != glass) {
+            return;
+        }
+
+        // All at once, setting the maximum first could move the value and scrub the run
+        timelineSlider.getModel().setRangeProperties(graph.getTimelinePosition(), 0, 0, graph.getTimelineLength(), false);
+        SpringLayout layout = (SpringLayout) glass.getLayout();
+        layout.removeLayoutComponent(modeLabel);
+        layout.putConstraint(SpringLayout.WEST, timelineSlider, 0, SpringLayout.WEST, glass);
+        layout.putConstraint(SpringLayout.EAST, timelineSlider, 0, SpringLayout.EAST, glass);
+        layout.putConstraint(SpringLayout.SOUTH, timelineSlider, 0, SpringLayout.NORTH, infoLabel);
+        layout.putConstraint(SpringLayout.WEST, modeLabel, 10, SpringLayout.WEST, glass);
+        layout.putConstraint(SpringLayout.SOUTH, modeLabel, -5, SpringLayout.NORTH, timelineSlider);
+
+        glass.add(timelineSlider);
+        glass.revalidate();
+        glass.repaint();
+    }
+
+    @SuppressWarnings("checkstyle:magicnumber")
+    private void hideTimelineSlider() {
+        JPanel glass = (JPanel) getGlassPane();
+        if (timelineSlider.getParent() != glass) {
+            return;
+        }
+
+        SpringLayout layout = (SpringLayout) glass.getLayout();
+        layout.removeLayoutComponent(timelineSlider);
+        layout.removeLayoutComponent(modeLabel);
+        layout.putConstraint(SpringLayout.WEST, modeLabel, 10, SpringLayout.WEST, glass);
+        if (infoLabel.getParent() == glass) {
+            layout.putConstraint(SpringLayout.SOUTH, modeLabel, -5, SpringLayout.NORTH, infoLabel);
+        } else {
+            layout.putConstraint(SpringLayout.SOUTH, modeLabel, -5, SpringLayout.SOUTH, glass);
+        }
+        glass.remove(timelineSlider);
+        glass.revalidate();
+        glass.repaint();
+    }
+
     private void setGraphEditModeOption(EditModeOption editModeOption) {
         if (graph.isClosedForModification()) {
             return;
@@ -181,8 +657,13 @@ public class MainFrame extends JFrame {
         GraphAlgorithmStrategy strategy = switch (algorithm) {
             case DFS -> getDefaultAlgorithmStrategy(GraphDFSStrategy::new);
             case BFS -> getDefaultAlgorithmStrategy(GraphBFSStrategy::new);
+            case PARALLEL_BFS -> getDefaultAlgorithmStrategy(GraphParallelBFSStrategy::new);
             case DIJKSTRA -> getDefaultAlgorithmStrategy(GraphDijkstraStrategy::new);
+            case DELTA_STEPPING -> getDefaultAlgorithmStrategy(GraphDeltaSteppingStrategy::new);
             case PRIM -> getDefaultAlgorithmStrategy(GraphPrimStrategy::new);
+            case BORUVKA -> getDefaultAlgorithmStrategy(GraphBoruvkaStrategy::new);
+            case ASTAR -> getPointToPointAlgorithmStrategy(GraphAStarStrategy::new);
+            case BIDIRECTIONAL_DIJKSTRA -> getPointToPointAlgorithmStrategy(GraphBidirectionalDijkstraStrategy::new);
         };
         graph.initiateAlgorithmVisualization(strategy);
     }
@@ -214,6 +695,7 @@ public class MainFrame extends JFrame {
 
     @SuppressWarnings("checkstyle:magicnumber")
     private void hideInfoLabel() {
+        hideTimelineSlider();
         JPanel glass = (JPanel) getGlassPane();
         SpringLayout layout = (SpringLayout) glass.getLayout();
         layout.removeLayoutComponent(infoLabel);
@@ -234,11 +716,25 @@ public class MainFrame extends JFrame {
                 () -> updateInfoLabel("Algorithm execution aborted"));
     }
 
+    private GraphAlgorithmStrategy getPointToPointAlgorithmStrategy(GraphStrategyConstructor constructor) {
+        return constructor.apply(
+                graph.getGraphModel(),
+                () -> updateInfoLabel("Please choose a starting vertex, then a target vertex"),
+                () -> updateInfoLabel("Please wait..."),
+                this::updateInfoLabel,
+                () -> updateInfoLabel("Algorithm execution aborted"));
+    }
+
     private enum Algorithm {
         DFS("Depth-First Search"),
         BFS("Breadth-First Search"),
+        PARALLEL_BFS("Parallel Breadth-First Search"),
         DIJKSTRA("Dijkstra's Algorithm"),
-        PRIM("Prim's Algorithm");
+        DELTA_STEPPING("Delta-Stepping Shortest Paths"),
+        PRIM("Prim's Algorithm"),
+        BORUVKA("Borůvka's Algorithm"),
+        ASTAR("A* Search"),
+        BIDIRECTIONAL_DIJKSTRA("Bidirectional Dijkstra");
 
         private final String displayName;
 
@@ -0,0 +1,400 @@
+package engineer.omnis.graphviz;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+// Immutable hash map where every update returns a new map sharing all untouched parts with the old one.
+// It's a hash array mapped trie in the CHAMP layout: every node has 32 slots, keeps its entries inline at the front
+// of one array and its child nodes at the back, so an update copies only the O(log n) nodes on the path to its key.
+// Keys with fully colliding hashes end up in a small collision node. Null values are allowed, null keys are not
+public final class PersistentMap<K, V> implements Iterable<Map.Entry<K, V>> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(BitmapNode.EMPTY, 0);
+    private static final Object NOT_FOUND = new Object();
+    private final Node root;
+    private final int size;
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(K key) {
+        return root.find(Objects.requireNonNull(key), key.hashCode(), 0) != NOT_FOUND;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        Object value = root.find(Objects.requireNonNull(key), key.hashCode(), 0);
+        return value == NOT_FOUND ? null : (V) value;
+    }
+
+    public PersistentMap<K, V> plus(K key, V value) {
+        Change change = new Change();
+        Node newRoot = root.put(Objects.requireNonNull(key), value, key.hashCode(), 0, change);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentMap<>(newRoot, change.added ? size + 1 : size);
+    }
+
+    public PersistentMap<K, V> minus(K key) {
+        Node newRoot = root.remove(Objects.requireNonNull(key), key.hashCode(), 0);
+        return newRoot == root ? this : new PersistentMap<>(newRoot, size - 1);
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator<>(root);
+    }
+
+    private static final class Change {
+        private boolean added = false;
+    }
+
+    private abstract static class Node {
+        // Value of the matching entry, or NOT_FOUND
+        abstract Object find(Object key, int hash, int shift);
+
+        // Returns this node if nothing changed
+        abstract Node put(Object key, Object value, int hash, int shift, Change change);
+
+        // Returns this node if the key wasn't found
+        abstract Node remove(Object key, int hash, int shift);
+
+        abstract boolean isEmpty();
+
+        abstract int entryCount();
+
+        abstract Object key(int i);
+
+        abstract Object value(int i);
+
+        abstract int nodeCount();
+
+        abstract Node node(int i);
+    }
+
+    private static final class BitmapNode extends Node {
+        private static final BitmapNode EMPTY = new BitmapNode(0, 0, new Object[0]);
+        private final int dataMap;
+        private final int nodeMap;
+        // Keys and values interleaved from the front, child nodes in reverse order from the back
+        private final Object[] content;
+
+        private BitmapNode(int dataMap, int nodeMap, Object[] content) {
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.content = content;
+        }
+
+        private static int bit(int hash, int shift) {
+            return 1 << ((hash >>> shift) & MASK);
+        }
+
+        private int dataIndex(int bit) {
+            return Integer.bitCount(dataMap & (bit - 1));
+        }
+
+        private int nodeSlot(int bit) {
+            return content.length - 1 - Integer.bitCount(nodeMap & (bit - 1));
+        }
+
+        @Override
+        Object find(Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int index = 2 * dataIndex(bit);
+                return key.equals(content[index]) ? content[index + 1] : NOT_FOUND;
+            }
+            if ((nodeMap & bit) != 0) {
+                return ((Node) content[nodeSlot(bit)]).find(key, hash, shift + BITS);
+            }
+            return NOT_FOUND;
+        }
+
+        @Override
+        Node put(Object key, Object value, int hash, int shift, Change change) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int index = 2 * dataIndex(bit);
+                Object existingKey = content[index];
+                if (key.equals(existingKey)) {
+                    if (content[index + 1] == value) {
+                        return this;
+                    }
+                    Object[] newContent = content.clone();
+                    newContent[index + 1] = value;
+                    return new BitmapNode(dataMap, nodeMap, newContent);
+                }
+
+                change.added = true;
+                Node merged = merge(existingKey, content[index + 1], existingKey.hashCode(), key, value, hash, shift + BITS);
+                return withEntryMovedToNode(bit, index, merged);
+            }
+
+            if ((nodeMap & bit) != 0) {
+                int slot = nodeSlot(bit);
+                Node child = (Node) content[slot];
+                Node newChild = child.put(key, value, hash, shift + BITS, change);
+                if (newChild == child) {
+                    return this;
+                }
+                Object[] newContent = content.clone();
+                newContent[slot] = newChild;
+                return new BitmapNode(dataMap, nodeMap, newContent);
+            }
+
+            change.added = true;
+            int index = 2 * dataIndex(bit);
+            Object[] newContent = new Object[content.length + 2];
+            System.arraycopy(content, 0, newContent, 0, index);
+            newContent[index] = key;
+            newContent[index + 1] = value;
+            System.arraycopy(content, index, newContent, index + 2, content.length - index);
+            return new BitmapNode(dataMap | bit, nodeMap, newContent);
+        }
+
+        private Node withEntryMovedToNode(int bit, int index, Node node) {
+            Object[] newContent = new Object[content.length - 1];
+            int oldSlot = nodeSlot(bit);
+            // The node goes where its bit puts it among the other nodes, counted from the back
+            int newSlot = oldSlot - 2 + 1;
+            System.arraycopy(content, 0, newContent, 0, index);
+            System.arraycopy(content, index + 2, newContent, index, oldSlot + 1 - (index + 2));
+            newContent[newSlot] = node;
+            System.arraycopy(content, oldSlot + 1, newContent, newSlot + 1, content.length - oldSlot - 1);
+            return new BitmapNode(dataMap ^ bit, nodeMap | bit, newContent);
+        }
+
+        private static Node merge(Object firstKey, Object firstValue, int firstHash,
+                                  Object secondKey, Object secondValue, int secondHash, int shift) {
+            if (shift >= Integer.SIZE) {
+                return new CollisionNode(firstHash, new Object[] {firstKey, firstValue, secondKey, secondValue});
+            }
+
+            int firstBit = bit(firstHash, shift);
+            int secondBit = bit(secondHash, shift);
+            if (firstBit == secondBit) {
+                Node child = merge(firstKey, firstValue, firstHash, secondKey, secondValue, secondHash, shift + BITS);
+                return new BitmapNode(0, firstBit, new Object[] {child});
+            }
+
+            Object[] content = Integer.compareUnsigned(firstBit, secondBit) < 0
+                    ? new Object[] {firstKey, firstValue, secondKey, secondValue}
+                    : new Object[] {secondKey, secondValue, firstKey, firstValue};
+            return new BitmapNode(firstBit | secondBit, 0, content);
+        }
+
+        @Override
+        Node remove(Object key, int hash, int shift) {
+            int bit = bit(hash, shift);
+            if ((dataMap & bit) != 0) {
+                int index = 2 * dataIndex(bit);
+                if (!key.equals(content[index])) {
+                    return this;
+                }
+                Object[] newContent = new Object[content.length - 2];
+                System.arraycopy(content, 0, newContent, 0, index);
+                System.arraycopy(content, index + 2, newContent, index, content.length - index - 2);
+                return new BitmapNode(dataMap ^ bit, nodeMap, newContent);
+            }
+
+            if ((nodeMap & bit) != 0) {
+                int slot = nodeSlot(bit);
+                Node child = (Node) content[slot];
+                Node newChild = child.remove(key, hash, shift + BITS);
+                if (newChild == child) {
+                    return this;
+                }
+                if (!newChild.isEmpty()) {
+                    Object[] newContent = content.clone();
+                    newContent[slot] = newChild;
+                    return new BitmapNode(dataMap, nodeMap, newContent);
+                }
+
+                Object[] newContent = new Object[content.length - 1];
+                System.arraycopy(content, 0, newContent, 0, slot);
+                System.arraycopy(content, slot + 1, newContent, slot, content.length - slot - 1);
+                return new BitmapNode(dataMap, nodeMap ^ bit, newContent);
+            }
+            return this;
+        }
+
+        @Override
+        boolean isEmpty() {
+            return content.length == 0;
+        }
+
+        @Override
+        int entryCount() {
+            return Integer.bitCount(dataMap);
+        }
+
+        @Override
+        Object key(int i) {
+            return content[2 * i];
+        }
+
+        @Override
+        Object value(int i) {
+            return content[2 * i + 1];
+        }
+
+        @Override
+        int nodeCount() {
+            return Integer.bitCount(nodeMap);
+        }
+
+        @Override
+        Node node(int i) {
+            return (Node) content[content.length - 1 - i];
+        }
+    }
+
+    private static final class CollisionNode extends Node {
+        private final int hash;
+        private final Object[] content;
+
+        private CollisionNode(int hash, Object[] content) {
+            this.hash = hash;
+            this.content = content;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < content.length; i += 2) {
+                if (key.equals(content[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(Object key, int keyHash, int shift) {
+            int index = indexOf(key);
+            return index == -1 ? NOT_FOUND : content[index + 1];
+        }
+
+        @Override
+        Node put(Object key, Object value, int keyHash, int shift, Change change) {
+            int index = indexOf(key);
+            if (index != -1) {
+                if (content[index + 1] == value) {
+                    return this;
+                }
+                Object[] newContent = content.clone();
+                newContent[index + 1] = value;
+                return new CollisionNode(hash, newContent);
+            }
+
+            change.added = true;
+            Object[] newContent = Arrays.copyOf(content, content.length + 2);
+            newContent[content.length] = key;
+            newContent[content.length + 1] = value;
+            return new CollisionNode(hash, newContent);
+        }
+
+        @Override
+        Node remove(Object key, int keyHash, int shift) {
+            int index = indexOf(key);
+            if (index == -1) {
+                return this;
+            }
+            Object[] newContent = new Object[content.length - 2];
+            System.arraycopy(content, 0, newContent, 0, index);
+            System.arraycopy(content, index + 2, newContent, index, content.length - index - 2);
+            return new CollisionNode(hash, newContent);
+        }
+
+        @Override
+        boolean isEmpty() {
+            return content.length == 0;
+        }
+
+        @Override
+        int entryCount() {
+            return content.length / 2;
+        }
+
+        @Override
+        Object key(int i) {
+            return content[2 * i];
+        }
+
+        @Override
+        Object value(int i) {
+            return content[2 * i + 1];
+        }
+
+        @Override
+        int nodeCount() {
+            return 0;
+        }
+
+        @Override
+        Node node(int i) {
+            throw new IndexOutOfBoundsException(i);
+        }
+    }
+
+    // Depth-first over the trie: a node's own entries first, then its children
+    private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final Deque<Node> pendingNodes = new ArrayDeque<>();
+        private Node current;
+        private int entry = 0;
+
+        private EntryIterator(Node root) {
+            current = root;
+            advance();
+        }
+
+        private void advance() {
+            while (current != null && entry == current.entryCount()) {
+                for (int i = current.nodeCount() - 1; i >= 0; --i) {
+                    pendingNodes.push(current.node(i));
+                }
+                current = pendingNodes.poll();
+                entry = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return current != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map.Entry<K, V> next() {
+            if (current == null) {
+                throw new NoSuchElementException();
+            }
+
+            var next = new SimpleImmutableEntry<>((K) current.key(entry), (V) current.value(entry));
+            ++entry;
+            advance();
+            return next;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package engineer.omnis.graphviz;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+// Immutable list that only grows at its end, where every update returns a new vector sharing all untouched parts
+// with the old one. It's a trie of up to 32 slots per node with all nodes but the last ones on every level full, so
+// appending or replacing an element copies only the O(log n) nodes on the path to its index. The last node on every
+// level is only as long as it needs to be, which keeps small vectors down to a single array of their own size.
+// Null elements are allowed
+public final class PersistentVector<T> implements Iterable<T> {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(new Object[0], 0, 0);
+    // Elements if shift is 0, child nodes otherwise
+    private final Object[] root;
+    private final int shift;
+    private final int size;
+
+    private PersistentVector(Object[] root, int shift, int size) {
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentVector<T> empty() {
+        return (PersistentVector<T>) EMPTY;
+    }
+
+    // Builds the nodes level by level in O(n) instead of appending the elements one by one
+    public static <T> PersistentVector<T> of(List<? extends T> elements) {
+        Object[] nodes = elements.toArray();
+        int shift = 0;
+        while (nodes.length > WIDTH) {
+            Object[] parents = new Object[(nodes.length + MASK) >>> BITS];
+            for (int i = 0; i < parents.length; ++i) {
+                parents[i] = Arrays.copyOfRange(nodes, i << BITS, Math.min(nodes.length, (i + 1) << BITS));
+            }
+            nodes = parents;
+            shift += BITS;
+        }
+        return new PersistentVector<>(nodes, shift, elements.size());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+        return (T) leafOf(index)[index & MASK];
+    }
+
+    public PersistentVector<T> plus(T element) {
+        if (size == 1 << (shift + BITS)) {
+            return new PersistentVector<>(new Object[]{root, path(shift, element)}, shift + BITS, size + 1);
+        }
+        return new PersistentVector<>(append(root, shift, element), shift, size + 1);
+    }
+
+    public PersistentVector<T> with(int index, T element) {
+        Objects.checkIndex(index, size);
+        return new PersistentVector<>(replace(root, shift, index, element), shift, size);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int index = 0;
+            private Object[] leaf = null;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (index == size) {
+                    throw new NoSuchElementException();
+                }
+                if ((index & MASK) == 0) {
+                    leaf = leafOf(index);
+                }
+                return (T) leaf[index++ & MASK];
+            }
+        };
+    }
+
+    private Object[] leafOf(int index) {
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    // Appends to the last node on the given level, which isn't full
+    private Object[] append(Object[] node, int level, T element) {
+        if (level == 0) {
+            Object[] newNode = Arrays.copyOf(node, node.length + 1);
+            newNode[node.length] = element;
+            return newNode;
+        }
+
+        int slot = (size >>> level) & MASK;
+        if (slot < node.length) {
+            Object[] newNode = node.clone();
+            newNode[slot] = append((Object[]) node[slot], level - BITS, element);
+            return newNode;
+        }
+        Object[] newNode = Arrays.copyOf(node, node.length + 1);
+        newNode[slot] = path(level - BITS, element);
+        return newNode;
+    }
+
+    private static Object[] path(int level, Object element) {
+        return level == 0 ? new Object[]{element} : new Object[]{path(level - BITS, element)};
+    }
+
+    private static Object[] replace(Object[] node, int level, int index, Object element) {
+        Object[] newNode = node.clone();
+        int slot = (index >>> level) & MASK;
+        newNode[slot] = level == 0 ? element : replace((Object[]) node[slot], level - BITS, index, element);
+        return newNode;
+    }
+}
@@ -0,0 +1,36 @@
+package engineer.omnis.graphviz;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// Bounded LRU of trees computed on a GraphModel, keyed by (model version, algorithm, source).
+// Entries of older versions can't be hit anymore and simply age out. Safe to share between the EDT and workers
+public final class ResultCache<V, E> {
+    private static final float LOAD_FACTOR = 0.75f;
+    private final Map<Key<V>, SearchTree<V, E>> entries;
+
+    public ResultCache(int capacity) {
+        entries = new LinkedHashMap<>(capacity, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key<V>, SearchTree<V, E>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public synchronized Optional<SearchTree<V, E>> get(long version, String algorithm, V source) {
+        return Optional.ofNullable(entries.get(new Key<>(version, algorithm, source)));
+    }
+
+    public synchronized void put(long version, String algorithm, SearchTree<V, E> tree) {
+        entries.put(new Key<>(version, algorithm, tree.getRoot()), tree);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private record Key<V>(long version, String algorithm, V source) {
+    }
+}
@@ -0,0 +1,85 @@
+package engineer.omnis.graphviz;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Bounded queue between exactly one producer thread and exactly one consumer thread, without locks.
+// Positions only ever grow, each one written by a single side, and the slot index is the position masked by the
+// power of two capacity. A producer that gets a full capacity ahead parks until the consumer takes something,
+// so whatever it produces can't pile up in memory. The consumer never waits, it only polls
+public final class RingBuffer<T> {
+    private static final int MAX_CAPACITY = Integer.highestOneBit(Integer.MAX_VALUE);
+    private final Object[] slots;
+    private final int mask;
+    // The next position the consumer takes from, written by the consumer only
+    private final AtomicLong head = new AtomicLong();
+    // The next position the producer puts to, written by the producer only
+    private final AtomicLong tail = new AtomicLong();
+    private volatile Thread parkedProducer = null;
+
+    // Rounded up to a power of two
+    public RingBuffer(int capacity) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be between 1 and " + MAX_CAPACITY);
+        }
+        slots = new Object[capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1];
+        mask = slots.length - 1;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Producer side. Waits while the buffer is full, until the consumer makes room or the thread is interrupted
+    public void put(T item) throws InterruptedException {
+        if (item == null) {
+            throw new IllegalArgumentException("Items can't be null");
+        }
+
+        long position = tail.get();
+        while (position - head.get() == slots.length) {
+            // Announced before checking again, so a consumer taking something in between is sure to see it and
+            // unpark this thread, or the check sees what it took
+            parkedProducer = Thread.currentThread();
+            if (position - head.get() == slots.length) {
+                LockSupport.park(this);
+            }
+            parkedProducer = null;
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+
+        slots[(int) position & mask] = item;
+        // Ordered after the slot write, which the consumer is guaranteed to see once it sees the new tail
+        tail.lazySet(position + 1);
+    }
+
+    // Consumer side. The oldest item, or null when there is none
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long position = head.get();
+        if (position == tail.get()) {
+            return null;
+        }
+
+        int index = (int) position & mask;
+        T item = (T) slots[index];
+        slots[index] = null;
+        head.set(position + 1);
+
+        Thread producer = parkedProducer;
+        if (producer != null) {
+            LockSupport.unpark(producer);
+        }
+        return item;
+    }
+}
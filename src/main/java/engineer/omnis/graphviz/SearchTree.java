@@ -0,0 +1,78 @@
+package engineer.omnis.graphviz;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Tree found by a single-source run over a CompactGraph: the parent of every vertex and, for shortest-path trees,
+// the distance from the root. Vertices outside the tree have no parent, and neither does the root
+public final class SearchTree<V, E> {
+    private final CompactGraph<V, E> graph;
+    private final int root;
+    private final int[] parents;
+    private final int[] distances;
+    private final String result;
+
+    // distances may be null for trees that don't describe distances, such as spanning trees
+    public SearchTree(CompactGraph<V, E> graph, int root, int[] parents, int[] distances, String result) {
+        this.graph = graph;
+        this.root = root;
+        this.parents = parents;
+        this.distances = distances;
+        this.result = result;
+    }
+
+    public CompactGraph<V, E> getGraph() {
+        return graph;
+    }
+
+    public V getRoot() {
+        return graph.vertex(root);
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public boolean contains(int v) {
+        return v == root || parents[v] != -1;
+    }
+
+    public int parent(int v) {
+        return parents[v];
+    }
+
+    public boolean hasDistances() {
+        return distances != null;
+    }
+
+    public int distance(int v) {
+        return distances[v];
+    }
+
+    // Vertices from the root to v, empty if v is outside the tree
+    public int[] pathTo(int v) {
+        if (!contains(v)) {
+            return new int[0];
+        }
+
+        int length = 1;
+        for (int u = v; u != root; u = parents[u]) {
+            ++length;
+        }
+
+        int[] path = new int[length];
+        path[length - 1] = v;
+        for (int i = length - 1; i > 0; --i) {
+            path[i - 1] = parents[path[i]];
+        }
+        return path;
+    }
+
+    public List<V> pathTo(V v) {
+        int index = graph.indexOf(v);
+        if (index == -1) {
+            return List.of();
+        }
+        return Arrays.stream(pathTo(index)).mapToObj(graph::vertex).toList();
+    }
+}
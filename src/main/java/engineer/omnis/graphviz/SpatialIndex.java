@@ -0,0 +1,392 @@
+package engineer.omnis.graphviz;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Quadtree over discs and thick segments (a disc is a segment of zero length), for hit-testing and culling.
+// Every leaf lists all the shapes that touch its square, so a point query only descends to one leaf and tests what's
+// there, and a rectangle query only visits the leaves it overlaps. Leaves split past LEAF_CAPACITY shapes until they
+// reach the minimum cell size, which keeps a dense tangle of long edges from splitting forever, and merge back once
+// removals leave their parent nearly empty. The root grows outwards whenever a shape lands outside of it.
+// Shapes added later are on top of earlier ones. Not thread-safe, it's meant to be used on the EDT only, or built
+// on another thread and then taken over on the EDT
+public final class SpatialIndex<T> {
+    private static final int LEAF_CAPACITY = 16;
+    private static final double INITIAL_SIZE = 1024.0;
+    private static final int CORNERS = 4;
+    private final double minCellSize;
+    private Map<T, Shape<T>> shapes = new HashMap<>();
+    private Node root = null;
+    private long nextOrder = 0;
+    // Marks shapes already reported by the current query, as they are usually listed in more than one leaf
+    private int queryStamp = 0;
+
+    public SpatialIndex(double minCellSize) {
+        if (!(minCellSize > 0)) {
+            throw new IllegalArgumentException("Minimum cell size must be positive");
+        }
+        this.minCellSize = minCellSize;
+    }
+
+    public int size() {
+        return shapes.size();
+    }
+
+    public void addDisc(T item, Point2D center, double radius) {
+        add(item, center.getX(), center.getY(), center.getX(), center.getY(), radius);
+    }
+
+    public void addSegment(T item, Point2D from, Point2D to, double halfWidth) {
+        add(item, from.getX(), from.getY(), to.getX(), to.getY(), halfWidth);
+    }
+
+    // Re-adding an item replaces its shape and brings it to the top
+    private void add(T item, double x1, double y1, double x2, double y2, double radius) {
+        remove(item);
+        Shape<T> shape = new Shape<>(item, nextOrder++, x1, y1, x2, y2, radius);
+        shapes.put(item, shape);
+
+        if (root == null) {
+            root = new Node(Math.floor(shape.minX() / INITIAL_SIZE) * INITIAL_SIZE,
+                    Math.floor(shape.minY() / INITIAL_SIZE) * INITIAL_SIZE, INITIAL_SIZE);
+        }
+        while (!root.surrounds(shape)) {
+            growTowards(shape);
+        }
+        insert(root, shape);
+    }
+
+    // Doubles the root, keeping the old one as the quadrant on the side away from the shape
+    private void growTowards(Shape<?> shape) {
+        double size = root.size;
+        double x = shape.minX() <= root.x ? root.x - size : root.x;
+        double y = shape.minY() <= root.y ? root.y - size : root.y;
+        Node grown = new Node(x, y, 2 * size);
+        if (root.isLeaf()) {
+            // A leaf already lists everything within it, it can simply cover more
+            grown.entries = root.entries;
+            grown.count = root.count;
+        } else {
+            grown.split();
+            int quadrant = (root.x > x ? 1 : 0) + (root.y > y ? 2 : 0);
+            grown.children[quadrant] = root;
+        }
+        root = grown;
+    }
+
+    private void insert(Node node, Shape<T> shape) {
+        if (!node.isLeaf()) {
+            for (Node child : node.children) {
+                if (touches(shape, child)) {
+                    insert(child, shape);
+                }
+            }
+            return;
+        }
+
+        node.append(shape);
+        if (node.count > LEAF_CAPACITY && node.size / 2 >= minCellSize) {
+            Shape<?>[] entries = node.entries;
+            int count = node.count;
+            node.split();
+            for (int i = 0; i < count; ++i) {
+                for (Node child : node.children) {
+                    if (touches(entries[i], child)) {
+                        child.append(entries[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    public boolean remove(T item) {
+        Shape<T> shape = shapes.remove(item);
+        if (shape == null) {
+            return false;
+        }
+        remove(root, shape);
+        return true;
+    }
+
+    private void remove(Node node, Shape<?> shape) {
+        if (node.isLeaf()) {
+            node.delete(shape);
+            return;
+        }
+
+        for (Node child : node.children) {
+            if (touches(shape, child)) {
+                remove(child, shape);
+            }
+        }
+        mergeIfSparse(node);
+    }
+
+    // Half the capacity leaves some room, so a shape moving back and forth doesn't split and merge every time
+    private void mergeIfSparse(Node node) {
+        int total = 0;
+        for (Node child : node.children) {
+            if (!child.isLeaf()) {
+                return;
+            }
+            total += child.count;
+        }
+        if (total > LEAF_CAPACITY / 2) {
+            return;
+        }
+
+        Node[] children = node.children;
+        node.children = null;
+        node.entries = new Shape<?>[LEAF_CAPACITY];
+        node.count = 0;
+        int stamp = ++queryStamp;
+        for (Node child : children) {
+            for (int i = 0; i < child.count; ++i) {
+                if (child.entries[i].stamp != stamp) {
+                    child.entries[i].stamp = stamp;
+                    node.append(child.entries[i]);
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        shapes.clear();
+        root = null;
+    }
+
+    // Replaces the shapes with the other index's in O(1), e.g. one built on a worker thread, and leaves it empty
+    public void takeOver(SpatialIndex<T> other) {
+        if (other.minCellSize != minCellSize) {
+            throw new IllegalArgumentException("Indices with different minimum cell sizes");
+        }
+
+        shapes = other.shapes;
+        root = other.root;
+        nextOrder = other.nextOrder;
+        queryStamp = Math.max(queryStamp, other.queryStamp);
+        other.shapes = new HashMap<>();
+        other.clear();
+    }
+
+    // The topmost item whose shape contains the point, or null
+    public T findAt(Point2D point) {
+        double x = point.getX();
+        double y = point.getY();
+        if (root == null || !root.contains(x, y)) {
+            return null;
+        }
+
+        Node node = root;
+        while (!node.isLeaf()) {
+            node = node.childAt(x, y);
+        }
+
+        Shape<?> found = null;
+        for (int i = 0; i < node.count; ++i) {
+            Shape<?> shape = node.entries[i];
+            if ((found == null || shape.order > found.order) && shape.contains(x, y)) {
+                found = shape;
+            }
+        }
+        return found == null ? null : item(found);
+    }
+
+    // Every item whose shape reaches into the area, each one once and in no particular order
+    public void forEachIn(Rectangle2D area, Consumer<? super T> action) {
+        if (root == null) {
+            return;
+        }
+        visit(root, area, ++queryStamp, action);
+    }
+
+    private void visit(Node node, Rectangle2D area, int stamp, Consumer<? super T> action) {
+        if (!node.intersects(area)) {
+            return;
+        }
+        if (area.contains(node.x, node.y, node.size, node.size)) {
+            report(node, stamp, action);
+            return;
+        }
+        if (!node.isLeaf()) {
+            for (Node child : node.children) {
+                visit(child, area, stamp, action);
+            }
+            return;
+        }
+
+        for (int i = 0; i < node.count; ++i) {
+            Shape<?> shape = node.entries[i];
+            if (shape.stamp != stamp && touches(shape, area)) {
+                shape.stamp = stamp;
+                action.accept(item(shape));
+            }
+        }
+    }
+
+    // Everything listed under a node inside of the area touches it, no need to test
+    private void report(Node node, int stamp, Consumer<? super T> action) {
+        if (!node.isLeaf()) {
+            for (Node child : node.children) {
+                report(child, stamp, action);
+            }
+            return;
+        }
+
+        for (int i = 0; i < node.count; ++i) {
+            Shape<?> shape = node.entries[i];
+            if (shape.stamp != stamp) {
+                shape.stamp = stamp;
+                action.accept(item(shape));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T item(Shape<?> shape) {
+        return (T) shape.item;
+    }
+
+    private static boolean touches(Shape<?> shape, Node node) {
+        return touches(shape, node.x, node.y, node.x + node.size, node.y + node.size);
+    }
+
+    private static boolean touches(Shape<?> shape, Rectangle2D area) {
+        return touches(shape, area.getMinX(), area.getMinY(), area.getMaxX(), area.getMaxY());
+    }
+
+    // Conservative near the corners: the segment is tested against the area grown by the radius, and it misses
+    // that only if all four corners are strictly on the same side of its line
+    private static boolean touches(Shape<?> shape, double minX, double minY, double maxX, double maxY) {
+        double left = minX - shape.radius;
+        double top = minY - shape.radius;
+        double right = maxX + shape.radius;
+        double bottom = maxY + shape.radius;
+        if (Math.max(shape.x1, shape.x2) < left || Math.min(shape.x1, shape.x2) > right
+                || Math.max(shape.y1, shape.y2) < top || Math.min(shape.y1, shape.y2) > bottom) {
+            return false;
+        }
+
+        int sides = shape.side(left, top) + shape.side(right, top) + shape.side(left, bottom) + shape.side(right, bottom);
+        return Math.abs(sides) != CORNERS;
+    }
+
+    private static final class Shape<T> {
+        private final T item;
+        private final long order;
+        private final double x1;
+        private final double y1;
+        private final double x2;
+        private final double y2;
+        private final double radius;
+        private int stamp = 0;
+
+        private Shape(T item, long order, double x1, double y1, double x2, double y2, double radius) {
+            this.item = item;
+            this.order = order;
+            this.x1 = x1;
+            this.y1 = y1;
+            this.x2 = x2;
+            this.y2 = y2;
+            this.radius = radius;
+        }
+
+        private double minX() {
+            return Math.min(x1, x2) - radius;
+        }
+
+        private double minY() {
+            return Math.min(y1, y2) - radius;
+        }
+
+        private double maxX() {
+            return Math.max(x1, x2) + radius;
+        }
+
+        private double maxY() {
+            return Math.max(y1, y2) + radius;
+        }
+
+        private int side(double x, double y) {
+            return (int) Math.signum((x2 - x1) * (y - y1) - (y2 - y1) * (x - x1));
+        }
+
+        private boolean contains(double x, double y) {
+            double dx = x2 - x1;
+            double dy = y2 - y1;
+            double lengthSquared = dx * dx + dy * dy;
+            double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, ((x - x1) * dx + (y - y1) * dy) / lengthSquared));
+            double px = x1 + t * dx - x;
+            double py = y1 + t * dy - y;
+            return px * px + py * py <= radius * radius;
+        }
+    }
+
+    private static final class Node {
+        private final double x;
+        private final double y;
+        private final double size;
+        private Node[] children = null;
+        private Shape<?>[] entries = new Shape<?>[LEAF_CAPACITY];
+        private int count = 0;
+
+        private Node(double x, double y, double size) {
+            this.x = x;
+            this.y = y;
+            this.size = size;
+        }
+
+        private boolean isLeaf() {
+            return children == null;
+        }
+
+        private void split() {
+            double half = size / 2;
+            children = new Node[] {
+                new Node(x, y, half), new Node(x + half, y, half),
+                new Node(x, y + half, half), new Node(x + half, y + half, half)
+            };
+            entries = null;
+            count = 0;
+        }
+
+        private Node childAt(double px, double py) {
+            double half = size / 2;
+            return children[(px >= x + half ? 1 : 0) + (py >= y + half ? 2 : 0)];
+        }
+
+        private void append(Shape<?> shape) {
+            if (count == entries.length) {
+                entries = Arrays.copyOf(entries, 2 * count);
+            }
+            entries[count++] = shape;
+        }
+
+        private void delete(Shape<?> shape) {
+            for (int i = 0; i < count; ++i) {
+                if (entries[i] == shape) {
+                    entries[i] = entries[--count];
+                    entries[count] = null;
+                    return;
+                }
+            }
+        }
+
+        private boolean contains(double px, double py) {
+            return px >= x && py >= y && px < x + size && py < y + size;
+        }
+
+        // Strictly inside, so shapes never touch the quadrants added when the root grows
+        private boolean surrounds(Shape<?> shape) {
+            return shape.minX() > x && shape.minY() > y && shape.maxX() < x + size && shape.maxY() < y + size;
+        }
+
+        private boolean intersects(Rectangle2D area) {
+            return area.getMaxX() >= x && area.getMaxY() >= y && area.getMinX() <= x + size && area.getMinY() <= y + size;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package engineer.omnis.graphviz.algorithms;
+
+import engineer.omnis.graphviz.GraphModel;
+import engineer.omnis.graphviz.engine.AlgorithmKind;
+import engineer.omnis.graphviz.engine.ElementState;
+import engineer.omnis.graphviz.graph.components.GraphEdgePair;
+import engineer.omnis.graphviz.graph.components.GraphNodeComponent;
+
+import java.awt.*;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class GraphBidirectionalDijkstraStrategy extends GraphEngineStrategy {
+    private static final Color ACTIVE_NODE_COLOR = new Color(239, 86, 239);
+    private static final Color NODE_QUEUE_COLOR = new Color(99, 12, 229);
+    private static final Color PATH_EDGE_COLOR = new Color(0, 239, 239);
+    private static final Map<ElementState, Color> PALETTE = Map.of(
+            ElementState.ACTIVE, ACTIVE_NODE_COLOR,
+            ElementState.QUEUED, NODE_QUEUE_COLOR,
+            ElementState.TREE_EDGE, PATH_EDGE_COLOR);
+
+    public GraphBidirectionalDijkstraStrategy(GraphModel<GraphNodeComponent, GraphEdgePair> graphModel, Runnable preInitAction, Runnable postInitAction, Consumer<String> onCompleteAction, Runnable onAbortedAction) {
+        super(AlgorithmKind.BIDIRECTIONAL_DIJKSTRA, PALETTE, graphModel, preInitAction, postInitAction, onCompleteAction, onAbortedAction);
+    }
+}
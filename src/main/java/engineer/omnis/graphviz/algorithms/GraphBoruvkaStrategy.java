@@ -0,0 +1,26 @@
+package engineer.omnis.graphviz.algorithms;
+
+import engineer.omnis.graphviz.GraphModel;
+import engineer.omnis.graphviz.engine.AlgorithmKind;
+import engineer.omnis.graphviz.engine.ElementState;
+import engineer.omnis.graphviz.graph.components.GraphEdgePair;
+import engineer.omnis.graphviz.graph.components.GraphNodeComponent;
+
+import java.awt.*;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Every step is one Borůvka round: all edges picked in it are colored at once
+public class GraphBoruvkaStrategy extends GraphEngineStrategy {
+    private static final Color CURR_NODE_COLOR = new Color(239, 86, 239);
+    private static final Color PARENT_NODE_COLOR = new Color(99, 12, 229);
+    private static final Color MST_EDGE_COLOR = new Color(0, 239, 239);
+    private static final Map<ElementState, Color> PALETTE = Map.of(
+            ElementState.ACTIVE, CURR_NODE_COLOR,
+            ElementState.PARENT, PARENT_NODE_COLOR,
+            ElementState.TREE_EDGE, MST_EDGE_COLOR);
+
+    public GraphBoruvkaStrategy(GraphModel<GraphNodeComponent, GraphEdgePair> graphModel, Runnable preInitAction, Runnable postInitAction, Consumer<String> onCompleteAction, Runnable onAbortedAction) {
+        super(AlgorithmKind.BORUVKA, PALETTE, graphModel, preInitAction, postInitAction, onCompleteAction, onAbortedAction);
+    }
+}
@@ -0,0 +1,221 @@
+package engineer.omnis.graphviz.algorithms;
+
+import engineer.omnis.graphviz.CompactGraph;
+import engineer.omnis.graphviz.GraphModel;
+import engineer.omnis.graphviz.GraphSnapshot;
+import engineer.omnis.graphviz.SearchTree;
+import engineer.omnis.graphviz.engine.AlgorithmEngine;
+import engineer.omnis.graphviz.engine.AlgorithmKind;
+import engineer.omnis.graphviz.engine.AlgorithmSink;
+import engineer.omnis.graphviz.engine.DynamicShortestPaths;
+import engineer.omnis.graphviz.engine.ElementState;
+import engineer.omnis.graphviz.graph.components.GraphEdgePair;
+import engineer.omnis.graphviz.graph.components.GraphNodeComponent;
+import engineer.omnis.graphviz.graph.orders.ColorUpdateOrder;
+import engineer.omnis.graphviz.graph.orders.ExternalGraphOrder;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static engineer.omnis.graphviz.Utility.BIG_INT;
+
+// Drives a headless AlgorithmEngine one step at a time and turns whatever it reports into graph orders.
+// Finished trees go into the model's result cache, and a run that is already cached for the current version
+// is shown in a single step instead. Point-to-point queries are answered from a cached Dijkstra tree of their source.
+// The last Dijkstra tree is also kept up to date across edits by a DynamicShortestPaths attached to the model,
+// which is computed on the worker thread but only attached on the EDT once the run completed.
+// Everything the worker thread touches comes from the model snapshot taken when the run was started
+public abstract class GraphEngineStrategy extends GraphAlgorithmStrategy {
+    private final GraphModel<GraphNodeComponent, GraphEdgePair> graphModel;
+    private final AlgorithmKind algorithmKind;
+    private final Map<ElementState, Color> palette;
+    private final OrderCollector orderCollector = new OrderCollector();
+    private AlgorithmEngine<GraphNodeComponent, GraphEdgePair> engine = null;
+    private CompactGraph<GraphNodeComponent, GraphEdgePair> graph = null;
+    private SearchTree<GraphNodeComponent, GraphEdgePair> cachedTree = null;
+    private DynamicShortestPaths<GraphNodeComponent, GraphEdgePair> computedShortestPaths = null;
+    private GraphNodeComponent sourceNode = null;
+    private GraphNodeComponent targetNode = null;
+    private GraphSnapshot<GraphNodeComponent, GraphEdgePair> snapshot = null;
+    private long modelVersion = -1;
+    private boolean cachedTreeShown = false;
+
+    protected GraphEngineStrategy(AlgorithmKind algorithmKind, Map<ElementState, Color> palette,
+                                  GraphModel<GraphNodeComponent, GraphEdgePair> graphModel,
+                                  Runnable preInitAction, Runnable postInitAction,
+                                  Consumer<String> onCompleteAction, Runnable onAbortedAction) {
+        super(preInitAction, postInitAction, onCompleteAction, onAbortedAction);
+        this.algorithmKind = algorithmKind;
+        this.palette = palette;
+        this.graphModel = graphModel;
+    }
+
+    @Override
+    public boolean isReadyToRun() {
+        return cachedTree != null || engine != null && engine.isStarted();
+    }
+
+    @Override
+    public boolean isFinished() {
+        if (cachedTree != null) {
+            return cachedTreeShown;
+        }
+        return engine == null || engine.isFinished();
+    }
+
+    @Override
+    public List<ExternalGraphOrder> performStep() {
+        if (cachedTree != null) {
+            showCachedTree();
+            cachedTreeShown = true;
+            return orderCollector.drain();
+        }
+
+        engine.step();
+        if (engine.isFinished()) {
+            engine.getSearchTree(GraphEngineStrategy::label).ifPresent(
+                    tree -> graphModel.getResultCache().put(modelVersion, algorithmKind.name(), tree));
+            if (algorithmKind == AlgorithmKind.DIJKSTRA) {
+                trackShortestPaths();
+            }
+        }
+        return orderCollector.drain();
+    }
+
+    private void showCachedTree() {
+        int[] vertices = targetNode == null
+                ? IntStream.range(0, graph.vertexCount()).filter(cachedTree::contains).toArray()
+                : cachedTree.pathTo(graph.indexOf(targetNode));
+
+        for (int v : vertices) {
+            orderCollector.vertexUpdated(v, ElementState.ACTIVE);
+            int parent = cachedTree.parent(v);
+            if (parent != -1) {
+                orderCollector.arcUpdated(graph.lightestArc(parent, v), ElementState.TREE_EDGE);
+            }
+        }
+    }
+
+    // Point-to-point algorithms take the first click as the source and the second one as the target
+    @Override
+    public void onVertexInput(GraphNodeComponent c) {
+        if (algorithmKind.isPointToPoint() && sourceNode == null) {
+            sourceNode = c;
+            return;
+        }
+
+        snapshot = graphModel.snapshot();
+        modelVersion = snapshot.getVersion();
+        GraphNodeComponent treeSource = algorithmKind.isPointToPoint() ? sourceNode : c;
+        AlgorithmKind treeKind = algorithmKind.isPointToPoint() ? AlgorithmKind.DIJKSTRA : algorithmKind;
+        Optional<SearchTree<GraphNodeComponent, GraphEdgePair>> cached = graphModel.getResultCache()
+                .get(modelVersion, treeKind.name(), treeSource)
+                .or(() -> treeKind == AlgorithmKind.DIJKSTRA ? repairedShortestPaths(treeSource) : Optional.empty());
+        if (cached.isPresent()) {
+            cachedTree = cached.get();
+            graph = cachedTree.getGraph();
+            targetNode = algorithmKind.isPointToPoint() ? c : null;
+            return;
+        }
+
+        engine = AlgorithmEngine.of(snapshot, GraphEdgePair::getWeight, GraphNodeComponent::getCenterPos);
+        engine.attach(orderCollector);
+        graph = engine.getGraph();
+        try {
+            if (algorithmKind.isPointToPoint()) {
+                engine.start(algorithmKind, sourceNode, c);
+            } else {
+                sourceNode = c;
+                engine.start(algorithmKind, c);
+            }
+        } catch (IllegalArgumentException e) {
+            // E.g. negative weights for algorithms that can't handle them. Clicking outside the graph aborts as usual
+            engine = null;
+            onComplete(e.getMessage());
+        }
+    }
+
+    private void trackShortestPaths() {
+        try {
+            computedShortestPaths = new DynamicShortestPaths<>(graphModel, snapshot, GraphEdgePair::getWeight, sourceNode);
+        } catch (IllegalArgumentException e) {
+            // Negative weights, nothing to follow
+        }
+    }
+
+    // Called on the EDT once the worker finished the run, which is what publishes the computed tree to it.
+    // The new tree replaces whatever was followed before, so edits only ever repair one of them
+    @Override
+    public void onComplete(String result) {
+        if (computedShortestPaths != null) {
+            findShortestPaths().ifPresent(DynamicShortestPaths::detach);
+            computedShortestPaths.follow();
+            computedShortestPaths = null;
+        }
+        super.onComplete(result);
+    }
+
+    private Optional<SearchTree<GraphNodeComponent, GraphEdgePair>> repairedShortestPaths(GraphNodeComponent source) {
+        return findShortestPaths().filter(d -> d.isValid() && d.getSource().equals(source)).map(d -> {
+            var tree = d.toSearchTree(CompactGraph.freeze(snapshot, GraphEdgePair::getWeight), GraphEngineStrategy::label);
+            graphModel.getResultCache().put(modelVersion, AlgorithmKind.DIJKSTRA.name(), tree);
+            return tree;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<DynamicShortestPaths<GraphNodeComponent, GraphEdgePair>> findShortestPaths() {
+        return graphModel.findListener(DynamicShortestPaths.class)
+                .map(d -> (DynamicShortestPaths<GraphNodeComponent, GraphEdgePair>) d);
+    }
+
+    @Override
+    public String getResult() {
+        if (cachedTree != null) {
+            return targetNode == null ? cachedTree.getResult() : describeCachedPath();
+        }
+        return engine == null ? "" : engine.getResult(GraphEngineStrategy::label);
+    }
+
+    private String describeCachedPath() {
+        int target = graph.indexOf(targetNode);
+        if (cachedTree.distance(target) >= BIG_INT) {
+            return "Cached Dijkstra : " + label(targetNode) + " is unreachable from " + label(sourceNode);
+        }
+
+        return "Cached Dijkstra : " + Arrays.stream(cachedTree.pathTo(target))
+                .mapToObj(v -> label(graph.vertex(v)))
+                .collect(Collectors.joining(" -> ")) + " = " + cachedTree.distance(target);
+    }
+
+    private static String label(GraphNodeComponent v) {
+        return v.getId();
+    }
+
+    private final class OrderCollector implements AlgorithmSink {
+        private List<ExternalGraphOrder> orders = new ArrayList<>();
+
+        @Override
+        public void vertexUpdated(int vertex, ElementState state) {
+            orders.add(new ColorUpdateOrder(graph.vertex(vertex), palette.get(state)));
+        }
+
+        @Override
+        public void arcUpdated(int arc, ElementState state) {
+            orders.add(new ColorUpdateOrder(graph.edge(arc), palette.get(state)));
+        }
+
+        private List<ExternalGraphOrder> drain() {
+            List<ExternalGraphOrder> drained = orders;
+            orders = new ArrayList<>();
+            return drained;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package engineer.omnis.graphviz.algorithms;
+
+import engineer.omnis.graphviz.GraphModel;
+import engineer.omnis.graphviz.engine.AlgorithmKind;
+import engineer.omnis.graphviz.engine.ElementState;
+import engineer.omnis.graphviz.graph.components.GraphEdgePair;
+import engineer.omnis.graphviz.graph.components.GraphNodeComponent;
+
+import java.awt.*;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Every step shows a whole BFS level: its vertices become active and the next level gets queued
+public class GraphParallelBFSStrategy extends GraphEngineStrategy {
+    private static final Color ACTIVE_NODE_COLOR = new Color(239, 86, 239);
+    private static final Color NODE_QUEUE_COLOR = new Color(99, 12, 229);
+    private static final Map<ElementState, Color> PALETTE = Map.of(
+            ElementState.ACTIVE, ACTIVE_NODE_COLOR,
+            ElementState.QUEUED, NODE_QUEUE_COLOR);
+
+    public GraphParallelBFSStrategy(GraphModel<GraphNodeComponent, GraphEdgePair> graphModel, Runnable preInitAction, Runnable postInitAction, Consumer<String> onCompleteAction, Runnable onAbortedAction) {
+        super(AlgorithmKind.PARALLEL_BFS, PALETTE, graphModel, preInitAction, postInitAction, onCompleteAction, onAbortedAction);
+    }
+}
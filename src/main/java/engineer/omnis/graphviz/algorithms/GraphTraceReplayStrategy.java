@@ -0,0 +1,49 @@
+package engineer.omnis.graphviz.algorithms;
+
+import engineer.omnis.graphviz.graph.orders.ColorUpdateOrder;
+import engineer.omnis.graphviz.graph.orders.ExternalGraphOrder;
+import engineer.omnis.graphviz.trace.TraceElements;
+import engineer.omnis.graphviz.trace.TraceReader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Plays a recorded trace back step by step instead of running an algorithm. It needs no input, so it starts right away
+public class GraphTraceReplayStrategy extends GraphAlgorithmStrategy {
+    private final TraceReader trace;
+    private final TraceElements elements;
+    private long nextStep = 0;
+
+    public GraphTraceReplayStrategy(TraceReader trace, TraceElements elements, Runnable preInitAction,
+                                    Runnable postInitAction, Consumer<String> onCompleteAction, Runnable onAbortedAction) {
+        super(preInitAction, postInitAction, onCompleteAction, onAbortedAction);
+        this.trace = trace;
+        this.elements = elements;
+    }
+
+    @Override
+    public boolean isReadyToRun() {
+        return true;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return nextStep >= trace.stepCount();
+    }
+
+    @Override
+    public List<ExternalGraphOrder> performStep() {
+        List<ExternalGraphOrder> orders = new ArrayList<>();
+        for (long record = trace.stepStart(nextStep); record < trace.stepEnd(nextStep); ++record) {
+            orders.add(new ColorUpdateOrder(elements.element(trace.element(record)), trace.color(record)));
+        }
+        ++nextStep;
+        return orders;
+    }
+
+    @Override
+    public String getResult() {
+        return trace.getResult();
+    }
+}
@@ -0,0 +1,129 @@
+package engineer.omnis.graphviz.engine;
+
+import engineer.omnis.graphviz.CompactGraph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static engineer.omnis.graphviz.Utility.BIG_INT;
+
+// A* guided by the straight-line distance to the target, scaled by the smallest weight per unit of length
+// over all arcs. Such a heuristic never overestimates and is consistent, so a settled vertex is final.
+// Without vertex positions, or with zero-weight arcs, the scale is 0 and the search degrades to Dijkstra
+public class AStarSearch extends PointToPointSearch {
+    // Keeps the heuristic admissible when the scale is computed from a rounded arc length
+    private static final double SCALE_SLACK = 1 - 1e-9;
+    private final CompactGraph<?, ?> graph;
+    private final double weightPerLength;
+    private final int[] distances;
+    private final int[] parentNodes;
+    private final BitSet settled;
+    private final IndexedMinHeap queue;
+    private int targetNode = -1;
+    private int settledCount = 0;
+    private boolean finished = true;
+
+    public AStarSearch(CompactGraph<?, ?> graph) {
+        super("A*", graph);
+        this.graph = graph;
+        weightPerLength = graph.hasPositions() ? minWeightPerLength(graph) * SCALE_SLACK : 0;
+        distances = new int[graph.vertexCount()];
+        parentNodes = new int[graph.vertexCount()];
+        settled = new BitSet(graph.vertexCount());
+        queue = new IndexedMinHeap(graph.vertexCount());
+        Arrays.fill(distances, BIG_INT);
+        Arrays.fill(parentNodes, -1);
+    }
+
+    // Arcs between coinciding vertices don't restrict the scale, since the heuristic can't tell them apart
+    private static double minWeightPerLength(CompactGraph<?, ?> graph) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int v = 0; v < graph.vertexCount(); ++v) {
+            for (int arc = graph.firstArc(v); arc < graph.endArc(v); ++arc) {
+                double length = graph.distance(v, graph.target(arc));
+                if (length > 0) {
+                    min = Math.min(min, graph.weight(arc) / length);
+                }
+            }
+        }
+        return Double.isInfinite(min) ? 0 : min;
+    }
+
+    private int estimate(int v) {
+        return weightPerLength == 0 ? 0 : (int) (weightPerLength * graph.distance(v, targetNode));
+    }
+
+    @Override
+    protected void startSearch(int source, int target) {
+        targetNode = target;
+        distances[source] = 0;
+        queue.insert(source, estimate(source));
+        finished = false;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public void step(AlgorithmSink sink) {
+        int node = queue.poll();
+        settled.set(node);
+        ++settledCount;
+        sink.vertexUpdated(node, ElementState.ACTIVE);
+
+        if (node == targetNode) {
+            finished = true;
+            reportPath(sink);
+            return;
+        }
+
+        for (int arc = graph.firstArc(node); arc < graph.endArc(node); ++arc) {
+            int v = graph.target(arc);
+            int distance = distances[node] + graph.weight(arc);
+            if (settled.get(v) || distance >= distances[v]) {
+                continue;
+            }
+
+            distances[v] = distance;
+            parentNodes[v] = node;
+            if (queue.contains(v)) {
+                queue.decreaseKey(v, distance + estimate(v));
+            } else {
+                queue.insert(v, distance + estimate(v));
+            }
+            sink.vertexUpdated(v, ElementState.QUEUED);
+        }
+
+        finished = queue.isEmpty();
+    }
+
+    @Override
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    @Override
+    public int getDistance() {
+        return targetNode == -1 ? BIG_INT : distances[targetNode];
+    }
+
+    @Override
+    public int[] getPath() {
+        if (getDistance() >= BIG_INT) {
+            return new int[0];
+        }
+
+        int length = 1;
+        for (int v = targetNode; parentNodes[v] != -1; v = parentNodes[v]) {
+            ++length;
+        }
+
+        int[] path = new int[length];
+        for (int v = targetNode, i = length - 1; i >= 0; v = parentNodes[v], --i) {
+            path[i] = v;
+        }
+        return path;
+    }
+}
@@ -0,0 +1,126 @@
+package engineer.omnis.graphviz.engine;
+
+import engineer.omnis.graphviz.CompactGraph;
+import engineer.omnis.graphviz.GraphView;
+import engineer.omnis.graphviz.SearchTree;
+import lombok.Getter;
+
+import java.awt.geom.Point2D;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+// Runs GraphAlgorithms over a CompactGraph without any Swing involvement.
+// Nothing is allocated per step unless the attached sink does so, which makes it usable for batch jobs and benchmarks
+public final class AlgorithmEngine<V, E> {
+    @Getter
+    private final CompactGraph<V, E> graph;
+    private AlgorithmSink sink = AlgorithmSink.NONE;
+    private GraphAlgorithm algorithm = null;
+    private long steps = 0;
+    private int sourceIndex = -1;
+
+    public AlgorithmEngine(CompactGraph<V, E> graph) {
+        this.graph = graph;
+    }
+
+    public static <V, E> AlgorithmEngine<V, E> of(GraphView<V, E> model, ToIntFunction<E> weightFunction) {
+        return new AlgorithmEngine<>(CompactGraph.freeze(model, weightFunction));
+    }
+
+    public static <V, E> AlgorithmEngine<V, E> of(GraphView<V, E> model, ToIntFunction<E> weightFunction,
+                                                  Function<V, Point2D> positionFunction) {
+        return new AlgorithmEngine<>(CompactGraph.freeze(model, weightFunction, positionFunction));
+    }
+
+    public void attach(AlgorithmSink newSink) {
+        sink = Objects.requireNonNull(newSink);
+    }
+
+    public void detach() {
+        sink = AlgorithmSink.NONE;
+    }
+
+    public void start(AlgorithmKind kind, V source) {
+        start(kind.create(graph), source);
+    }
+
+    public void start(GraphAlgorithm newAlgorithm, V source) {
+        sourceIndex = indexOf(source, "Source");
+        algorithm = newAlgorithm;
+        steps = 0;
+        algorithm.start(sourceIndex);
+    }
+
+    public void start(AlgorithmKind kind, V source, V target) {
+        if (!kind.isPointToPoint()) {
+            throw new IllegalArgumentException(kind + " doesn't take a target vertex");
+        }
+        start((PointToPointSearch) kind.create(graph), source, target);
+    }
+
+    public void start(PointToPointSearch newAlgorithm, V source, V target) {
+        sourceIndex = indexOf(source, "Source");
+        int targetIndex = indexOf(target, "Target");
+        algorithm = newAlgorithm;
+        steps = 0;
+        newAlgorithm.start(sourceIndex, targetIndex);
+    }
+
+    private int indexOf(V vertex, String role) {
+        int index = graph.indexOf(vertex);
+        if (index == -1) {
+            throw new IllegalArgumentException(role + " vertex is not part of the graph");
+        }
+        return index;
+    }
+
+    public boolean isStarted() {
+        return algorithm != null;
+    }
+
+    public boolean isFinished() {
+        return algorithm == null || algorithm.isFinished();
+    }
+
+    public void step() {
+        algorithm.step(sink);
+        sink.stepFinished();
+        ++steps;
+    }
+
+    public RunStatistics runToCompletion(Function<V, String> labeler) {
+        long startTime = System.nanoTime();
+        while (!algorithm.isFinished()) {
+            step();
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        return new RunStatistics(getResult(labeler), steps, elapsed);
+    }
+
+    public RunStatistics run(AlgorithmKind kind, V source, Function<V, String> labeler) {
+        start(kind, source);
+        return runToCompletion(labeler);
+    }
+
+    public RunStatistics run(AlgorithmKind kind, V source, V target, Function<V, String> labeler) {
+        start(kind, source, target);
+        return runToCompletion(labeler);
+    }
+
+    public String getResult(Function<V, String> labeler) {
+        return algorithm.getResult(v -> labeler.apply(graph.vertex(v)));
+    }
+
+    // The finished run's tree, if the algorithm builds one
+    public Optional<SearchTree<V, E>> getSearchTree(Function<V, String> labeler) {
+        if (!(algorithm instanceof TreeAlgorithm treeAlgorithm) || !algorithm.isFinished()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new SearchTree<>(graph, sourceIndex, treeAlgorithm.getParents(),
+                treeAlgorithm.getDistances(), getResult(labeler)));
+    }
+}
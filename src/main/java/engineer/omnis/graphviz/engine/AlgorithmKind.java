@@ -0,0 +1,38 @@
+package engineer.omnis.graphviz.engine;
+
+import engineer.omnis.graphviz.CompactGraph;
+
+import java.util.function.Function;
+
+public enum AlgorithmKind {
+    BFS(BreadthFirstSearch::new),
+    PARALLEL_BFS(ParallelBreadthFirstSearch::new),
+    DFS(DepthFirstSearch::new),
+    DIJKSTRA(DijkstraShortestPaths::new),
+    DELTA_STEPPING(DeltaSteppingShortestPaths::new),
+    PRIM(PrimSpanningTree::new),
+    BORUVKA(BoruvkaSpanningTree::new),
+    ASTAR(AStarSearch::new, true),
+    BIDIRECTIONAL_DIJKSTRA(BidirectionalDijkstra::new, true);
+
+    private final Function<CompactGraph<?, ?>, GraphAlgorithm> factory;
+    // Point-to-point kinds create PointToPointSearches and have to be started with a target
+    private final boolean pointToPoint;
+
+    AlgorithmKind(Function<CompactGraph<?, ?>, GraphAlgorithm> factory) {
+        this(factory, false);
+    }
+
+    AlgorithmKind(Function<CompactGraph<?, ?>, GraphAlgorithm> factory, boolean pointToPoint) {
+        this.factory = factory;
+        this.pointToPoint = pointToPoint;
+    }
+
+    public boolean isPointToPoint() {
+        return pointToPoint;
+    }
+
+    public GraphAlgorithm create(CompactGraph<?, ?> graph) {
+        return factory.apply(graph);
+    }
+}
@@ -0,0 +1,17 @@
+package engineer.omnis.graphviz.engine;
+
+// Receives state changes from a running GraphAlgorithm, e.g. to visualize or record them.
+// Vertices and arcs are identified by their CompactGraph indices
+public interface AlgorithmSink {
+    AlgorithmSink NONE = new AlgorithmSink() {
+    };
+
+    default void vertexUpdated(int vertex, ElementState state) {
+    }
+
+    default void arcUpdated(int arc, ElementState state) {
+    }
+
+    default void stepFinished() {
+    }
+}
@@ -0,0 +1,187 @@
+package engineer.omnis.graphviz.engine;
+
+import engineer.omnis.graphviz.CompactGraph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static engineer.omnis.graphviz.Utility.BIG_INT;
+
+// Shortest distances between all vertex pairs, computed in one batch rather than step by step.
+// Sparse graphs run one Dijkstra per source in parallel, where every task reuses its heap and distance buffers
+// for all of its sources. Small dense graphs use Floyd–Warshall over square blocks that stay in cache
+public final class AllPairsShortestPaths {
+    // Floyd–Warshall is only picked up to this many vertices, and only if at least 1/DENSITY of all pairs are arcs
+    private static final int FLOYD_WARSHALL_MAX_VERTICES = 2048;
+    private static final int DENSITY = 16;
+    private static final int BLOCK = 64;
+    private static final int SOURCE_GRAIN = 8;
+    private final CompactGraph<?, ?> graph;
+    private final ForkJoinPool pool;
+    private final int vertexCount;
+
+    public AllPairsShortestPaths(CompactGraph<?, ?> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    public AllPairsShortestPaths(CompactGraph<?, ?> graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+        vertexCount = graph.vertexCount();
+    }
+
+    public DistanceMatrix compute(boolean offHeap) {
+        boolean negativeWeights = false;
+        for (int arc = 0; arc < graph.arcCount() && !negativeWeights; ++arc) {
+            negativeWeights = graph.weight(arc) < 0;
+        }
+
+        boolean dense = (long) graph.arcCount() * DENSITY >= (long) vertexCount * vertexCount;
+        if (negativeWeights || dense && vertexCount <= FLOYD_WARSHALL_MAX_VERTICES) {
+            return computeWithFloydWarshall(offHeap);
+        }
+        return computeWithDijkstra(offHeap);
+    }
+
+    public DistanceMatrix computeWithDijkstra(boolean offHeap) {
+        for (int arc = 0; arc < graph.arcCount(); ++arc) {
+            if (graph.weight(arc) < 0) {
+                throw new IllegalArgumentException("Dijkstra requires non-negative edge weights");
+            }
+        }
+
+        DistanceMatrix matrix = DistanceMatrix.allocate(vertexCount, offHeap);
+        ChunkRunner chunkRunner = new ChunkRunner(pool, SOURCE_GRAIN);
+        int chunks = chunkRunner.chunkCount(vertexCount);
+        int chunkLength = (vertexCount + chunks - 1) / chunks;
+
+        chunkRunner.run(chunks, chunk -> {
+            int[] distances = new int[vertexCount];
+            boolean[] settled = new boolean[vertexCount];
+            IndexedMinHeap queue = new IndexedMinHeap(vertexCount);
+
+            int to = Math.min(vertexCount, (chunk + 1) * chunkLength);
+            for (int source = chunk * chunkLength; source < to; ++source) {
+                shortestDistancesFrom(source, distances, settled, queue);
+                matrix.putRow(source, distances);
+            }
+        });
+
+        return matrix;
+    }
+
+    private void shortestDistancesFrom(int source, int[] distances, boolean[] settled, IndexedMinHeap queue) {
+        Arrays.fill(distances, BIG_INT);
+        Arrays.fill(settled, false);
+        queue.clear();
+
+        distances[source] = 0;
+        queue.insert(source, 0);
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            settled[node] = true;
+
+            for (int arc = graph.firstArc(node); arc < graph.endArc(node); ++arc) {
+                int v = graph.target(arc);
+                int distance = distances[node] + graph.weight(arc);
+                if (settled[v] || distance >= distances[v]) {
+                    continue;
+                }
+
+                distances[v] = distance;
+                if (queue.contains(v)) {
+                    queue.decreaseKey(v, distance);
+                } else {
+                    queue.insert(v, distance);
+                }
+            }
+        }
+    }
+
+    // Blocked Floyd–Warshall: for every diagonal block, the block itself is closed first, then the blocks
+    // sharing its rows or columns, and finally all others, which only read those and can run in parallel
+    public DistanceMatrix computeWithFloydWarshall(boolean offHeap) {
+        if ((long) vertexCount * vertexCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many vertices for Floyd–Warshall: " + vertexCount);
+        }
+
+        int[] distances = new int[vertexCount * vertexCount];
+        Arrays.fill(distances, BIG_INT);
+        for (int v = 0; v < vertexCount; ++v) {
+            distances[v * vertexCount + v] = 0;
+            for (int arc = graph.firstArc(v); arc < graph.endArc(v); ++arc) {
+                int cell = v * vertexCount + graph.target(arc);
+                distances[cell] = Math.min(distances[cell], graph.weight(arc));
+            }
+        }
+
+        int blocks = (vertexCount + BLOCK - 1) / BLOCK;
+        ChunkRunner chunkRunner = new ChunkRunner(pool, 1);
+        for (int k = 0; k < blocks; ++k) {
+            int pivot = k;
+            relaxBlock(distances, pivot, pivot, pivot);
+
+            chunkRunner.run(blocks, block -> {
+                if (block != pivot) {
+                    relaxBlock(distances, pivot, block, pivot);
+                    relaxBlock(distances, block, pivot, pivot);
+                }
+            });
+
+            chunkRunner.run(blocks, rowBlock -> {
+                if (rowBlock == pivot) {
+                    return;
+                }
+                for (int columnBlock = 0; columnBlock < blocks; ++columnBlock) {
+                    if (columnBlock != pivot) {
+                        relaxBlock(distances, rowBlock, columnBlock, pivot);
+                    }
+                }
+            });
+        }
+
+        for (int v = 0; v < vertexCount; ++v) {
+            if (distances[v * vertexCount + v] < 0) {
+                throw new IllegalArgumentException("The graph contains a negative cycle");
+            }
+        }
+
+        if (!offHeap) {
+            return DistanceMatrix.wrap(vertexCount, distances);
+        }
+
+        DistanceMatrix matrix = DistanceMatrix.allocate(vertexCount, true);
+        int[] row = new int[vertexCount];
+        for (int v = 0; v < vertexCount; ++v) {
+            System.arraycopy(distances, v * vertexCount, row, 0, vertexCount);
+            matrix.putRow(v, row);
+        }
+        return matrix;
+    }
+
+    // Shortens the paths of one block through the vertices of the pivot block
+    private void relaxBlock(int[] distances, int rowBlock, int columnBlock, int pivotBlock) {
+        int rowEnd = Math.min(vertexCount, (rowBlock + 1) * BLOCK);
+        int columnStart = columnBlock * BLOCK;
+        int columnEnd = Math.min(vertexCount, columnStart + BLOCK);
+        int pivotEnd = Math.min(vertexCount, (pivotBlock + 1) * BLOCK);
+
+        for (int k = pivotBlock * BLOCK; k < pivotEnd; ++k) {
+            int pivotRow = k * vertexCount;
+            for (int i = rowBlock * BLOCK; i < rowEnd; ++i) {
+                int row = i * vertexCount;
+                int throughPivot = distances[row + k];
+                if (throughPivot >= BIG_INT) {
+                    continue;
+                }
+
+                for (int j = columnStart; j < columnEnd; ++j) {
+                    int fromPivot = distances[pivotRow + j];
+                    if (fromPivot < BIG_INT && throughPivot + fromPivot < distances[row + j]) {
+                        distances[row + j] = throughPivot + fromPivot;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package engineer.omnis.graphviz.engine;
+
+import engineer.omnis.graphviz.CompactGraph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static engineer.omnis.graphviz.Utility.BIG_INT;
+
+// Dijkstra from the source over the arcs and from the target over the reversed arcs at the same time.
+// Every step settles one vertex on the side whose queue has the smaller minimum, and the search stops once
+// the two minima together reach the shortest source-target distance seen while relaxing arcs
+public class BidirectionalDijkstra extends PointToPointSearch {
+    private static final int FORWARD = 0;
+    private static final int BACKWARD = 1;
+    private final CompactGraph<?, ?>[] graphs;
+    private final int[][] distances;
+    private final int[][] parentNodes;
+    private final BitSet[] settled;
+    private final IndexedMinHeap[] queues;
+    private int bestDistance = BIG_INT;
+    private int meetingNode = -1;
+    private int settledCount = 0;
+    private boolean finished = true;
+
+    public BidirectionalDijkstra(CompactGraph<?, ?> graph) {
+        super("Bidirectional Dijkstra", graph);
+        graphs = new CompactGraph<?, ?>[] {graph, graph.transpose()};
+        distances = new int[2][graph.vertexCount()];
+        parentNodes = new int[2][graph.vertexCount()];
+        settled = new BitSet[] {new BitSet(graph.vertexCount()), new BitSet(graph.vertexCount())};
+        queues = new IndexedMinHeap[] {new IndexedMinHeap(graph.vertexCount()), new IndexedMinHeap(graph.vertexCount())};
+
+        for (int side = FORWARD; side <= BACKWARD; ++side) {
+            Arrays.fill(distances[side], BIG_INT);
+            Arrays.fill(parentNodes[side], -1);
+        }
+    }
+
+    @Override
+    protected void startSearch(int source, int target) {
+        distances[FORWARD][source] = 0;
+        distances[BACKWARD][target] = 0;
+        queues[FORWARD].insert(source, 0);
+        queues[BACKWARD].insert(target, 0);
+        if (source == target) {
+            bestDistance = 0;
+            meetingNode = source;
+        }
+        finished = isSearchExhausted();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public void step(AlgorithmSink sink) {
+        int side = queues[BACKWARD].isEmpty()
+                || !queues[FORWARD].isEmpty() && minKey(FORWARD) <= minKey(BACKWARD) ? FORWARD : BACKWARD;
+        int other = 1 - side;
+        CompactGraph<?, ?> graph = graphs[side];
+
+        int node = queues[side].poll();
+        settled[side].set(node);
+        ++settledCount;
+        sink.vertexUpdated(node, ElementState.ACTIVE);
+
+        for (int arc = graph.firstArc(node); arc < graph.endArc(node); ++arc) {
+            int v = graph.target(arc);
+            int distance = distances[side][node] + graph.weight(arc);
+            if (!settled[side].get(v) && distance < distances[side][v]) {
+                distances[side][v] = distance;
+                parentNodes[side][v] = node;
+                if (queues[side].contains(v)) {
+                    queues[side].decreaseKey(v, distance);
+                } else {
+                    queues[side].insert(v, distance);
+                }
+                sink.vertexUpdated(v, ElementState.QUEUED);
+            }
+
+            if (distances[other][v] < BIG_INT && distances[side][v] + distances[other][v] < bestDistance) {
+                bestDistance = distances[side][v] + distances[other][v];
+                meetingNode = v;
+            }
+        }
+
+        finished = isSearchExhausted();
+        if (finished) {
+            reportPath(sink);
+        }
+    }
+
+    private int minKey(int side) {
+        return queues[side].getKey(queues[side].peek());
+    }
+
+    // Any path through a vertex that is still queued on both sides is at least as long as the two minima together
+    private boolean isSearchExhausted() {
+        return queues[FORWARD].isEmpty() || queues[BACKWARD].isEmpty()
+                || (long) minKey(FORWARD) + minKey(BACKWARD) >= bestDistance;
+    }
+
+    @Override
+    public int getSettledCount() {
+        return settledCount;
+    }
+
+    @Override
+    public int getDistance() {
+        return bestDistance;
+    }
+
+    @Override
+    public int[] getPath() {
+        if (meetingNode == -1) {
+            return new int[0];
+        }
+
+        int forwardLength = 0;
+        for (int v = meetingNode; v != -1; v = parentNodes[FORWARD][v]) {
+            ++forwardLength;
+        }
+        int backwardLength = 0;
+        for (int v = parentNodes[BACKWARD][meetingNode]; v != -1; v = parentNodes[BACKWARD][v]) {
+            ++backwardLength;
+        }
+
+        int[] path = new int[forwardLength + backwardLength];
+        int i = forwardLength;
+        for (int v = meetingNode; v != -1; v = parentNodes[FORWARD][v]) {
+            path[--i] = v;
+        }
+        i = forwardLength;
+        for (int v = parentNodes[BACKWARD][meetingNode]; v != -1; v = parentNodes[BACKWARD][v]) {
+            path[i++] = v;
+        }
+        return path;
+    }
+}
@@ -0,0 +1,231 @@
+package engineer.omnis.graphviz.engine;
+
+import engineer.omnis.graphviz.CompactGraph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Borůvka's MST. Every step is one round: all components pick their cheapest outgoing edge in parallel,
+// then the picked edges are contracted in parallel with a lock-free union-find. Edges are compared by
+// (weight, lower endpoint, higher endpoint), which makes the picks consistent and keeps them cycle-free.
+// Arcs are treated as undirected edges, and the tree containing the source is reported rooted at the source,
+// in the same format as Prim
+public class BoruvkaSpanningTree implements TreeAlgorithm {
+    private static final int GRAIN = 1024;
+    private static final int OUTSIDE_TREE = -2;
+    private final CompactGraph<?, ?> graph;
+    private final ChunkRunner chunkRunner;
+    private final int[] arcSources;
+    private final AtomicIntegerArray components;
+    private final AtomicIntegerArray cheapestArcs;
+    private final int[] mstArcs;
+    private int mstArcCount = 0;
+    private int initialNode = -1;
+    private boolean finished = true;
+
+    public BoruvkaSpanningTree(CompactGraph<?, ?> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    public BoruvkaSpanningTree(CompactGraph<?, ?> graph, ForkJoinPool pool) {
+        this.graph = graph;
+        chunkRunner = new ChunkRunner(pool, GRAIN);
+        arcSources = new int[graph.arcCount()];
+        components = new AtomicIntegerArray(graph.vertexCount());
+        cheapestArcs = new AtomicIntegerArray(graph.vertexCount());
+        mstArcs = new int[Math.max(0, graph.vertexCount() - 1)];
+
+        for (int v = 0; v < graph.vertexCount(); ++v) {
+            Arrays.fill(arcSources, graph.firstArc(v), graph.endArc(v), v);
+            components.set(v, v);
+            cheapestArcs.set(v, -1);
+        }
+    }
+
+    @Override
+    public void start(int source) {
+        initialNode = source;
+        finished = false;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public void step(AlgorithmSink sink) {
+        int vertexCount = graph.vertexCount();
+        int chunks = chunkRunner.chunkCount(vertexCount);
+        int chunkLength = (vertexCount + chunks - 1) / chunks;
+
+        // Components don't change during this phase, so every find is stable
+        chunkRunner.run(chunks, chunk -> {
+            int to = Math.min(vertexCount, (chunk + 1) * chunkLength);
+            for (int v = chunk * chunkLength; v < to; ++v) {
+                int component = find(v);
+                for (int arc = graph.firstArc(v); arc < graph.endArc(v); ++arc) {
+                    if (find(graph.target(arc)) != component) {
+                        offerCheapestArc(component, arc);
+                    }
+                }
+            }
+        });
+
+        chunkRunner.run(chunks, chunk -> {
+            int to = Math.min(vertexCount, (chunk + 1) * chunkLength);
+            for (int v = chunk * chunkLength; v < to; ++v) {
+                int arc = cheapestArcs.get(v);
+                if (arc == -1) {
+                    continue;
+                }
+
+                cheapestArcs.set(v, -1);
+                // Two components may pick the same edge, only the first union adds it
+                if (union(arcSources[arc], graph.target(arc))) {
+                    chunkRunner.append(chunk, arc);
+                }
+            }
+        });
+
+        int roundStart = mstArcCount;
+        mstArcCount += chunkRunner.gather(chunks, mstArcs, roundStart);
+        Arrays.sort(mstArcs, roundStart, mstArcCount);
+
+        for (int i = roundStart; i < mstArcCount; ++i) {
+            int arc = mstArcs[i];
+            sink.vertexUpdated(arcSources[arc], ElementState.ACTIVE);
+            sink.vertexUpdated(graph.target(arc), ElementState.ACTIVE);
+            sink.arcUpdated(arc, ElementState.TREE_EDGE);
+        }
+
+        finished = roundStart == mstArcCount;
+    }
+
+    private void offerCheapestArc(int component, int arc) {
+        int current = cheapestArcs.get(component);
+        while (current == -1 || isLighter(arc, current)) {
+            if (cheapestArcs.compareAndSet(component, current, arc)) {
+                return;
+            }
+            current = cheapestArcs.get(component);
+        }
+    }
+
+    private boolean isLighter(int firstArc, int secondArc) {
+        int firstWeight = graph.weight(firstArc);
+        int secondWeight = graph.weight(secondArc);
+        if (firstWeight != secondWeight) {
+            return firstWeight < secondWeight;
+        }
+
+        int firstLow = Math.min(arcSources[firstArc], graph.target(firstArc));
+        int secondLow = Math.min(arcSources[secondArc], graph.target(secondArc));
+        if (firstLow != secondLow) {
+            return firstLow < secondLow;
+        }
+
+        return Math.max(arcSources[firstArc], graph.target(firstArc))
+                < Math.max(arcSources[secondArc], graph.target(secondArc));
+    }
+
+    // Path halving; concurrent finds may race on the same shortcut, which is harmless
+    private int find(int v) {
+        while (true) {
+            int parent = components.get(v);
+            if (parent == v) {
+                return v;
+            }
+
+            int grandParent = components.get(parent);
+            if (parent != grandParent) {
+                components.compareAndSet(v, parent, grandParent);
+            }
+            v = parent;
+        }
+    }
+
+    private boolean union(int first, int second) {
+        while (true) {
+            int firstRoot = find(first);
+            int secondRoot = find(second);
+            if (firstRoot == secondRoot) {
+                return false;
+            }
+
+            // The higher root is attached to the lower one, and only if it is still a root
+            int low = Math.min(firstRoot, secondRoot);
+            int high = Math.max(firstRoot, secondRoot);
+            if (components.compareAndSet(high, high, low)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public int[] getParents() {
+        int[] parents = rootTreeAt(initialNode);
+        for (int v = 0; v < parents.length; ++v) {
+            parents[v] = Math.max(parents[v], -1);
+        }
+        return parents;
+    }
+
+    @Override
+    public String getResult(IntFunction<String> labels) {
+        int[] parents = rootTreeAt(initialNode);
+        return "Prim : " + IntStream.range(0, parents.length)
+                .filter(v -> parents[v] >= 0)
+                .mapToObj(v -> labels.apply(v) + "=" + labels.apply(parents[v]))
+                .sorted().collect(Collectors.joining(", "));
+    }
+
+    // Orients the tree containing the root, -1 marks the root
+    private int[] rootTreeAt(int root) {
+        int vertexCount = graph.vertexCount();
+        int[] parents = new int[vertexCount];
+        Arrays.fill(parents, OUTSIDE_TREE);
+        if (root == -1) {
+            return parents;
+        }
+
+        int[] offsets = new int[vertexCount + 1];
+        for (int i = 0; i < mstArcCount; ++i) {
+            ++offsets[arcSources[mstArcs[i]] + 1];
+            ++offsets[graph.target(mstArcs[i]) + 1];
+        }
+        for (int v = 0; v < vertexCount; ++v) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        int[] fill = Arrays.copyOf(offsets, vertexCount);
+        int[] neighbors = new int[2 * mstArcCount];
+        for (int i = 0; i < mstArcCount; ++i) {
+            int from = arcSources[mstArcs[i]];
+            int to = graph.target(mstArcs[i]);
+            neighbors[fill[from]++] = to;
+            neighbors[fill[to]++] = from;
+        }
+
+        int[] queue = new int[vertexCount];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = root;
+        parents[root] = -1;
+        while (head < tail) {
+            int v = queue[head++];
+            for (int i = offsets[v]; i < offsets[v + 1]; ++i) {
+                if (parents[neighbors[i]] == OUTSIDE_TREE) {
+                    parents[neighbors[i]] = v;
+                    queue[tail++] = neighbors[i];
+                }
+            }
+        }
+
+        return parents;
+    }
+}
@@ -0,0 +1,73 @@
+package engineer.omnis.graphviz.engine;
+
+import engineer.omnis.graphviz.CompactGraph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+// Visiting a vertex and queueing its neighbors are two separate steps, so both can be shown one after another.
+// Every vertex enters the queue at most once, so the queue array doubles as the visit order
+public class BreadthFirstSearch implements GraphAlgorithm {
+    private final CompactGraph<?, ?> graph;
+    private final int[] arcsByWeight;
+    private final int[] queue;
+    private final BitSet discovered;
+    private int head = 0;
+    private int tail = 0;
+    private boolean updatingNeighbors = false;
+    private int currentNeighborsStart = 0;
+
+    public BreadthFirstSearch(CompactGraph<?, ?> graph) {
+        this.graph = graph;
+        arcsByWeight = graph.arcsByWeight(false);
+        queue = new int[graph.vertexCount()];
+        discovered = new BitSet(graph.vertexCount());
+    }
+
+    @Override
+    public void start(int source) {
+        queue[tail++] = source;
+        discovered.set(source);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return head == tail;
+    }
+
+    @Override
+    public void step(AlgorithmSink sink) {
+        if (head == tail) {
+            return;
+        }
+
+        if (updatingNeighbors) {
+            for (int i = currentNeighborsStart; i < tail; ++i) {
+                sink.vertexUpdated(queue[i], ElementState.QUEUED);
+            }
+            updatingNeighbors = false;
+            return;
+        }
+
+        // Visiting
+        int current = queue[head++];
+        sink.vertexUpdated(current, ElementState.ACTIVE);
+
+        currentNeighborsStart = tail;
+        for (int i = graph.firstArc(current); i < graph.endArc(current); ++i) {
+            int neighbor = graph.target(arcsByWeight[i]);
+            if (!discovered.get(neighbor)) {
+                discovered.set(neighbor);
+                queue[tail++] = neighbor;
+            }
+        }
+        updatingNeighbors = true;
+    }
+
+    @Override
+    public String getResult(IntFunction<String> labels) {
+        return "BFS : " + Arrays.stream(queue, 0, head).mapToObj(labels).collect(Collectors.joining(" -> "));
+    }
+}
@@ -0,0 +1,83 @@
+package engineer.omnis.graphviz.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+
+// Splits work into at most a few chunks per pool thread and gives every chunk its own output buffer,
+// so parallel phases can collect vertices without synchronization. Buffers are reused between phases
+final class ChunkRunner {
+    private static final int CHUNKS_PER_THREAD = 4;
+    private final ForkJoinPool pool;
+    private final int grain;
+    private final int maxChunks;
+    private final int[][] chunkBuffers;
+    private final int[] chunkSizes;
+
+    ChunkRunner(ForkJoinPool pool, int grain) {
+        this.pool = pool;
+        this.grain = grain;
+        maxChunks = pool.getParallelism() * CHUNKS_PER_THREAD;
+        chunkBuffers = new int[maxChunks][];
+        chunkSizes = new int[maxChunks];
+    }
+
+    int chunkCount(int workItems) {
+        return Math.max(1, Math.min(maxChunks, (workItems + grain - 1) / grain));
+    }
+
+    void run(int chunks, IntConsumer chunkAction) {
+        if (chunks == 1) {
+            chunkAction.accept(0);
+            return;
+        }
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; ++chunk) {
+            int index = chunk;
+            tasks.add(ForkJoinTask.adapt(() -> chunkAction.accept(index)));
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+
+    // Must only be called by the task running the given chunk
+    void append(int chunk, int value) {
+        int[] buffer = chunkBuffers[chunk];
+        if (buffer == null || buffer.length == chunkSizes[chunk]) {
+            buffer = buffer == null ? new int[grain] : Arrays.copyOf(buffer, buffer.length * 2);
+            chunkBuffers[chunk] = buffer;
+        }
+        buffer[chunkSizes[chunk]++] = value;
+    }
+
+    // Concatenates the chunk buffers in chunk order and empties them
+    int gather(int chunks, int[] destination) {
+        return gather(chunks, destination, 0);
+    }
+
+    int gather(int chunks, int[] destination, int offset) {
+        int size = 0;
+        for (int chunk = 0; chunk < chunks; ++chunk) {
+            if (chunkSizes[chunk] == 0) {
+                continue;
+            }
+            System.arraycopy(chunkBuffers[chunk], 0, destination, offset + size, chunkSizes[chunk]);
+            size += chunkSizes[chunk];
+            chunkSizes[chunk] = 0;
+        }
+        return size;
+    }
+
+    void drain(int chunks, IntConsumer consumer) {
+        for (int chunk = 0; chunk < chunks; ++chunk) {
+            int[] buffer = chunkBuffers[chunk];
+            for (int i = 0; i < chunkSizes[chunk]; ++i) {
+                consumer.accept(buffer[i]);
+            }
+            chunkSizes[chunk] = 0;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package engineer.omnis.graphviz.engine;
+
+import engineer.omnis.graphviz.CompactGraph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static engineer.omnis.graphviz.Utility.BIG_INT;
+
+// Delta-stepping SSSP (Meyer and Sanders). Tentative distances are grouped into buckets of width delta,
+// and every step settles one bucket: light arcs (weight <= delta) are relaxed in parallel until the bucket
+// stops changing, then the heavy arcs of everything settled in it are relaxed once, also in parallel.
+// Relaxations are CAS-min updates, while bucket bookkeeping happens on the calling thread between parallel phases
+public class DeltaSteppingShortestPaths implements GraphAlgorithm {
+    private static final int GRAIN = 256;
+    private final CompactGraph<?, ?> graph;
+    private final ChunkRunner chunkRunner;
+    private final int delta;
+    private final AtomicIntegerArray distances;
+    private final BitSet settled;
+    private final int[] requestStamps;
+    // Buckets are reused cyclically: relaxing from bucket i can only reach buckets up to i + maxWeight / delta
+    private final int[][] buckets;
+    private final int[] bucketSizes;
+    private int[] currentRequests;
+    private int[] nextRequests;
+    private int[] bucketVertices;
+    private int currentBucket = 0;
+    private int requestStamp = 0;
+    private int initialNode = -1;
+    private boolean finished = true;
+
+    public DeltaSteppingShortestPaths(CompactGraph<?, ?> graph) {
+        this(graph, defaultDelta(graph), ForkJoinPool.commonPool());
+    }
+
+    public DeltaSteppingShortestPaths(CompactGraph<?, ?> graph, int delta, ForkJoinPool pool) {
+        if (delta < 1) {
+            throw new IllegalArgumentException("Bucket width must be positive");
+        }
+
+        int maxWeight = 0;
+        for (int arc = 0; arc < graph.arcCount(); ++arc) {
+            if (graph.weight(arc) < 0) {
+                throw new IllegalArgumentException("Delta-stepping requires non-negative edge weights");
+            }
+            maxWeight = Math.max(maxWeight, graph.weight(arc));
+        }
+
+        this.graph = graph;
+        this.delta = delta;
+        chunkRunner = new ChunkRunner(pool, GRAIN);
+        distances = new AtomicIntegerArray(graph.vertexCount());
+        settled = new BitSet(graph.vertexCount());
+        requestStamps = new int[graph.vertexCount()];
+        buckets = new int[maxWeight / delta + 2][];
+        bucketSizes = new int[buckets.length];
+        currentRequests = new int[graph.vertexCount()];
+        nextRequests = new int[graph.vertexCount()];
+        bucketVertices = new int[graph.vertexCount()];
+
+        for (int v = 0; v < graph.vertexCount(); ++v) {
+            distances.set(v, BIG_INT);
+        }
+    }
+
+    // Mean arc weight: light enough for little rework, wide enough for buckets to carry parallel work
+    private static int defaultDelta(CompactGraph<?, ?> graph) {
+        long weightSum = 0;
+        for (int arc = 0; arc < graph.arcCount(); ++arc) {
+            weightSum += Math.max(0, graph.weight(arc));
+        }
+        return graph.arcCount() == 0 ? 1 : (int) Math.max(1, weightSum / graph.arcCount());
+    }
+
+    @Override
+    public void start(int source) {
+        initialNode = source;
+        distances.set(source, 0);
+        addToBucket(source);
+        finished = false;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public void step(AlgorithmSink sink) {
+        ++requestStamp;
+        int requestCount = takeBucket(currentBucket);
+        int settledCount = 0;
+
+        while (requestCount > 0) {
+            for (int i = 0; i < requestCount; ++i) {
+                int v = currentRequests[i];
+                if (!settled.get(v)) {
+                    settled.set(v);
+                    bucketVertices[settledCount++] = v;
+                    sink.vertexUpdated(v, ElementState.ACTIVE);
+                }
+            }
+
+            // Vertices whose distance dropped again inside this bucket are relaxed once more
+            ++requestStamp;
+            int chunks = relax(currentRequests, requestCount, true);
+            int[] count = {0};
+            chunkRunner.drain(chunks, v -> {
+                if (requestStamps[v] == requestStamp) {
+                    return;
+                }
+                requestStamps[v] = requestStamp;
+
+                if (distances.get(v) / delta == currentBucket) {
+                    nextRequests[count[0]++] = v;
+                } else {
+                    addToBucket(v);
+                    sink.vertexUpdated(v, ElementState.QUEUED);
+                }
+            });
+
+            int[] swap = currentRequests;
+            currentRequests = nextRequests;
+            nextRequests = swap;
+            requestCount = count[0];
+        }
+
+        ++requestStamp;
+        int chunks = relax(bucketVertices, settledCount, false);
+        chunkRunner.drain(chunks, v -> {
+            if (requestStamps[v] != requestStamp) {
+                requestStamps[v] = requestStamp;
+                addToBucket(v);
+                sink.vertexUpdated(v, ElementState.QUEUED);
+            }
+        });
+
+        advanceToNextBucket();
+    }
+
+    private int relax(int[] vertices, int count, boolean lightArcs) {
+        int chunks = chunkRunner.chunkCount(count);
+        int chunkLength = (count + chunks - 1) / chunks;
+
+        chunkRunner.run(chunks, chunk -> {
+            int to = Math.min(count, (chunk + 1) * chunkLength);
+            for (int i = chunk * chunkLength; i < to; ++i) {
+                int v = vertices[i];
+                int distance = distances.get(v);
+                for (int arc = graph.firstArc(v); arc < graph.endArc(v); ++arc) {
+                    int weight = graph.weight(arc);
+                    int target = graph.target(arc);
+                    if ((weight <= delta) == lightArcs && lowerDistance(target, distance + weight)) {
+                        chunkRunner.append(chunk, target);
+                    }
+                }
+            }
+        });
+
+        return chunks;
+    }
+
+    private boolean lowerDistance(int v, int distance) {
+        int current = distances.get(v);
+        while (distance < current) {
+            if (distances.compareAndSet(v, current, distance)) {
+                return true;
+            }
+            current = distances.get(v);
+        }
+        return false;
+    }
+
+    private void addToBucket(int v) {
+        int slot = (distances.get(v) / delta) % buckets.length;
+        int[] bucket = buckets[slot];
+        if (bucket == null || bucket.length == bucketSizes[slot]) {
+            bucket = bucket == null ? new int[GRAIN] : Arrays.copyOf(bucket, bucket.length * 2);
+            buckets[slot] = bucket;
+        }
+        bucket[bucketSizes[slot]++] = v;
+    }
+
+    // Moves the live entries of a bucket into currentRequests. Entries are stale once their vertex is settled
+    // or has moved on to a lower bucket, and vertices can be listed more than once
+    private int takeBucket(int bucketIndex) {
+        int slot = bucketIndex % buckets.length;
+        int count = 0;
+        for (int i = 0; i < bucketSizes[slot]; ++i) {
+            int v = buckets[slot][i];
+            if (!settled.get(v) && distances.get(v) / delta == bucketIndex && requestStamps[v] != requestStamp) {
+                requestStamps[v] = requestStamp;
+                currentRequests[count++] = v;
+            }
+        }
+        bucketSizes[slot] = 0;
+        return count;
+    }
+
+    private void advanceToNextBucket() {
+        for (int i = 1; i <= buckets.length; ++i) {
+            int bucketIndex = currentBucket + i;
+            int slot = bucketIndex % buckets.length;
+            for (int j = 0; j < bucketSizes[slot]; ++j) {
+                int v = buckets[slot][j];
+                if (!settled.get(v) && distances.get(v) / delta == bucketIndex) {
+                    currentBucket = bucketIndex;
+                    return;
+                }
+            }
+            bucketSizes[slot] = 0;
+        }
+        finished = true;
+    }
+
+    public int getDistance(int v) {
+        return distances.get(v);
+    }
+
+    @Override
+    public String getResult(IntFunction<String> labels) {
+        return "Dijkstra : " + IntStream.range(0, graph.vertexCount())
+                .filter(v -> v != initialNode)
+                .mapToObj(v -> labels.apply(v) + "=" + distances.get(v))
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,77 @@
+package engineer.omnis.graphviz.engine;
+
+import engineer.omnis.graphviz.CompactGraph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+// Visiting a vertex and stacking its neighbors are two separate steps, so both can be shown one after another.
+// A vertex is never stacked twice, so both the stack and the visit order fit into arrays of vertexCount
+public class DepthFirstSearch implements GraphAlgorithm {
+    private final CompactGraph<?, ?> graph;
+    private final int[] arcsByWeight;
+    private final int[] nextNodes;
+    private final int[] visitOrder;
+    private final BitSet discovered;
+    private int stackSize = 0;
+    private int visitedCount = 0;
+    private boolean updatingNeighbors = false;
+    private int currentNeighborsStart = 0;
+
+    public DepthFirstSearch(CompactGraph<?, ?> graph) {
+        this.graph = graph;
+        arcsByWeight = graph.arcsByWeight(true);
+        nextNodes = new int[graph.vertexCount()];
+        visitOrder = new int[graph.vertexCount()];
+        discovered = new BitSet(graph.vertexCount());
+    }
+
+    @Override
+    public void start(int source) {
+        nextNodes[stackSize++] = source;
+        discovered.set(source);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return stackSize == 0;
+    }
+
+    @Override
+    public void step(AlgorithmSink sink) {
+        if (stackSize == 0) {
+            return;
+        }
+
+        if (updatingNeighbors) {
+            for (int i = currentNeighborsStart; i < stackSize; ++i) {
+                sink.vertexUpdated(nextNodes[i], ElementState.QUEUED);
+            }
+            updatingNeighbors = false;
+            return;
+        }
+
+        // Visiting
+        int current = nextNodes[--stackSize];
+        sink.vertexUpdated(current, ElementState.ACTIVE);
+        visitOrder[visitedCount++] = current;
+
+        // Heaviest neighbors go first, so the lightest one ends up on top
+        currentNeighborsStart = stackSize;
+        for (int i = graph.firstArc(current); i < graph.endArc(current); ++i) {
+            int neighbor = graph.target(arcsByWeight[i]);
+            if (!discovered.get(neighbor)) {
+                discovered.set(neighbor);
+                nextNodes[stackSize++] = neighbor;
+            }
+        }
+        updatingNeighbors = true;
+    }
+
+    @Override
+    public String getResult(IntFunction<String> labels) {
+        return "DFS : " + Arrays.stream(visitOrder, 0, visitedCount).mapToObj(labels).collect(Collectors.joining(" -> "));
+    }
+}
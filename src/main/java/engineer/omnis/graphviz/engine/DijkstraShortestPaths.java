@@ -0,0 +1,91 @@
+package engineer.omnis.graphviz.engine;
+
+import engineer.omnis.graphviz.CompactGraph;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static engineer.omnis.graphviz.Utility.BIG_INT;
+
+// Every step settles exactly one vertex, unreachable ones included, and relaxes its unsettled neighbors.
+// All vertices sit in the heap from the start, so the unreachable ones are settled last with BIG_INT
+public class DijkstraShortestPaths implements TreeAlgorithm {
+    private final CompactGraph<?, ?> graph;
+    private final int[] shortestDistances;
+    private final boolean[] shortestPathTreeSet;
+    private final int[] parentNodes;
+    private final IndexedMinHeap queue;
+    private int settledCount = 0;
+    private int initialNode = -1;
+
+    public DijkstraShortestPaths(CompactGraph<?, ?> graph) {
+        this.graph = graph;
+        shortestDistances = new int[graph.vertexCount()];
+        shortestPathTreeSet = new boolean[graph.vertexCount()];
+        parentNodes = new int[graph.vertexCount()];
+        queue = new IndexedMinHeap(graph.vertexCount());
+        Arrays.fill(shortestDistances, BIG_INT);
+        Arrays.fill(parentNodes, -1);
+    }
+
+    @Override
+    public void start(int source) {
+        initialNode = source;
+        shortestDistances[source] = 0;
+        for (int v = 0; v < shortestDistances.length; ++v) {
+            queue.insert(v, shortestDistances[v]);
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return settledCount == shortestDistances.length;
+    }
+
+    @Override
+    public void step(AlgorithmSink sink) {
+        int node = queue.poll();
+        shortestPathTreeSet[node] = true;
+        ++settledCount;
+        sink.vertexUpdated(node, ElementState.ACTIVE);
+
+        for (int arc = graph.firstArc(node); arc < graph.endArc(node); ++arc) {
+            int v = graph.target(arc);
+            if (shortestPathTreeSet[v]) {
+                continue;
+            }
+
+            sink.vertexUpdated(v, ElementState.QUEUED);
+            int distance = graph.weight(arc) + shortestDistances[node];
+            if (queue.decreaseKey(v, distance)) {
+                shortestDistances[v] = distance;
+                parentNodes[v] = node;
+            }
+        }
+    }
+
+    public int getDistance(int v) {
+        return shortestDistances[v];
+    }
+
+    @Override
+    public int[] getParents() {
+        return parentNodes.clone();
+    }
+
+    @Override
+    public int[] getDistances() {
+        return shortestDistances.clone();
+    }
+
+    @Override
+    public String getResult(IntFunction<String> labels) {
+        return "Dijkstra : " + IntStream.range(0, shortestDistances.length)
+                .filter(v -> v != initialNode)
+                .mapToObj(v -> labels.apply(v) + "=" + shortestDistances[v])
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+}
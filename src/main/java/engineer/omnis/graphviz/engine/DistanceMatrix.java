@@ -0,0 +1,60 @@
+package engineer.omnis.graphviz.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+import static engineer.omnis.graphviz.Utility.BIG_INT;
+
+// Row-major vertexCount x vertexCount matrix of shortest distances, BIG_INT marking unreachable pairs.
+// Either wraps an int[] or lives in a direct buffer outside the Java heap
+public final class DistanceMatrix {
+    private final int vertexCount;
+    private final IntBuffer distances;
+
+    private DistanceMatrix(int vertexCount, IntBuffer distances) {
+        this.vertexCount = vertexCount;
+        this.distances = distances;
+    }
+
+    static DistanceMatrix wrap(int vertexCount, int[] distances) {
+        return new DistanceMatrix(vertexCount, IntBuffer.wrap(distances));
+    }
+
+    static DistanceMatrix allocate(int vertexCount, boolean offHeap) {
+        long cells = (long) vertexCount * vertexCount;
+        if (cells * Integer.BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many vertices for a distance matrix: " + vertexCount);
+        }
+
+        IntBuffer distances = offHeap
+                ? ByteBuffer.allocateDirect((int) cells * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer()
+                : IntBuffer.allocate((int) cells);
+        return new DistanceMatrix(vertexCount, distances);
+    }
+
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    public boolean isOffHeap() {
+        return distances.isDirect();
+    }
+
+    public int get(int from, int to) {
+        return distances.get(from * vertexCount + to);
+    }
+
+    public boolean isReachable(int from, int to) {
+        return get(from, to) < BIG_INT;
+    }
+
+    // Read-only view of the distances from one vertex
+    public IntBuffer row(int from) {
+        return distances.slice(from * vertexCount, vertexCount).asReadOnlyBuffer();
+    }
+
+    void putRow(int from, int[] rowDistances) {
+        distances.put(from * vertexCount, rowDistances, 0, vertexCount);
+    }
+}
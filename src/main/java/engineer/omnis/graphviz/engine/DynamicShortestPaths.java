@@ -0,0 +1,257 @@
+package engineer.omnis.graphviz.engine;
+
+import engineer.omnis.graphviz.CompactGraph;
+import engineer.omnis.graphviz.GraphModel;
+import engineer.omnis.graphviz.GraphModelListener;
+import engineer.omnis.graphviz.GraphSnapshot;
+import engineer.omnis.graphviz.GraphView;
+import engineer.omnis.graphviz.SearchTree;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static engineer.omnis.graphviz.Utility.BIG_INT;
+
+// Shortest-path tree from one source that follows the edits of a GraphModel, in the spirit of Ramalingam and Reps.
+// An inserted edge only propagates the distances it lowers. A deleted tree edge only recomputes the subtree that
+// hung from it: those vertices are seeded from their predecessors outside the subtree and settled with Dijkstra.
+// Deletions look up predecessors, which is cheap with AdjacencyMode.INDEXED and a full scan otherwise.
+// Edge weights must stay non-negative; a negative one, a cleared graph or a removed source invalidate the tree
+public final class DynamicShortestPaths<V, E> implements GraphModelListener<V, E> {
+    private final GraphModel<V, E> model;
+    private final ToIntFunction<E> weightFunction;
+    private final V source;
+    private final long snapshotVersion;
+    // Vertices missing from these maps are unreachable
+    private final Map<V, Integer> distances = new HashMap<>();
+    private final Map<V, V> parents = new HashMap<>();
+    private final Map<V, Set<V>> children = new HashMap<>();
+    private final PriorityQueue<QueuedVertex<V>> queue = new PriorityQueue<>(Comparator.comparingInt(QueuedVertex::distance));
+    private boolean valid = true;
+
+    // Follows the model right away, so it has to be called where the model is edited
+    public DynamicShortestPaths(GraphModel<V, E> model, ToIntFunction<E> weightFunction, V source) {
+        this(model, model.snapshot(), weightFunction, source);
+        follow();
+    }
+
+    // The initial tree is computed on the snapshot, so this is safe off the EDT. It doesn't follow the model
+    // until follow() is called
+    public DynamicShortestPaths(GraphModel<V, E> model, GraphSnapshot<V, E> snapshot, ToIntFunction<E> weightFunction,
+                                V source) {
+        if (!snapshot.getVertices().contains(source)) {
+            throw new IllegalArgumentException("Source vertex is not part of the graph");
+        }
+        for (V v : snapshot.getVertices()) {
+            for (var neighbor : snapshot.getNeighbors(v)) {
+                if (weightFunction.applyAsInt(neighbor.getValue()) < 0) {
+                    throw new IllegalArgumentException("Dynamic shortest paths require non-negative edge weights");
+                }
+            }
+        }
+
+        this.model = model;
+        this.weightFunction = weightFunction;
+        this.source = source;
+        snapshotVersion = snapshot.getVersion();
+
+        distances.put(source, 0);
+        queue.add(new QueuedVertex<>(source, 0));
+        propagate(snapshot);
+    }
+
+    // Starts following the model's edits. Has to be called on the thread that edits the model, usually the EDT, so
+    // no edit can come between the version check and the registration, and after the thread that computed the tree
+    // is done with it. If the model has moved on since the snapshot was taken, the missed edits can't be replayed
+    // and the tree is invalid from then on
+    public void follow() {
+        if (snapshotVersion == model.getVersion()) {
+            model.addListener(this);
+        } else {
+            invalidate();
+        }
+    }
+
+    public V getSource() {
+        return source;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public void detach() {
+        model.removeListener(this);
+    }
+
+    public int getDistance(V v) {
+        return distances.getOrDefault(v, BIG_INT);
+    }
+
+    public Optional<V> getParent(V v) {
+        return Optional.ofNullable(parents.get(v));
+    }
+
+    // Vertices from the source to v, empty if v is unreachable
+    public List<V> pathTo(V v) {
+        if (!distances.containsKey(v)) {
+            return List.of();
+        }
+
+        List<V> path = new ArrayList<>();
+        for (V u = v; u != null; u = parents.get(u)) {
+            path.add(u);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    // The current tree over a snapshot of the model, with a result in the format of DijkstraShortestPaths
+    public SearchTree<V, E> toSearchTree(CompactGraph<V, E> graph, Function<V, String> labeler) {
+        int[] treeParents = new int[graph.vertexCount()];
+        int[] treeDistances = new int[graph.vertexCount()];
+        for (int v = 0; v < graph.vertexCount(); ++v) {
+            V parent = parents.get(graph.vertex(v));
+            treeParents[v] = parent == null ? -1 : graph.indexOf(parent);
+            treeDistances[v] = getDistance(graph.vertex(v));
+        }
+
+        int root = graph.indexOf(source);
+        String result = "Dijkstra : " + IntStream.range(0, graph.vertexCount())
+                .filter(v -> v != root)
+                .mapToObj(v -> labeler.apply(graph.vertex(v)) + "=" + treeDistances[v])
+                .sorted()
+                .collect(Collectors.joining(", "));
+        return new SearchTree<>(graph, root, treeParents, treeDistances, result);
+    }
+
+    @Override
+    public void edgeAdded(V from, V to, E edge) {
+        if (!valid) {
+            return;
+        }
+
+        int weight = weightFunction.applyAsInt(edge);
+        if (weight < 0) {
+            invalidate();
+            return;
+        }
+
+        Integer fromDistance = distances.get(from);
+        if (fromDistance != null && fromDistance + weight < getDistance(to)) {
+            attach(to, from, fromDistance + weight);
+            propagate(model);
+        }
+    }
+
+    @Override
+    public void edgeRemoved(V from, V to, E edge) {
+        if (!valid || !from.equals(parents.get(to))) {
+            return;
+        }
+
+        List<V> affected = new ArrayList<>();
+        collectSubtree(to, affected);
+        for (V v : affected) {
+            detachFromParent(v);
+            distances.remove(v);
+            children.remove(v);
+        }
+
+        // Distances outside the subtree are still exact, so every affected vertex can start from its best outside predecessor
+        for (V v : affected) {
+            if (!model.getVertices().contains(v)) {
+                continue;
+            }
+
+            for (V predecessor : model.getPredecessors(v)) {
+                Integer predecessorDistance = distances.get(predecessor);
+                if (predecessorDistance == null) {
+                    continue;
+                }
+
+                int distance = predecessorDistance + weightFunction.applyAsInt(model.getEdgeBetween(predecessor, v).orElseThrow());
+                if (distance < getDistance(v)) {
+                    attach(v, predecessor, distance);
+                }
+            }
+        }
+        propagate(model);
+    }
+
+    @Override
+    public void vertexRemoved(V v) {
+        if (v.equals(source)) {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void graphCleared() {
+        invalidate();
+    }
+
+    private void invalidate() {
+        valid = false;
+        distances.clear();
+        parents.clear();
+        children.clear();
+        queue.clear();
+        detach();
+    }
+
+    private void collectSubtree(V root, List<V> subtree) {
+        subtree.add(root);
+        for (int i = subtree.size() - 1; i < subtree.size(); ++i) {
+            subtree.addAll(children.getOrDefault(subtree.get(i), Set.of()));
+        }
+    }
+
+    private void attach(V v, V parent, int distance) {
+        detachFromParent(v);
+        parents.put(v, parent);
+        children.computeIfAbsent(parent, k -> new HashSet<>()).add(v);
+        distances.put(v, distance);
+        queue.add(new QueuedVertex<>(v, distance));
+    }
+
+    private void detachFromParent(V v) {
+        V parent = parents.remove(v);
+        Set<V> siblings = parent == null ? null : children.get(parent);
+        if (siblings != null) {
+            siblings.remove(v);
+        }
+    }
+
+    // Dijkstra from whatever is queued, with stale queue entries skipped
+    private void propagate(GraphView<V, E> graph) {
+        while (!queue.isEmpty()) {
+            QueuedVertex<V> next = queue.poll();
+            if (next.distance() != getDistance(next.vertex())) {
+                continue;
+            }
+
+            for (var neighbor : graph.getNeighbors(next.vertex())) {
+                int distance = next.distance() + weightFunction.applyAsInt(neighbor.getValue());
+                if (distance < getDistance(neighbor.getKey())) {
+                    attach(neighbor.getKey(), next.vertex(), distance);
+                }
+            }
+        }
+    }
+
+    private record QueuedVertex<V>(V vertex, int distance) {
+    }
+}
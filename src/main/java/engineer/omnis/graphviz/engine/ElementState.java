@@ -0,0 +1,9 @@
+package engineer.omnis.graphviz.engine;
+
+// What an algorithm step did to a vertex or an arc. Sinks decide what it looks like
+public enum ElementState {
+    ACTIVE,
+    QUEUED,
+    PARENT,
+    TREE_EDGE
+}
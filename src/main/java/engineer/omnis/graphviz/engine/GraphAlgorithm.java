@@ -0,0 +1,14 @@
+package engineer.omnis.graphviz.engine;
+
+import java.util.function.IntFunction;
+
+// Step-wise algorithm over a CompactGraph. Implementations are not thread-safe and are meant to be run once
+public interface GraphAlgorithm {
+    void start(int source);
+
+    boolean isFinished();
+
+    void step(AlgorithmSink sink);
+
+    String getResult(IntFunction<String> labels);
+}
@@ -0,0 +1,142 @@
+package engineer.omnis.graphviz.engine;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+// 4-ary min-heap over the ints [0, capacity) with primitive int keys and decrease-key.
+// Every element occupies at most one slot, so the heap never grows past its capacity.
+// Equal keys are ordered by element, which keeps runs deterministic
+public final class IndexedMinHeap {
+    private static final int ARITY = 4;
+    private final int[] heap;
+    private final int[] positions;
+    private final int[] keys;
+    private int size = 0;
+
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int element) {
+        return positions[element] != -1;
+    }
+
+    public int getKey(int element) {
+        return keys[element];
+    }
+
+    public void insert(int element, int key) {
+        if (contains(element)) {
+            throw new IllegalArgumentException("Element " + element + " is already in the heap");
+        }
+
+        keys[element] = key;
+        heap[size] = element;
+        positions[element] = size;
+        siftUp(size++);
+    }
+
+    // Returns false if the element already has a key that is not greater than the given one
+    public boolean decreaseKey(int element, int key) {
+        if (key >= keys[element]) {
+            return false;
+        }
+
+        keys[element] = key;
+        siftUp(positions[element]);
+        return true;
+    }
+
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return heap[0];
+    }
+
+    public int poll() {
+        int min = peek();
+        positions[min] = -1;
+
+        if (--size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+
+        return min;
+    }
+
+    // Only touches the remaining elements, so a reused heap costs O(size) to reset, not O(capacity)
+    public void clear() {
+        for (int i = 0; i < size; ++i) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        int element = heap[position];
+
+        while (position > 0) {
+            int parentPosition = (position - 1) / ARITY;
+            int parent = heap[parentPosition];
+            if (!less(element, parent)) {
+                break;
+            }
+
+            heap[position] = parent;
+            positions[parent] = position;
+            position = parentPosition;
+        }
+
+        heap[position] = element;
+        positions[element] = position;
+    }
+
+    private void siftDown(int position) {
+        int element = heap[position];
+
+        while (true) {
+            int firstChild = position * ARITY + 1;
+            if (firstChild >= size) {
+                break;
+            }
+
+            int minChildPosition = firstChild;
+            int lastChild = Math.min(firstChild + ARITY, size);
+            for (int child = firstChild + 1; child < lastChild; ++child) {
+                if (less(heap[child], heap[minChildPosition])) {
+                    minChildPosition = child;
+                }
+            }
+
+            int minChild = heap[minChildPosition];
+            if (!less(minChild, element)) {
+                break;
+            }
+
+            heap[position] = minChild;
+            positions[minChild] = position;
+            position = minChildPosition;
+        }
+
+        heap[position] = element;
+        positions[element] = position;
+    }
+
+    private boolean less(int first, int second) {
+        return keys[first] < keys[second] || keys[first] == keys[second] && first < second;
+    }
+}
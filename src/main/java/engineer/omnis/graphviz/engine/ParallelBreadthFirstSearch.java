@@ -0,0 +1,186 @@
+package engineer.omnis.graphviz.engine;
+
+import engineer.omnis.graphviz.CompactGraph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+// Level-synchronous BFS where every step expands a whole level on a ForkJoinPool.
+// Small frontiers are expanded top-down (frontier -> unvisited neighbors, claiming vertices with CAS on a bitmap),
+// large ones bottom-up (every unvisited vertex looks for a parent in the frontier), as proposed by Beamer et al.
+// Levels are reported in vertex index order, so the visit order matches BFS only up to the order within a level
+public class ParallelBreadthFirstSearch implements GraphAlgorithm {
+    // Switch to bottom-up once the frontier's arcs exceed 1/ALPHA of the unexplored ones,
+    // and back to top-down once the frontier shrinks below 1/BETA of all vertices
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+    private static final int GRAIN = 1024;
+    private static final int WORD_SHIFT = 6;
+    private final CompactGraph<?, ?> graph;
+    private final ChunkRunner chunkRunner;
+    private final int vertexCount;
+    private final AtomicLongArray visited;
+    private final long[] frontierBits;
+    private final int[] visitOrder;
+    private CompactGraph<?, ?> incoming = null;
+    private int[] frontier;
+    private int[] nextFrontier;
+    private int frontierSize = 0;
+    private int visitedCount = 0;
+    private long frontierArcs = 0;
+    private long unexploredArcs;
+    private boolean bottomUp = false;
+
+    public ParallelBreadthFirstSearch(CompactGraph<?, ?> graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    public ParallelBreadthFirstSearch(CompactGraph<?, ?> graph, ForkJoinPool pool) {
+        this.graph = graph;
+        chunkRunner = new ChunkRunner(pool, GRAIN);
+        vertexCount = graph.vertexCount();
+        int words = (vertexCount + Long.SIZE - 1) >>> WORD_SHIFT;
+        visited = new AtomicLongArray(words);
+        frontierBits = new long[words];
+        visitOrder = new int[vertexCount];
+        frontier = new int[vertexCount];
+        nextFrontier = new int[vertexCount];
+        unexploredArcs = graph.arcCount();
+    }
+
+    @Override
+    public void start(int source) {
+        claim(source);
+        frontier[frontierSize++] = source;
+        frontierArcs = graph.degree(source);
+        unexploredArcs -= frontierArcs;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return frontierSize == 0;
+    }
+
+    @Override
+    public void step(AlgorithmSink sink) {
+        for (int i = 0; i < frontierSize; ++i) {
+            sink.vertexUpdated(frontier[i], ElementState.ACTIVE);
+            visitOrder[visitedCount++] = frontier[i];
+        }
+
+        if (bottomUp) {
+            bottomUp = frontierSize >= vertexCount / BETA;
+        } else {
+            bottomUp = frontierArcs > unexploredArcs / ALPHA;
+        }
+
+        int chunks = bottomUp ? expandBottomUp() : expandTopDown();
+        int nextSize = chunkRunner.gather(chunks, nextFrontier);
+        if (!bottomUp && nextSize > 1) {
+            Arrays.parallelSort(nextFrontier, 0, nextSize);
+        }
+
+        int[] swap = frontier;
+        frontier = nextFrontier;
+        nextFrontier = swap;
+        frontierSize = nextSize;
+
+        frontierArcs = 0;
+        for (int i = 0; i < frontierSize; ++i) {
+            sink.vertexUpdated(frontier[i], ElementState.QUEUED);
+            frontierArcs += graph.degree(frontier[i]);
+        }
+        unexploredArcs -= frontierArcs;
+    }
+
+    private int expandTopDown() {
+        int chunks = chunkRunner.chunkCount(frontierSize);
+        int chunkLength = (frontierSize + chunks - 1) / chunks;
+
+        chunkRunner.run(chunks, chunk -> {
+            int from = chunk * chunkLength;
+            int to = Math.min(frontierSize, from + chunkLength);
+            for (int i = from; i < to; ++i) {
+                int v = frontier[i];
+                for (int arc = graph.firstArc(v); arc < graph.endArc(v); ++arc) {
+                    int neighbor = graph.target(arc);
+                    if (claim(neighbor)) {
+                        chunkRunner.append(chunk, neighbor);
+                    }
+                }
+            }
+        });
+
+        return chunks;
+    }
+
+    private int expandBottomUp() {
+        if (incoming == null) {
+            incoming = graph.transpose();
+        }
+
+        Arrays.fill(frontierBits, 0L);
+        for (int i = 0; i < frontierSize; ++i) {
+            frontierBits[frontier[i] >>> WORD_SHIFT] |= 1L << frontier[i];
+        }
+
+        // Chunks own whole bitmap words, so nobody else writes the visited words of a chunk during this phase
+        int words = frontierBits.length;
+        int chunks = chunkRunner.chunkCount(vertexCount);
+        int wordsPerChunk = (words + chunks - 1) / chunks;
+
+        chunkRunner.run(chunks, chunk -> {
+            int toWord = Math.min(words, (chunk + 1) * wordsPerChunk);
+            for (int word = chunk * wordsPerChunk; word < toWord; ++word) {
+                long found = 0L;
+                long unvisited = ~visited.get(word);
+
+                while (unvisited != 0) {
+                    int bit = Long.numberOfTrailingZeros(unvisited);
+                    unvisited &= unvisited - 1;
+                    int v = (word << WORD_SHIFT) + bit;
+                    if (v >= vertexCount) {
+                        break;
+                    }
+
+                    for (int arc = incoming.firstArc(v); arc < incoming.endArc(v); ++arc) {
+                        int parent = incoming.target(arc);
+                        if ((frontierBits[parent >>> WORD_SHIFT] & (1L << parent)) != 0) {
+                            found |= 1L << bit;
+                            chunkRunner.append(chunk, v);
+                            break;
+                        }
+                    }
+                }
+
+                if (found != 0) {
+                    visited.set(word, visited.get(word) | found);
+                }
+            }
+        });
+
+        return chunks;
+    }
+
+    private boolean claim(int v) {
+        int word = v >>> WORD_SHIFT;
+        long bit = 1L << v;
+        long current = visited.get(word);
+
+        while ((current & bit) == 0) {
+            if (visited.compareAndSet(word, current, current | bit)) {
+                return true;
+            }
+            current = visited.get(word);
+        }
+        return false;
+    }
+
+    @Override
+    public String getResult(IntFunction<String> labels) {
+        return "BFS : " + Arrays.stream(visitOrder, 0, visitedCount).mapToObj(labels).collect(Collectors.joining(" -> "));
+    }
+}
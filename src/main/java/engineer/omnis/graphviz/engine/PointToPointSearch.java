@@ -0,0 +1,68 @@
+package engineer.omnis.graphviz.engine;
+
+import engineer.omnis.graphviz.CompactGraph;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+import static engineer.omnis.graphviz.Utility.BIG_INT;
+
+// Shortest path query between two vertices that stops as soon as that single path is known,
+// instead of settling the whole graph. The last step reports the found path as TREE_EDGE arcs
+public abstract class PointToPointSearch implements GraphAlgorithm {
+    private final CompactGraph<?, ?> graph;
+    private final String name;
+    private int initialNode = -1;
+    private int targetNode = -1;
+
+    protected PointToPointSearch(String name, CompactGraph<?, ?> graph) {
+        for (int arc = 0; arc < graph.arcCount(); ++arc) {
+            if (graph.weight(arc) < 0) {
+                throw new IllegalArgumentException(name + " requires non-negative edge weights");
+            }
+        }
+
+        this.name = name;
+        this.graph = graph;
+    }
+
+    @Override
+    public final void start(int source) {
+        throw new IllegalArgumentException(name + " requires a target vertex");
+    }
+
+    public final void start(int source, int target) {
+        initialNode = source;
+        targetNode = target;
+        startSearch(source, target);
+    }
+
+    protected abstract void startSearch(int source, int target);
+
+    public abstract int getSettledCount();
+
+    // BIG_INT if the target is unreachable
+    public abstract int getDistance();
+
+    // Vertices from the source to the target, empty if the target is unreachable
+    public abstract int[] getPath();
+
+    protected final void reportPath(AlgorithmSink sink) {
+        int[] path = getPath();
+        for (int i = 1; i < path.length; ++i) {
+            sink.arcUpdated(graph.lightestArc(path[i - 1], path[i]), ElementState.TREE_EDGE);
+        }
+    }
+
+    @Override
+    public String getResult(IntFunction<String> labels) {
+        if (getDistance() >= BIG_INT) {
+            return name + " : " + labels.apply(targetNode) + " is unreachable from " + labels.apply(initialNode)
+                    + ", " + getSettledCount() + " settled";
+        }
+
+        return name + " : " + Arrays.stream(getPath()).mapToObj(labels).collect(Collectors.joining(" -> "))
+                + " = " + getDistance() + ", " + getSettledCount() + " settled";
+    }
+}
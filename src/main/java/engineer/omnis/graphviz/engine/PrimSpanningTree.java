@@ -0,0 +1,83 @@
+package engineer.omnis.graphviz.engine;
+
+import engineer.omnis.graphviz.CompactGraph;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Eager Prim: every vertex outside the tree has at most one queue slot keyed by its lightest known connecting edge,
+// so each step attaches exactly one vertex and memory stays O(V)
+public class PrimSpanningTree implements TreeAlgorithm {
+    private final CompactGraph<?, ?> graph;
+    private final IndexedMinHeap nextNodesQueue;
+    private final boolean[] mstVertices;
+    private final int[] parentNodes;
+    private final int[] parentArcs;
+
+    public PrimSpanningTree(CompactGraph<?, ?> graph) {
+        this.graph = graph;
+        nextNodesQueue = new IndexedMinHeap(graph.vertexCount());
+        mstVertices = new boolean[graph.vertexCount()];
+        parentNodes = new int[graph.vertexCount()];
+        parentArcs = new int[graph.vertexCount()];
+        Arrays.fill(parentNodes, -1);
+        Arrays.fill(parentArcs, -1);
+    }
+
+    @Override
+    public void start(int source) {
+        mstVertices[source] = true;
+        relaxNeighbors(source);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return nextNodesQueue.isEmpty();
+    }
+
+    @Override
+    public void step(AlgorithmSink sink) {
+        int node = nextNodesQueue.poll();
+
+        sink.vertexUpdated(parentNodes[node], ElementState.PARENT);
+        sink.vertexUpdated(node, ElementState.ACTIVE);
+        sink.arcUpdated(parentArcs[node], ElementState.TREE_EDGE);
+
+        mstVertices[node] = true;
+        relaxNeighbors(node);
+    }
+
+    private void relaxNeighbors(int node) {
+        for (int arc = graph.firstArc(node); arc < graph.endArc(node); ++arc) {
+            int neighbor = graph.target(arc);
+            if (mstVertices[neighbor]) {
+                continue;
+            }
+
+            int weight = graph.weight(arc);
+            if (!nextNodesQueue.contains(neighbor)) {
+                nextNodesQueue.insert(neighbor, weight);
+            } else if (!nextNodesQueue.decreaseKey(neighbor, weight)) {
+                continue;
+            }
+
+            parentNodes[neighbor] = node;
+            parentArcs[neighbor] = arc;
+        }
+    }
+
+    @Override
+    public int[] getParents() {
+        return parentNodes.clone();
+    }
+
+    @Override
+    public String getResult(IntFunction<String> labels) {
+        return "Prim : " + IntStream.range(0, parentNodes.length)
+                .filter(v -> mstVertices[v] && parentNodes[v] != -1)
+                .mapToObj(v -> labels.apply(v) + "=" + labels.apply(parentNodes[v]))
+                .sorted().collect(Collectors.joining(", "));
+    }
+}
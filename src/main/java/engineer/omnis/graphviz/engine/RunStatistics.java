@@ -0,0 +1,9 @@
+package engineer.omnis.graphviz.engine;
+
+public record RunStatistics(String result, long steps, long elapsedNanos) {
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    public double stepsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : steps * NANOS_PER_SECOND / elapsedNanos;
+    }
+}
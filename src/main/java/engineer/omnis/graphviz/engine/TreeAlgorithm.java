@@ -0,0 +1,12 @@
+package engineer.omnis.graphviz.engine;
+
+// GraphAlgorithm whose outcome is a tree rooted at the source, such as a shortest-path or a spanning tree
+public interface TreeAlgorithm extends GraphAlgorithm {
+    // The parent of every vertex, -1 for the root and for vertices outside the tree
+    int[] getParents();
+
+    // Distances from the root, or null if the tree doesn't describe distances
+    default int[] getDistances() {
+        return null;
+    }
+}
@@ -0,0 +1,83 @@
+package engineer.omnis.graphviz.generators;
+
+import java.util.SplittableRandom;
+
+// Preferential attachment: starts from a clique of edgesPerVertex + 1 vertices, then every new vertex connects to
+// edgesPerVertex distinct existing ones, chosen with probability proportional to their degree.
+// Sampling a uniform entry of the list of all edge endpoints so far gives exactly that distribution in O(1)
+public final class BarabasiAlbertGenerator implements GraphGenerator {
+    private final int vertexCount;
+    private final int edgesPerVertex;
+    private final int maxWeight;
+    private final long seed;
+
+    public BarabasiAlbertGenerator(int vertexCount, int edgesPerVertex, int maxWeight, long seed) {
+        if (edgesPerVertex < 1 || vertexCount <= edgesPerVertex || maxWeight < 1) {
+            throw new IllegalArgumentException("Expected 1 <= m < n and a positive maximum weight");
+        }
+
+        this.vertexCount = vertexCount;
+        this.edgesPerVertex = edgesPerVertex;
+        this.maxWeight = maxWeight;
+        this.seed = seed;
+        if (2 * edgeCount() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many edges for a single endpoint list");
+        }
+    }
+
+    @Override
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    // The clique, then edgesPerVertex edges for every other vertex
+    @Override
+    public long edgeCount() {
+        long m = edgesPerVertex;
+        return m * (m + 1) / 2 + (vertexCount - m - 1) * m;
+    }
+
+    @Override
+    public void generate(GeneratorSink sink) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int v = 0; v < vertexCount; ++v) {
+            sink.vertexGenerated(v, random.nextDouble(), random.nextDouble());
+        }
+
+        int[] endpoints = new int[(int) (2 * edgeCount())];
+        int endpointCount = 0;
+        for (int v = 0; v <= edgesPerVertex; ++v) {
+            for (int u = 0; u < v; ++u) {
+                sink.edgeGenerated(v, u, 1 + random.nextInt(maxWeight));
+                endpoints[endpointCount++] = v;
+                endpoints[endpointCount++] = u;
+            }
+        }
+
+        int[] chosen = new int[edgesPerVertex];
+        for (int v = edgesPerVertex + 1; v < vertexCount; ++v) {
+            // Endpoints added for v itself only become visible to the next vertex
+            int visibleEndpoints = endpointCount;
+            for (int i = 0; i < edgesPerVertex; ++i) {
+                int target;
+                do {
+                    target = endpoints[random.nextInt(visibleEndpoints)];
+                } while (contains(chosen, i, target));
+                chosen[i] = target;
+
+                sink.edgeGenerated(v, target, 1 + random.nextInt(maxWeight));
+                endpoints[endpointCount++] = v;
+                endpoints[endpointCount++] = target;
+            }
+        }
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; ++i) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,71 @@
+package engineer.omnis.graphviz.generators;
+
+import engineer.omnis.graphviz.CompactGraph;
+
+import java.util.Arrays;
+
+// Collects a generated graph straight into CSR arrays with both directions of every edge, the headless way to get
+// graphs with millions of vertices: memory is a few ints per arc, and no vertex or edge objects are created
+public final class CompactGraphSink implements GeneratorSink {
+    private static final int INITIAL_EDGE_CAPACITY = 1024;
+    private final double[] xs;
+    private final double[] ys;
+    private int[] edgeEnds = new int[2 * INITIAL_EDGE_CAPACITY];
+    private int[] edgeWeights = new int[INITIAL_EDGE_CAPACITY];
+    private int edgeCount = 0;
+
+    public CompactGraphSink(int vertexCount) {
+        xs = new double[vertexCount];
+        ys = new double[vertexCount];
+    }
+
+    public static CompactGraph<Integer, Void> generate(GraphGenerator generator) {
+        CompactGraphSink sink = new CompactGraphSink(generator.vertexCount());
+        generator.generate(sink);
+        return sink.build();
+    }
+
+    @Override
+    public void vertexGenerated(int v, double x, double y) {
+        xs[v] = x;
+        ys[v] = y;
+    }
+
+    @Override
+    public void edgeGenerated(int from, int to, int weight) {
+        if (edgeCount == edgeWeights.length) {
+            edgeEnds = Arrays.copyOf(edgeEnds, 2 * edgeEnds.length);
+            edgeWeights = Arrays.copyOf(edgeWeights, 2 * edgeWeights.length);
+        }
+
+        edgeEnds[2 * edgeCount] = from;
+        edgeEnds[2 * edgeCount + 1] = to;
+        edgeWeights[edgeCount] = weight;
+        ++edgeCount;
+    }
+
+    public CompactGraph<Integer, Void> build() {
+        int vertexCount = xs.length;
+        int[] offsets = new int[vertexCount + 1];
+        for (int i = 0; i < 2 * edgeCount; ++i) {
+            ++offsets[edgeEnds[i] + 1];
+        }
+        for (int v = 0; v < vertexCount; ++v) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        int[] next = Arrays.copyOf(offsets, vertexCount);
+        int[] targets = new int[2 * edgeCount];
+        int[] weights = new int[2 * edgeCount];
+        for (int e = 0; e < edgeCount; ++e) {
+            int from = edgeEnds[2 * e];
+            int to = edgeEnds[2 * e + 1];
+            targets[next[from]] = to;
+            weights[next[from]++] = edgeWeights[e];
+            targets[next[to]] = from;
+            weights[next[to]++] = edgeWeights[e];
+        }
+
+        return CompactGraph.fromArrays(offsets, targets, weights).withPositions(xs, ys);
+    }
+}
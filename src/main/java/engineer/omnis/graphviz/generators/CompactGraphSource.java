@@ -0,0 +1,114 @@
+package engineer.omnis.graphviz.generators;
+
+import engineer.omnis.graphviz.CompactGraph;
+
+import java.util.SplittableRandom;
+
+// Streams an existing CompactGraph, e.g. an imported one, as an undirected graph. Arcs in both directions and
+// parallel arcs collapse into one edge with the weight of the lightest of them, and self-loops are dropped.
+// Positions are scaled into the unit square, and graphs without positions get random ones
+public final class CompactGraphSource implements GraphGenerator {
+    private static final double CENTER = 0.5;
+    private final CompactGraph<?, ?> graph;
+    private final long seed;
+
+    public CompactGraphSource(CompactGraph<?, ?> graph, long seed) {
+        this.graph = graph;
+        this.seed = seed;
+    }
+
+    @Override
+    public int vertexCount() {
+        return graph.vertexCount();
+    }
+
+    @Override
+    public void generate(GeneratorSink sink) {
+        generateVertices(sink);
+        generateEdges(graph, sink);
+    }
+
+    // Only the edges, for callers that place the vertices themselves.
+    // With every vertex's arcs sorted by target, parallel arcs are runs of equal targets, so one sweep finds the
+    // lightest arc to each neighbor, and the arcs back are found by binary search
+    public static void generateEdges(CompactGraph<?, ?> graph, GeneratorSink sink) {
+        CompactGraph<?, ?> sorted = graph.sortedByTarget();
+        for (int v = 0; v < sorted.vertexCount(); ++v) {
+            int arc = sorted.firstArc(v);
+            while (arc < sorted.endArc(v)) {
+                int u = sorted.target(arc);
+                int runEnd = endOfRun(sorted, arc, sorted.endArc(v));
+                if (u != v) {
+                    int reverseArc = firstArcTo(sorted, u, v);
+                    if (reverseArc == -1) {
+                        sink.edgeGenerated(v, u, lightestWeight(sorted, arc, runEnd));
+                    } else if (v < u) {
+                        int reverseWeight = lightestWeight(sorted, reverseArc, endOfRun(sorted, reverseArc, sorted.endArc(u)));
+                        sink.edgeGenerated(v, u, Math.min(lightestWeight(sorted, arc, runEnd), reverseWeight));
+                    }
+                }
+                arc = runEnd;
+            }
+        }
+    }
+
+    private static int endOfRun(CompactGraph<?, ?> graph, int arc, int end) {
+        int runEnd = arc + 1;
+        while (runEnd < end && graph.target(runEnd) == graph.target(arc)) {
+            ++runEnd;
+        }
+        return runEnd;
+    }
+
+    private static int lightestWeight(CompactGraph<?, ?> graph, int first, int end) {
+        int lightest = graph.weight(first);
+        for (int arc = first + 1; arc < end; ++arc) {
+            lightest = Math.min(lightest, graph.weight(arc));
+        }
+        return lightest;
+    }
+
+    // The first of the arcs from one vertex to another, or -1 if they aren't adjacent
+    private static int firstArcTo(CompactGraph<?, ?> graph, int from, int to) {
+        int low = graph.firstArc(from);
+        int high = graph.endArc(from);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (graph.target(middle) < to) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low < graph.endArc(from) && graph.target(low) == to ? low : -1;
+    }
+
+    private void generateVertices(GeneratorSink sink) {
+        if (!graph.hasPositions()) {
+            SplittableRandom random = new SplittableRandom(seed);
+            for (int v = 0; v < graph.vertexCount(); ++v) {
+                sink.vertexGenerated(v, random.nextDouble(), random.nextDouble());
+            }
+            return;
+        }
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int v = 0; v < graph.vertexCount(); ++v) {
+            minX = Math.min(minX, graph.x(v));
+            minY = Math.min(minY, graph.y(v));
+            maxX = Math.max(maxX, graph.x(v));
+            maxY = Math.max(maxY, graph.y(v));
+        }
+
+        for (int v = 0; v < graph.vertexCount(); ++v) {
+            sink.vertexGenerated(v, scale(graph.x(v), minX, maxX), scale(graph.y(v), minY, maxY));
+        }
+    }
+
+    private static double scale(double value, double min, double max) {
+        return max > min ? (value - min) / (max - min) : CENTER;
+    }
+}
@@ -0,0 +1,61 @@
+package engineer.omnis.graphviz.generators;
+
+import java.util.SplittableRandom;
+
+// G(n, p): every pair of vertices is connected independently with probability p.
+// Instead of flipping a coin per pair, the gap to the next edge is drawn from the geometric distribution
+// (Batagelj and Brandes), so generating takes O(n + m) no matter how sparse the graph is
+public final class ErdosRenyiGenerator implements GraphGenerator {
+    private final int vertexCount;
+    private final double probability;
+    private final int maxWeight;
+    private final long seed;
+
+    public ErdosRenyiGenerator(int vertexCount, double probability, int maxWeight, long seed) {
+        if (vertexCount < 0 || !(probability >= 0 && probability <= 1) || maxWeight < 1) {
+            throw new IllegalArgumentException("Expected n >= 0, 0 <= p <= 1 and a positive maximum weight");
+        }
+
+        this.vertexCount = vertexCount;
+        this.probability = probability;
+        this.maxWeight = maxWeight;
+        this.seed = seed;
+    }
+
+    // p for the given expected degree
+    public static ErdosRenyiGenerator withAverageDegree(int vertexCount, double averageDegree, int maxWeight, long seed) {
+        double probability = vertexCount < 2 ? 0 : Math.min(1, averageDegree / (vertexCount - 1));
+        return new ErdosRenyiGenerator(vertexCount, probability, maxWeight, seed);
+    }
+
+    @Override
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    @Override
+    public void generate(GeneratorSink sink) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int v = 0; v < vertexCount; ++v) {
+            sink.vertexGenerated(v, random.nextDouble(), random.nextDouble());
+        }
+        if (probability == 0) {
+            return;
+        }
+
+        // Walks the pairs (v, w) with w < v in order, skipping the ones without an edge
+        double logMiss = Math.log(1 - probability);
+        long v = 1;
+        long w = -1;
+        while (v < vertexCount) {
+            w += 1 + (probability == 1 ? 0 : (long) Math.floor(Math.log(1 - random.nextDouble()) / logMiss));
+            while (w >= v && v < vertexCount) {
+                w -= v;
+                ++v;
+            }
+            if (v < vertexCount) {
+                sink.edgeGenerated((int) v, (int) w, 1 + random.nextInt(maxWeight));
+            }
+        }
+    }
+}
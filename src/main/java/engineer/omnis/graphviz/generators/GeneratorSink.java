@@ -0,0 +1,7 @@
+package engineer.omnis.graphviz.generators;
+
+public interface GeneratorSink {
+    void vertexGenerated(int v, double x, double y);
+
+    void edgeGenerated(int from, int to, int weight);
+}
@@ -0,0 +1,15 @@
+package engineer.omnis.graphviz.generators;
+
+// Streams a synthetic undirected graph into a sink without materializing it first.
+// Vertices come first, numbered 0 to vertexCount() - 1 in order and placed in the unit square.
+// Every edge is reported once with from != to, and no edge is reported twice
+public interface GraphGenerator {
+    int vertexCount();
+
+    // How many edges generate() reports, if that's known before generating, -1 otherwise
+    default long edgeCount() {
+        return -1;
+    }
+
+    void generate(GeneratorSink sink);
+}
@@ -0,0 +1,50 @@
+package engineer.omnis.graphviz.generators;
+
+import java.util.SplittableRandom;
+
+// rows x columns lattice where every vertex is connected to its right and lower neighbors
+public final class GridGenerator implements GraphGenerator {
+    private final int rows;
+    private final int columns;
+    private final int maxWeight;
+    private final long seed;
+
+    public GridGenerator(int rows, int columns, int maxWeight, long seed) {
+        if (rows < 1 || columns < 1 || (long) rows * columns > Integer.MAX_VALUE || maxWeight < 1) {
+            throw new IllegalArgumentException("Expected positive grid dimensions and a positive maximum weight");
+        }
+
+        this.rows = rows;
+        this.columns = columns;
+        this.maxWeight = maxWeight;
+        this.seed = seed;
+    }
+
+    @Override
+    public int vertexCount() {
+        return rows * columns;
+    }
+
+    @Override
+    @SuppressWarnings("checkstyle:magicnumber")
+    public void generate(GeneratorSink sink) {
+        for (int row = 0; row < rows; ++row) {
+            for (int column = 0; column < columns; ++column) {
+                sink.vertexGenerated(row * columns + column, (column + 0.5) / columns, (row + 0.5) / rows);
+            }
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int row = 0; row < rows; ++row) {
+            for (int column = 0; column < columns; ++column) {
+                int v = row * columns + column;
+                if (column + 1 < columns) {
+                    sink.edgeGenerated(v, v + 1, 1 + random.nextInt(maxWeight));
+                }
+                if (row + 1 < rows) {
+                    sink.edgeGenerated(v, v + columns, 1 + random.nextInt(maxWeight));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package engineer.omnis.graphviz.generators;
+
+import java.util.SplittableRandom;
+
+// Uniform points in the unit square, connected whenever they are at most radius apart.
+// Points are bucketed into square cells no smaller than the radius, so only the 3x3 cells around a point have to be
+// checked. Weights are the scaled Euclidean lengths, which makes these graphs a natural fit for A*
+public final class RandomGeometricGenerator implements GraphGenerator {
+    public static final int WEIGHT_SCALE = 1000;
+    private final int vertexCount;
+    private final double radius;
+    private final long seed;
+
+    public RandomGeometricGenerator(int vertexCount, double radius, long seed) {
+        if (vertexCount < 0 || !(radius > 0)) {
+            throw new IllegalArgumentException("Expected n >= 0 and a positive radius");
+        }
+
+        this.vertexCount = vertexCount;
+        this.radius = radius;
+        this.seed = seed;
+    }
+
+    // Radius for the given expected degree, ignoring the boundary of the square
+    public static RandomGeometricGenerator withAverageDegree(int vertexCount, double averageDegree, long seed) {
+        return new RandomGeometricGenerator(vertexCount, Math.sqrt(averageDegree / (Math.PI * Math.max(1, vertexCount))), seed);
+    }
+
+    @Override
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    @Override
+    public void generate(GeneratorSink sink) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] xs = new double[vertexCount];
+        double[] ys = new double[vertexCount];
+        for (int v = 0; v < vertexCount; ++v) {
+            xs[v] = random.nextDouble();
+            ys[v] = random.nextDouble();
+            sink.vertexGenerated(v, xs[v], ys[v]);
+        }
+
+        // At most about one cell per vertex, so the cell table never outgrows the points
+        int side = (int) Math.max(1, Math.min(Math.floor(1 / radius), Math.ceil(Math.sqrt(vertexCount))));
+        int[] cellStarts = new int[side * side + 1];
+        int[] cells = new int[vertexCount];
+        for (int v = 0; v < vertexCount; ++v) {
+            cells[v] = cell(xs[v], side) * side + cell(ys[v], side);
+            ++cellStarts[cells[v] + 1];
+        }
+        for (int c = 0; c < side * side; ++c) {
+            cellStarts[c + 1] += cellStarts[c];
+        }
+
+        // Coordinates are copied in cell order, so the scan below reads them almost sequentially
+        int[] next = cellStarts.clone();
+        int[] cellMembers = new int[vertexCount];
+        double[] cellXs = new double[vertexCount];
+        double[] cellYs = new double[vertexCount];
+        for (int v = 0; v < vertexCount; ++v) {
+            int i = next[cells[v]]++;
+            cellMembers[i] = v;
+            cellXs[i] = xs[v];
+            cellYs[i] = ys[v];
+        }
+
+        double radiusSquared = radius * radius;
+        for (int c = 0; c < side * side; ++c) {
+            int cellX = c / side;
+            int cellY = c % side;
+            for (int i = cellStarts[c]; i < cellStarts[c + 1]; ++i) {
+                for (int x = Math.max(0, cellX - 1); x <= Math.min(side - 1, cellX + 1); ++x) {
+                    int first = cellStarts[x * side + Math.max(0, cellY - 1)];
+                    int last = cellStarts[x * side + Math.min(side - 1, cellY + 1) + 1];
+                    // Neighboring cells in the same column are adjacent in cell order
+                    for (int j = first; j < last; ++j) {
+                        double dx = cellXs[j] - cellXs[i];
+                        double dy = cellYs[j] - cellYs[i];
+                        double distanceSquared = dx * dx + dy * dy;
+                        if (cellMembers[j] > cellMembers[i] && distanceSquared <= radiusSquared) {
+                            sink.edgeGenerated(cellMembers[i], cellMembers[j],
+                                    Math.max(1, (int) Math.round(Math.sqrt(distanceSquared) * WEIGHT_SCALE)));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static int cell(double coordinate, int side) {
+        return Math.min(side - 1, (int) (coordinate * side));
+    }
+}
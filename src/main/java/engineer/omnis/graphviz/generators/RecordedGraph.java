@@ -0,0 +1,70 @@
+package engineer.omnis.graphviz.generators;
+
+import java.util.Arrays;
+
+// What a generator streamed, kept in arrays and streamed again in the same order. Lets a graph be generated, and its
+// size be known, before anything is built from it
+public final class RecordedGraph implements GraphGenerator, GeneratorSink {
+    private static final int INITIAL_EDGE_CAPACITY = 1024;
+    private final double[] xs;
+    private final double[] ys;
+    private int[] edgeEnds = new int[2 * INITIAL_EDGE_CAPACITY];
+    private int[] edgeWeights = new int[INITIAL_EDGE_CAPACITY];
+    private final int maxEdgeCount;
+    private int edgeCount = 0;
+
+    private RecordedGraph(int vertexCount, int maxEdgeCount) {
+        xs = new double[vertexCount];
+        ys = new double[vertexCount];
+        this.maxEdgeCount = maxEdgeCount;
+    }
+
+    // Stops the generator as soon as it goes past the given number of edges, rather than keeping them all first
+    public static RecordedGraph record(GraphGenerator generator, int maxEdgeCount) {
+        RecordedGraph graph = new RecordedGraph(generator.vertexCount(), maxEdgeCount);
+        generator.generate(graph);
+        return graph;
+    }
+
+    @Override
+    public int vertexCount() {
+        return xs.length;
+    }
+
+    @Override
+    public long edgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public void vertexGenerated(int v, double x, double y) {
+        xs[v] = x;
+        ys[v] = y;
+    }
+
+    @Override
+    public void edgeGenerated(int from, int to, int weight) {
+        if (edgeCount == maxEdgeCount) {
+            throw new IllegalArgumentException("The graph has more than " + maxEdgeCount + " edges");
+        }
+        if (edgeCount == edgeWeights.length) {
+            edgeEnds = Arrays.copyOf(edgeEnds, 2 * edgeEnds.length);
+            edgeWeights = Arrays.copyOf(edgeWeights, 2 * edgeWeights.length);
+        }
+
+        edgeEnds[2 * edgeCount] = from;
+        edgeEnds[2 * edgeCount + 1] = to;
+        edgeWeights[edgeCount] = weight;
+        ++edgeCount;
+    }
+
+    @Override
+    public void generate(GeneratorSink sink) {
+        for (int v = 0; v < xs.length; ++v) {
+            sink.vertexGenerated(v, xs[v], ys[v]);
+        }
+        for (int e = 0; e < edgeCount; ++e) {
+            sink.edgeGenerated(edgeEnds[2 * e], edgeEnds[2 * e + 1], edgeWeights[e]);
+        }
+    }
+}
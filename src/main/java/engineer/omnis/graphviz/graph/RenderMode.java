@@ -0,0 +1,17 @@
+package engineer.omnis.graphviz.graph;
+
+public enum RenderMode {
+    COMPONENTS("Swing Components"),
+    CANVAS("Single Canvas");
+
+    private final String displayName;
+
+    RenderMode(String s) {
+        displayName = s;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,140 @@
+package engineer.omnis.graphviz.graph.components;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+// Keeps the CANVAS render mode rendered into an off-screen image, so repainting the graph mostly means copying it.
+// When elements change color only the small areas around them are rendered again, each one on its own, together
+// with whatever overlaps it and in the usual order. Swing would repaint the union of them all instead. Overlapping
+// areas are merged first, so nothing is rendered twice, and past a share of the view it's all rendered at once.
+// Anything else, like panning, zooming, loading or resizing, renders the whole view again. Panning can't just move
+// the pixels along, as Java2D rounds text to a pixel differently at different offsets.
+// Areas are rendered without a clip and then copied over: aliased lines come out a pixel off where a clip cuts them,
+// which would leave seams along the edges of every area
+final class CanvasImageCache {
+    // Past that many changes, or that share of the view changed, in one frame rendering everything at once is cheaper
+    private static final int MAX_DIRTY_AREAS = 512;
+    private static final double MAX_DIRTY_SHARE = 0.5;
+    private final GraphCanvas canvas;
+    private final Color background;
+    private final List<Rectangle> dirtyAreas = new ArrayList<>();
+    private BufferedImage image = null;
+    private BufferedImage scratch = null;
+    private double deviceScale = 1.0;
+    private boolean valid = false;
+    private boolean crowded = false;
+
+    CanvasImageCache(GraphCanvas canvas, Color background) {
+        this.canvas = canvas;
+        this.background = background;
+    }
+
+    void invalidate() {
+        valid = false;
+        dirtyAreas.clear();
+    }
+
+    // How the image was rendered, dirty areas only need to cover what it shows
+    boolean isCrowded() {
+        return crowded;
+    }
+
+    void invalidate(Rectangle area) {
+        if (!valid) {
+            return;
+        }
+        if (dirtyAreas.size() == MAX_DIRTY_AREAS) {
+            invalidate();
+            return;
+        }
+        dirtyAreas.add(area);
+    }
+
+    void paint(Graphics2D g2d, Dimension size, Viewport viewport) {
+        double scale = g2d.getTransform().getScaleX();
+        int imageWidth = (int) Math.ceil(size.width * scale);
+        int imageHeight = (int) Math.ceil(size.height * scale);
+        if (imageWidth <= 0 || imageHeight <= 0) {
+            return;
+        }
+        if (image == null || image.getWidth() != imageWidth || image.getHeight() != imageHeight
+                || scale != deviceScale) {
+            image = g2d.getDeviceConfiguration().createCompatibleImage(imageWidth, imageHeight);
+            scratch = g2d.getDeviceConfiguration().createCompatibleImage(imageWidth, imageHeight);
+            deviceScale = scale;
+            valid = false;
+        }
+
+        Rectangle view = new Rectangle(size);
+        List<Rectangle> visibleAreas = valid ? visibleDirtyAreas(view) : List.of();
+        if (visibleAreas.stream().mapToLong(CanvasImageCache::area).sum() > MAX_DIRTY_SHARE * area(view)) {
+            valid = false;
+        }
+        if (!valid) {
+            crowded = canvas.isCrowded(view, viewport);
+            render(image, view, viewport);
+            valid = true;
+        } else {
+            for (Rectangle visible : visibleAreas) {
+                render(scratch, visible, viewport);
+                copyFromScratch(visible);
+            }
+        }
+        dirtyAreas.clear();
+
+        g2d.drawImage(image, 0, 0, size.width, size.height, null);
+    }
+
+    // Areas are merged wherever their union is no bigger than both of them apart, which catches overlapping ones
+    // but keeps the pieces of a long diagonal edge apart
+    private List<Rectangle> visibleDirtyAreas(Rectangle view) {
+        List<Rectangle> merged = new ArrayList<>();
+        for (Rectangle area : dirtyAreas) {
+            Rectangle current = area.intersection(view);
+            if (current.isEmpty()) {
+                continue;
+            }
+
+            int i = 0;
+            while (i < merged.size()) {
+                Rectangle union = current.union(merged.get(i));
+                if (area(union) <= area(current) + area(merged.get(i))) {
+                    current = union;
+                    merged.set(i, merged.get(merged.size() - 1));
+                    merged.remove(merged.size() - 1);
+                    i = 0;
+                } else {
+                    ++i;
+                }
+            }
+            merged.add(current);
+        }
+        return merged;
+    }
+
+    private static long area(Rectangle rectangle) {
+        return (long) rectangle.width * rectangle.height;
+    }
+
+    // Only what reaches into the area is painted, anything outside of it is left incomplete
+    private void render(BufferedImage target, Rectangle area, Viewport viewport) {
+        Graphics2D g2d = target.createGraphics();
+        g2d.scale(deviceScale, deviceScale);
+        g2d.setColor(background);
+        g2d.fill(area);
+        canvas.paint(g2d, area, viewport, crowded);
+        g2d.dispose();
+    }
+
+    private void copyFromScratch(Rectangle area) {
+        int left = (int) Math.floor(area.x * deviceScale);
+        int top = (int) Math.floor(area.y * deviceScale);
+        int right = Math.min(image.getWidth(), (int) Math.ceil(area.getMaxX() * deviceScale));
+        int bottom = Math.min(image.getHeight(), (int) Math.ceil(area.getMaxY() * deviceScale));
+        Graphics2D g2d = image.createGraphics();
+        g2d.drawImage(scratch, left, top, right, bottom, left, top, right, bottom, null);
+        g2d.dispose();
+    }
+}
@@ -0,0 +1,453 @@
+package engineer.omnis.graphviz.graph.components;
+
+import engineer.omnis.graphviz.SpatialIndex;
+import engineer.omnis.graphviz.graph.GraphComponentStyle;
+import engineer.omnis.graphviz.graph.UpdatableGraphChild;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+// Backs the CANVAS render mode: the graph is kept as flat arrays of positions, colors and labels and painted in
+// one pass, without any Swing component per element. Edges are batched into one path per color, so a repaint costs
+// a handful of draw calls rather than one per edge. The element objects still exist for the model and the
+// algorithms, the canvas only mirrors their colors whenever GraphComponent refreshes them.
+// Removal moves the last element into the freed slot, so slots stay dense
+final class GraphCanvas {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int DETAILED_ELEMENT_LIMIT = 5000;
+    // Zoom levels below which labels are too small to read, edges thinner than a pixel and vertices just dots
+    private static final double LABEL_MIN_SCALE = 0.5;
+    private static final double THIN_EDGE_MIN_SCALE = 0.5;
+    private static final double CLUSTER_MAX_SCALE = 0.1;
+    private static final int CLUSTER_SIZE = 4;
+    private static final double DIRTY_PIECE_LENGTH = 64.0;
+    private final GraphComponentStyle appearance;
+    private final SpatialIndex<GraphNodeComponent> vertexIndex;
+    private final SpatialIndex<GraphEdgePair> edgeIndex;
+    private final FontMetrics nodeLabelMetrics;
+    private final FontMetrics weightLabelMetrics;
+    private final Color nodeLabelColor;
+    // By identity, the elements' own hash codes go through their endpoints and IDs, which is slow on every repaint
+    private final Map<GraphNodeComponent, Integer> vertexSlots = new IdentityHashMap<>();
+    private final Map<GraphEdgePair, Integer> edgeSlots = new IdentityHashMap<>();
+    private GraphNodeComponent[] vertices = new GraphNodeComponent[INITIAL_CAPACITY];
+    private float[] vertexX = new float[INITIAL_CAPACITY];
+    private float[] vertexY = new float[INITIAL_CAPACITY];
+    private int[] vertexColors = new int[INITIAL_CAPACITY];
+    private int vertexCount = 0;
+    private GraphEdgePair[] edges = new GraphEdgePair[INITIAL_CAPACITY];
+    // Vertices never move, so edges keep copies of their endpoints instead of looking them up
+    private float[] edgeX1 = new float[INITIAL_CAPACITY];
+    private float[] edgeY1 = new float[INITIAL_CAPACITY];
+    private float[] edgeX2 = new float[INITIAL_CAPACITY];
+    private float[] edgeY2 = new float[INITIAL_CAPACITY];
+    private int[] edgeColors = new int[INITIAL_CAPACITY];
+    private String[] weightLabels = new String[INITIAL_CAPACITY];
+    private int edgeCount = 0;
+    // Everything ever added since the last clear, edges always lie within it as they join vertex centers
+    private Rectangle2D extent = null;
+    // How far any label added since the last clear sticks out of its disc. Elements that close to an area have
+    // their labels reach into it, so they are painted along with it
+    private float labelOverhang = 0;
+
+    GraphCanvas(GraphComponent graph, GraphComponentStyle appearance,
+                SpatialIndex<GraphNodeComponent> vertexIndex, SpatialIndex<GraphEdgePair> edgeIndex) {
+        this.appearance = appearance;
+        this.vertexIndex = vertexIndex;
+        this.edgeIndex = edgeIndex;
+        nodeLabelMetrics = graph.getFontMetrics(appearance.nodeLabelFont());
+        weightLabelMetrics = graph.getFontMetrics(appearance.weightLabelFont());
+        Color labelColor = UIManager.getColor("Label.foreground");
+        nodeLabelColor = labelColor != null ? labelColor : Color.BLACK;
+    }
+
+    void add(UpdatableGraphChild element) {
+        if (element instanceof GraphNodeComponent vertex) {
+            addVertex(vertex);
+        } else if (element instanceof GraphEdgePair edge) {
+            addEdge(edge);
+        }
+    }
+
+    private void addVertex(GraphNodeComponent vertex) {
+        if (vertexSlots.containsKey(vertex)) {
+            return;
+        }
+        if (vertexCount == vertices.length) {
+            int capacity = 2 * vertices.length;
+            vertices = Arrays.copyOf(vertices, capacity);
+            vertexX = Arrays.copyOf(vertexX, capacity);
+            vertexY = Arrays.copyOf(vertexY, capacity);
+            vertexColors = Arrays.copyOf(vertexColors, capacity);
+        }
+
+        int slot = vertexCount++;
+        vertices[slot] = vertex;
+        vertexX[slot] = (float) vertex.getCenterPos().getX();
+        vertexY[slot] = (float) vertex.getCenterPos().getY();
+        vertexColors[slot] = vertex.getNodeColor().getRGB();
+        vertexSlots.put(vertex, slot);
+
+        float radius = vertex.getRadius();
+        Rectangle2D disc = new Rectangle2D.Float(vertexX[slot] - radius, vertexY[slot] - radius, 2 * radius, 2 * radius);
+        extent = extent == null ? disc : extent.createUnion(disc);
+        measureLabel(nodeLabelMetrics, vertex.getId(), radius);
+    }
+
+    private void addEdge(GraphEdgePair edge) {
+        if (edgeSlots.containsKey(edge)) {
+            return;
+        }
+        if (edgeCount == edges.length) {
+            int capacity = 2 * edges.length;
+            edges = Arrays.copyOf(edges, capacity);
+            edgeX1 = Arrays.copyOf(edgeX1, capacity);
+            edgeY1 = Arrays.copyOf(edgeY1, capacity);
+            edgeX2 = Arrays.copyOf(edgeX2, capacity);
+            edgeY2 = Arrays.copyOf(edgeY2, capacity);
+            edgeColors = Arrays.copyOf(edgeColors, capacity);
+            weightLabels = Arrays.copyOf(weightLabels, capacity);
+        }
+
+        int slot = edgeCount++;
+        edges[slot] = edge;
+        edgeX1[slot] = (float) edge.getFrom().getCenterPos().getX();
+        edgeY1[slot] = (float) edge.getFrom().getCenterPos().getY();
+        edgeX2[slot] = (float) edge.getTo().getCenterPos().getX();
+        edgeY2[slot] = (float) edge.getTo().getCenterPos().getY();
+        edgeColors[slot] = edge.getColor().getRGB();
+        weightLabels[slot] = String.valueOf(edge.getWeight());
+        edgeSlots.put(edge, slot);
+        measureLabel(weightLabelMetrics, weightLabels[slot], WeightLabelComponent.CONTAINER_RADIUS);
+    }
+
+    // Labels are centered on their discs. A pixel more for antialiasing
+    private void measureLabel(FontMetrics metrics, String label, float radius) {
+        labelOverhang = Math.max(labelOverhang, Math.max(metrics.stringWidth(label), metrics.getHeight()) / 2.0f + 1 - radius);
+    }
+
+    void remove(UpdatableGraphChild element) {
+        if (element instanceof GraphNodeComponent vertex) {
+            removeVertex(vertex);
+        } else if (element instanceof GraphEdgePair edge) {
+            removeEdge(edge);
+        }
+    }
+
+    private void removeVertex(GraphNodeComponent vertex) {
+        Integer slot = vertexSlots.remove(vertex);
+        if (slot == null) {
+            return;
+        }
+
+        int last = --vertexCount;
+        if (slot != last) {
+            vertices[slot] = vertices[last];
+            vertexX[slot] = vertexX[last];
+            vertexY[slot] = vertexY[last];
+            vertexColors[slot] = vertexColors[last];
+            vertexSlots.put(vertices[slot], slot);
+        }
+        vertices[last] = null;
+    }
+
+    private void removeEdge(GraphEdgePair edge) {
+        Integer slot = edgeSlots.remove(edge);
+        if (slot == null) {
+            return;
+        }
+
+        int last = --edgeCount;
+        if (slot != last) {
+            edges[slot] = edges[last];
+            edgeX1[slot] = edgeX1[last];
+            edgeY1[slot] = edgeY1[last];
+            edgeX2[slot] = edgeX2[last];
+            edgeY2[slot] = edgeY2[last];
+            edgeColors[slot] = edgeColors[last];
+            weightLabels[slot] = weightLabels[last];
+            edgeSlots.put(edges[slot], slot);
+        }
+        edges[last] = null;
+        weightLabels[last] = null;
+    }
+
+    // Picks up the element's current color after an order or an appearance update changed it
+    void refresh(UpdatableGraphChild element) {
+        if (element instanceof GraphNodeComponent vertex) {
+            Integer slot = vertexSlots.get(vertex);
+            if (slot != null) {
+                vertexColors[slot] = vertex.getNodeColor().getRGB();
+            }
+        } else if (element instanceof GraphEdgePair edge) {
+            Integer slot = edgeSlots.get(edge);
+            if (slot != null) {
+                edgeColors[slot] = edge.getColor().getRGB();
+            }
+        }
+    }
+
+    void clear() {
+        vertexSlots.clear();
+        edgeSlots.clear();
+        Arrays.fill(vertices, 0, vertexCount, null);
+        Arrays.fill(edges, 0, edgeCount, null);
+        Arrays.fill(weightLabels, 0, edgeCount, null);
+        vertexCount = 0;
+        edgeCount = 0;
+        extent = null;
+        labelOverhang = 0;
+    }
+
+    // What the vertices cover, or null without any
+    Rectangle2D getGraphBounds() {
+        if (vertexCount == 0) {
+            return null;
+        }
+
+        Rectangle2D bounds = new Rectangle2D.Float(vertexX[0], vertexY[0], 0, 0);
+        for (int v = 0; v < vertexCount; ++v) {
+            float radius = vertices[v].getRadius();
+            bounds.add(vertexX[v] - radius, vertexY[v] - radius);
+            bounds.add(vertexX[v] + radius, vertexY[v] + radius);
+        }
+        return bounds;
+    }
+
+    // Past DETAILED_ELEMENT_LIMIT elements in view the canvas switches to draft quality at any zoom: thin aliased
+    // edges and no labels. Antialiased wide strokes cost about 40 times as much, and that many labels overlap anyway.
+    // It's decided for the whole view, so that repainting a part of it looks the same as the rest
+    boolean isCrowded(Rectangle view, Viewport viewport) {
+        Rectangle2D area = viewport.toGraph(view);
+        return slotsIn(edgeIndex, edgeSlots, edgeCount, withLabelMargin(area)).length
+                + slotsIn(vertexIndex, vertexSlots, vertexCount, area).length > DETAILED_ELEMENT_LIMIT;
+    }
+
+    // Only what the spatial index finds in the clip is painted, and less of it the further the view is zoomed out:
+    // labels go first, then edges thin down to aliased 1 px lines, and finally vertices are binned into CLUSTER_SIZE
+    // pixel cells painted as one square each, with the edges inside a cell left out
+    void paint(Graphics2D g2d, Rectangle clip, Viewport viewport, boolean crowded) {
+        double scale = viewport.getScale();
+        boolean labelled = isLabelled(viewport, crowded);
+        boolean thin = crowded || scale < THIN_EDGE_MIN_SCALE;
+        boolean clustered = scale < CLUSTER_MAX_SCALE;
+
+        // A cell takes its color from all of its vertices, even when the clip only reaches into a part of it
+        Rectangle screen = clustered ? alignedToClusters(clip) : clip;
+        Rectangle2D area = viewport.toGraph(screen);
+        // An aliased line lights pixels up to one away from it
+        int[] visibleEdges = slotsIn(edgeIndex, edgeSlots, edgeCount,
+                labelled ? withLabelMargin(area) : grown(area, 1 / scale));
+        int[] visibleVertices = slotsIn(vertexIndex, vertexSlots, vertexCount,
+                labelled ? grown(area, labelOverhang) : area);
+
+        AffineTransform screenTransform = g2d.getTransform();
+        g2d.transform(viewport.getTransform());
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                thin ? RenderingHints.VALUE_ANTIALIAS_OFF : RenderingHints.VALUE_ANTIALIAS_ON);
+        // A zero width stroke is the thinnest line the device can draw, whatever the transform
+        g2d.setStroke(thin ? new BasicStroke(0) : new BasicStroke(appearance.edgeStrokeSize()));
+        for (var path : collectEdges(visibleEdges, clustered ? viewport : null).entrySet()) {
+            g2d.setColor(new Color(path.getKey(), true));
+            g2d.draw(path.getValue());
+        }
+
+        if (labelled) {
+            paintWeightLabels(g2d, area, visibleEdges);
+        }
+        if (clustered) {
+            g2d.setTransform(screenTransform);
+            paintClusters(g2d, screen, viewport, visibleVertices);
+        } else {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                    crowded ? RenderingHints.VALUE_ANTIALIAS_OFF : RenderingHints.VALUE_ANTIALIAS_ON);
+            paintVertices(g2d, visibleVertices, labelled);
+        }
+        g2d.setTransform(screenTransform);
+    }
+
+    private static boolean isLabelled(Viewport viewport, boolean crowded) {
+        return !crowded && viewport.getScale() >= LABEL_MIN_SCALE;
+    }
+
+    // Weight labels stick out of their edges, so edges are looked up in an area grown by the label size
+    private Rectangle2D withLabelMargin(Rectangle2D area) {
+        return grown(area, WeightLabelComponent.CONTAINER_RADIUS + labelOverhang);
+    }
+
+    private static Rectangle2D grown(Rectangle2D area, double margin) {
+        return new Rectangle2D.Double(area.getX() - margin, area.getY() - margin,
+                area.getWidth() + 2 * margin, area.getHeight() + 2 * margin);
+    }
+
+    private static Rectangle alignedToClusters(Rectangle screen) {
+        int left = clusterOf(screen.x) * CLUSTER_SIZE;
+        int top = clusterOf(screen.y) * CLUSTER_SIZE;
+        int right = (clusterOf(screen.x + screen.width - 1) + 1) * CLUSTER_SIZE;
+        int bottom = (clusterOf(screen.y + screen.height - 1) + 1) * CLUSTER_SIZE;
+        return new Rectangle(left, top, right - left, bottom - top);
+    }
+
+    // Where the element is on screen, as a few tight rectangles rather than one box: a long diagonal edge is
+    // covered by one rectangle per piece of it, so repainting it doesn't take everything around it along.
+    // Labels only count if the view is painted with them, in a crowded view they'd make the areas several times bigger
+    void dirtyAreas(UpdatableGraphChild element, Viewport viewport, boolean crowded, Consumer<Rectangle> sink) {
+        boolean labelled = isLabelled(viewport, crowded);
+        if (element instanceof GraphNodeComponent vertex) {
+            Point2D center = vertex.getCenterPos();
+            sink.accept(screenBox(viewport, center.getX(), center.getY(), center.getX(), center.getY(),
+                    vertex.getRadius() + (labelled ? labelOverhang : 0)));
+        } else if (element instanceof GraphEdgePair edge) {
+            Point2D from = edge.getFrom().getCenterPos();
+            Point2D to = edge.getTo().getCenterPos();
+            double halfStroke = appearance.edgeStrokeSize() / 2.0;
+            double length = Math.hypot(viewport.screenX(to.getX()) - viewport.screenX(from.getX()),
+                    viewport.screenY(to.getY()) - viewport.screenY(from.getY()));
+            int pieces = Math.max(1, (int) Math.ceil(length / DIRTY_PIECE_LENGTH));
+            for (int i = 0; i < pieces; ++i) {
+                double t1 = (double) i / pieces;
+                double t2 = (double) (i + 1) / pieces;
+                sink.accept(screenBox(viewport, from.getX() + (to.getX() - from.getX()) * t1,
+                        from.getY() + (to.getY() - from.getY()) * t1, from.getX() + (to.getX() - from.getX()) * t2,
+                        from.getY() + (to.getY() - from.getY()) * t2, halfStroke));
+            }
+            if (labelled) {
+                sink.accept(viewport.toScreen(grown(WeightLabelComponent.boundsFor(edge), labelOverhang)));
+            }
+        }
+    }
+
+    // Padded by a pixel for antialiasing and, when zoomed out that far, by a cluster cell, which can be painted
+    // around a vertex's center
+    private static Rectangle screenBox(Viewport viewport, double x1, double y1, double x2, double y2, double margin) {
+        Rectangle box = viewport.toScreen(new Rectangle2D.Double(Math.min(x1, x2) - margin, Math.min(y1, y2) - margin,
+                Math.abs(x2 - x1) + 2 * margin, Math.abs(y2 - y1) + 2 * margin));
+        int padding = viewport.getScale() < CLUSTER_MAX_SCALE ? CLUSTER_SIZE + 1 : 1;
+        box.grow(padding, padding);
+        return box;
+    }
+
+    // In slot order, so later vertices are still painted on top of earlier ones.
+    // A view of the whole graph is quicker to take from the arrays as they are
+    private <T> int[] slotsIn(SpatialIndex<T> index, Map<T, Integer> slots, int count, Rectangle2D area) {
+        if (extent == null || area.contains(extent)) {
+            return IntStream.range(0, count).toArray();
+        }
+
+        IntStream.Builder visible = IntStream.builder();
+        index.forEachIn(area, element -> {
+            Integer slot = slots.get(element);
+            if (slot != null) {
+                visible.add(slot);
+            }
+        });
+        return visible.build().sorted().toArray();
+    }
+
+    // One path per color. With clusters, edges between vertices of the same cluster would be hidden under it anyway.
+    // The paths are drawn in order of color, which must not depend on what's in the area: a partial render would
+    // stack crossing edges differently from a full one
+    private Map<Integer, Path2D.Float> collectEdges(int[] visibleEdges, Viewport clusterViewport) {
+        Map<Integer, Path2D.Float> edgePaths = new TreeMap<>();
+        for (int e : visibleEdges) {
+            if (clusterViewport != null
+                    && clusterOf(clusterViewport.screenX(edgeX1[e])) == clusterOf(clusterViewport.screenX(edgeX2[e]))
+                    && clusterOf(clusterViewport.screenY(edgeY1[e])) == clusterOf(clusterViewport.screenY(edgeY2[e]))) {
+                continue;
+            }
+
+            Path2D.Float path = edgePaths.computeIfAbsent(edgeColors[e], c -> new Path2D.Float());
+            path.moveTo(edgeX1[e], edgeY1[e]);
+            path.lineTo(edgeX2[e], edgeY2[e]);
+        }
+        return edgePaths;
+    }
+
+    private static int clusterOf(double screenCoordinate) {
+        return (int) Math.floor(screenCoordinate / CLUSTER_SIZE);
+    }
+
+    private void paintWeightLabels(Graphics2D g2d, Rectangle2D area, int[] visibleEdges) {
+        float radius = WeightLabelComponent.CONTAINER_RADIUS;
+        float reach = radius + labelOverhang;
+        Ellipse2D.Float disc = new Ellipse2D.Float();
+        g2d.setFont(appearance.weightLabelFont());
+        for (int e : visibleEdges) {
+            float x = edgeX1[e] + (edgeX2[e] - edgeX1[e]) * (float) WeightLabelComponent.POSITION_ON_EDGE;
+            float y = edgeY1[e] + (edgeY2[e] - edgeY1[e]) * (float) WeightLabelComponent.POSITION_ON_EDGE;
+            if (!area.intersects(x - reach, y - reach, 2 * reach, 2 * reach)) {
+                continue;
+            }
+
+            disc.setFrame(x - radius, y - radius, 2 * radius, 2 * radius);
+            g2d.setColor(GraphComponentStyle.DEFAULT_BACKGROUND);
+            g2d.fill(disc);
+            g2d.setColor(appearance.edgeWeightLabelColor());
+            drawCentered(g2d, weightLabelMetrics, weightLabels[e], x, y);
+        }
+    }
+
+    private void paintVertices(Graphics2D g2d, int[] visibleVertices, boolean labelled) {
+        Ellipse2D.Float disc = new Ellipse2D.Float();
+        g2d.setFont(appearance.nodeLabelFont());
+        for (int v : visibleVertices) {
+            float radius = vertices[v].getRadius();
+            float x = vertexX[v];
+            float y = vertexY[v];
+            disc.setFrame(x - radius, y - radius, 2 * radius, 2 * radius);
+            g2d.setColor(new Color(vertexColors[v], true));
+            g2d.fill(disc);
+            if (labelled) {
+                g2d.setColor(nodeLabelColor);
+                drawCentered(g2d, nodeLabelMetrics, vertices[v].getId(), x, y);
+            }
+        }
+    }
+
+    // Each cell takes the color of the topmost vertex in it
+    private void paintClusters(Graphics2D g2d, Rectangle screen, Viewport viewport, int[] visibleVertices) {
+        int firstColumn = clusterOf(screen.x);
+        int firstRow = clusterOf(screen.y);
+        int columns = clusterOf(screen.x + screen.width) - firstColumn + 1;
+        int rows = clusterOf(screen.y + screen.height) - firstRow + 1;
+        int[] cellColors = new int[columns * rows];
+        boolean[] occupied = new boolean[columns * rows];
+        for (int v : visibleVertices) {
+            int column = clusterOf(viewport.screenX(vertexX[v])) - firstColumn;
+            int row = clusterOf(viewport.screenY(vertexY[v])) - firstRow;
+            if (column >= 0 && column < columns && row >= 0 && row < rows) {
+                cellColors[row * columns + column] = vertexColors[v];
+                occupied[row * columns + column] = true;
+            }
+        }
+
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+        Color color = null;
+        for (int cell = 0; cell < cellColors.length; ++cell) {
+            if (!occupied[cell]) {
+                continue;
+            }
+            if (color == null || color.getRGB() != cellColors[cell]) {
+                color = new Color(cellColors[cell], true);
+                g2d.setColor(color);
+            }
+            g2d.fillRect((firstColumn + cell % columns) * CLUSTER_SIZE, (firstRow + cell / columns) * CLUSTER_SIZE,
+                    CLUSTER_SIZE, CLUSTER_SIZE);
+        }
+    }
+
+    private static void drawCentered(Graphics2D g2d, FontMetrics metrics, String text, float x, float y) {
+        g2d.drawString(text, x - metrics.stringWidth(text) / 2.0f, y + (metrics.getAscent() - metrics.getDescent()) / 2.0f);
+    }
+}
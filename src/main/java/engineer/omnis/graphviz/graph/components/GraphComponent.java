@@ -1,65 +1,116 @@
 package engineer.omnis.graphviz.graph.components;
 
+import engineer.omnis.graphviz.CompactGraph;
 import engineer.omnis.graphviz.GraphModel;
 import engineer.omnis.graphviz.MainFrame;
+import engineer.omnis.graphviz.RingBuffer;
+import engineer.omnis.graphviz.SpatialIndex;
 import engineer.omnis.graphviz.Utility;
 import engineer.omnis.graphviz.algorithms.GraphAlgorithmStrategy;
+import engineer.omnis.graphviz.generators.CompactGraphSource;
+import engineer.omnis.graphviz.generators.GeneratorSink;
+import engineer.omnis.graphviz.generators.GraphGenerator;
 import engineer.omnis.graphviz.graph.DefaultMouseListener;
 import engineer.omnis.graphviz.graph.AddableGraphChild;
 import engineer.omnis.graphviz.graph.EditModeOption;
 import engineer.omnis.graphviz.graph.GraphComponentStyle;
+import engineer.omnis.graphviz.graph.RenderMode;
 import engineer.omnis.graphviz.graph.UpdatableGraphChild;
+import engineer.omnis.graphviz.graph.orders.ColorUpdateOrder;
 import engineer.omnis.graphviz.graph.orders.ExternalGraphOrder;
 import engineer.omnis.graphviz.graph.orders.FinalizeAlgorithmOrder;
 import engineer.omnis.graphviz.graph.orders.RepaintGraphOrder;
+import engineer.omnis.graphviz.trace.TraceElements;
+import engineer.omnis.graphviz.trace.TraceRecorder;
 
 import javax.swing.Timer;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseEvent;
+import java.awt.event.MouseMotionAdapter;
+import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.Queue;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
+import java.util.function.IntFunction;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 public class GraphComponent extends JPanel {
     private static final Pattern NUMERIC_PATTERN = Pattern.compile("-?\\d+");
+    // Time between steps at normal speed
     private static final int ORDER_EXECUTION_DELAY = 500;
+    // How many steps the algorithm may run ahead of what's shown before its thread waits. Enough for a frame at the
+    // highest speed, so the buffer doesn't hold the playback back
+    private static final int MAX_STEPS_AHEAD = 1024;
+    private static final int MILLIS_PER_SECOND = 1000;
+    // Used when the display doesn't tell its refresh rate
+    private static final int DEFAULT_FRAME_RATE = 60;
+    static final double INDEX_CELL_SIZE = 32.0;
+    static final double EDGE_HIT_TOLERANCE = 1.0;
+    private static final double ZOOM_STEP = 1.25;
+    private static final double FIT_MARGIN = 20.0;
     private final GraphComponentStyle appearance;
     private final GraphModel<GraphNodeComponent, GraphEdgePair> graphModel;
     private final Set<GraphNodeComponent> activeNodes = new HashSet<>();
-    private final LinkedList<AddableGraphChild> graphEdgeStorage = new LinkedList<>();
-    private final Queue<List<ExternalGraphOrder>> commandList = new LinkedList<>();
+    private final Set<AddableGraphChild> graphEdgeStorage = new LinkedHashSet<>();
     private final List<UpdatableGraphChild> dirtyComponents = new ArrayList<>();
+    // Hit-testing and culling go through these instead of the Swing children, in both render modes
+    private final SpatialIndex<GraphNodeComponent> vertexIndex = new SpatialIndex<>(INDEX_CELL_SIZE);
+    private final SpatialIndex<GraphEdgePair> edgeIndex = new SpatialIndex<>(INDEX_CELL_SIZE);
     private final Timer graphUpdateTimer;
-    private Dimension contentPaneDimensions;
+    private final PlaybackClock playback = new PlaybackClock(ORDER_EXECUTION_DELAY, MAX_STEPS_AHEAD);
+    private final GraphCanvas canvas;
+    private final CanvasImageCache canvasImage;
+    // Only the CANVAS render mode zooms and pans, Swing children always sit at their graph coordinates
+    private final Viewport viewport = new Viewport();
+    private Point panAnchor = null;
+    private RenderMode renderMode = RenderMode.COMPONENTS;
+    // Read by graphs prepared off the EDT
+    private volatile Dimension contentPaneDimensions;
     private GraphComponentMode componentMode = GraphComponentMode.EDIT_MODE;
     private EditModeOption editModeOption = EditModeOption.ADD_VERTEX;
     private GraphAlgorithmStrategy currentAlgorithm = null;
     private AlgorithmExecutionTask algorithmTask = null;
+    // The last run that finished, for as long as the colors it left are shown
+    private RunTimeline timeline = null;
+    private Path nextTracePath = null;
 
     public GraphComponent(GraphComponentStyle visualAppearance) {
         appearance = visualAppearance;
-        graphModel = new GraphModel<>();
+        graphModel = new GraphModel<>(GraphModel.AdjacencyMode.INDEXED);
         setName("Graph");
         setLayout(null);
         setPreferredSize(new Dimension(MainFrame.SCREEN_WIDTH, MainFrame.SCREEN_HEIGHT));
+        canvas = new GraphCanvas(this, appearance, vertexIndex, edgeIndex);
+        canvasImage = new CanvasImageCache(canvas, appearance.backgroundColor());
 
         addMouseListener(new DefaultMouseListener() {
             // mouseClicked ignores some mouse clicks, which is not good from UX perspective in my opinion
             @Override
             public void mousePressed(MouseEvent e) {
+                MouseEvent event = e;
+                if (renderMode == RenderMode.CANVAS) {
+                    // The other buttons drag the view around, in any mode
+                    if (!SwingUtilities.isLeftMouseButton(e)) {
+                        panAnchor = e.getPoint();
+                        return;
+                    }
+                    event = toGraphEvent(e);
+                }
+
                 switch (componentMode) {
                     case EDIT_MODE -> {
                         restoreDirtyComponentsAppearance();
-                        handleMouseClickOnGraphEdit(e);
+                        handleMouseClickOnGraphEdit(event);
                     }
                     case INPUT_MODE -> {
                         restoreDirtyComponentsAppearance();
-                        handleMouseClickOnAlgorithmInput(e);
+                        handleMouseClickOnAlgorithmInput(event);
                     }
                     case ALGORITHM_MODE -> {
                         // Do nothing. Just observe
@@ -69,26 +120,97 @@ public class GraphComponent extends JPanel {
                     }
                 }
             }
-        });
 
-        graphUpdateTimer = new Timer(ORDER_EXECUTION_DELAY, e -> {
-            while (commandList.peek() != null) {
-                var commands = commandList.poll();
-                if (commands.size() == 0) {
-                    continue;
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                panAnchor = null;
+            }
+        });
+        addMouseMotionListener(new MouseMotionAdapter() {
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (panAnchor != null) {
+                    viewport.panBy(e.getX() - panAnchor.x, e.getY() - panAnchor.y);
+                    canvasImage.invalidate();
+                    panAnchor = e.getPoint();
+                    repaint();
                 }
+            }
+        });
+        addMouseWheelListener(e -> {
+            if (renderMode == RenderMode.CANVAS) {
+                viewport.zoomAt(e.getPoint(), Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()));
+                canvasImage.invalidate();
+                repaint();
+            }
+        });
+
+        graphUpdateTimer = new Timer(frameDelay(), e -> showNextFrame());
+    }
+
+    private static int frameDelay() {
+        if (!GraphicsEnvironment.isHeadless()) {
+            int refreshRate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                    .getDisplayMode().getRefreshRate();
+            if (refreshRate != DisplayMode.REFRESH_RATE_UNKNOWN) {
+                return Math.max(1, MILLIS_PER_SECOND / refreshRate);
+            }
+        }
+        return MILLIS_PER_SECOND / DEFAULT_FRAME_RATE;
+    }
+
+    // Steps without orders don't count, they would only show as a pause. Skipping to the end shows everything the
+    // algorithm has sent so far at once, so nothing in between is ever painted
+    private void showNextFrame() {
+        if (algorithmTask == null) {
+            return;
+        }
+
+        RingBuffer<List<ExternalGraphOrder>> steps = algorithmTask.steps;
+        if (algorithmTask.skipping) {
+            List<ExternalGraphOrder> orders = new ArrayList<>();
+            for (var commands = steps.poll(); commands != null; commands = steps.poll()) {
+                orders.addAll(commands);
+            }
+            if (!orders.isEmpty()) {
+                applyGraphUpdateOrders(orders);
+            }
+            return;
+        }
 
+        int due = playback.stepsDue(System.nanoTime());
+        while (due > 0 && algorithmTask != null) {
+            var commands = steps.poll();
+            if (commands == null) {
+                return;
+            }
+            if (!commands.isEmpty()) {
                 applyGraphUpdateOrders(commands);
-                break;
+                --due;
             }
-        });
+        }
+    }
+
+    // Nothing but the graph itself receives clicks on the canvas, so the index tells what was clicked.
+    // The event is moved into graph coordinates, which is where new vertices go
+    private MouseEvent toGraphEvent(MouseEvent e) {
+        Point2D graphPoint = viewport.toGraph(e.getPoint());
+        MouseEvent graphEvent = new MouseEvent(this, e.getID(), e.getWhen(), e.getModifiersEx(),
+                (int) Math.round(graphPoint.getX()), (int) Math.round(graphPoint.getY()),
+                e.getClickCount(), e.isPopupTrigger(), e.getButton());
+
+        UpdatableGraphChild clicked = getGraphNodeAt(graphPoint);
+        if (clicked == null) {
+            clicked = getEdgePairAt(graphPoint);
+        }
+        if (clicked != null) {
+            graphEvent.setSource(clicked);
+        }
+        return graphEvent;
     }
 
     @SuppressWarnings("checkstyle:magicnumber")
     public void generateFullyConnectedGraph(int n) {
-        if (n > 9) {
-            throw new IllegalArgumentException("TODO");
-        }
         resetGraphState();
 
         double angle = Math.PI / 2;
@@ -106,7 +228,7 @@ public class GraphComponent extends JPanel {
             int y = (int) (Math.cos(angle) * distToCenter);
             Point p = new Point(x, y);
             centerToScreenConverter.accept(p);
-            addNewVertex(Character.forDigit(i, 10), p);
+            addNewVertex(String.valueOf(i), p);
             angle += Math.PI * 2 / n;
         }
 
@@ -119,6 +241,192 @@ public class GraphComponent extends JPanel {
         }
     }
 
+    // Replaces the graph with a generated one. Vertex IDs are the generator's vertex numbers
+    public void loadGeneratedGraph(GraphGenerator generator) {
+        if (!isClosedForModification()) {
+            loadPreparedGraph(prepareGeneratedGraph(generator, renderMode));
+        }
+    }
+
+    // For graphs whose positions are vertex centers in pane coordinates already, e.g. saved ones
+    public void loadGraph(CompactGraph<?, ?> graph, IntFunction<String> labels) {
+        if (!isClosedForModification()) {
+            loadPreparedGraph(prepareGraph(graph, labels, renderMode));
+        }
+    }
+
+    // Builds a generated graph for loadPreparedGraph, it can be called off the EDT
+    public PreparedGraph prepareGeneratedGraph(GraphGenerator generator, RenderMode mode) {
+        Dimension area = contentPaneDimensions;
+        PreparedGraph prepared = new PreparedGraph(mode, area, appearance, generator.vertexCount());
+        GraphNodeComponent[] nodes = new GraphNodeComponent[generator.vertexCount()];
+        prepared.getModel().batch(() -> generator.generate(new GeneratorSink() {
+            @Override
+            public void vertexGenerated(int v, double x, double y) {
+                Point pos = new Point((int) (x * area.width), (int) (y * area.height));
+                nodes[v] = prepared.addVertex(String.valueOf(v), pos);
+            }
+
+            @Override
+            public void edgeGenerated(int from, int to, int weight) {
+                prepared.addEdge(nodes[from], nodes[to], weight);
+            }
+        }));
+        return prepared;
+    }
+
+    // Builds a graph with positions in pane coordinates for loadPreparedGraph, it can be called off the EDT
+    public PreparedGraph prepareGraph(CompactGraph<?, ?> graph, IntFunction<String> labels, RenderMode mode) {
+        if (!graph.hasPositions()) {
+            throw new IllegalArgumentException("The graph has no vertex positions");
+        }
+
+        PreparedGraph prepared = new PreparedGraph(mode, contentPaneDimensions, appearance, graph.vertexCount());
+        GraphNodeComponent[] nodes = new GraphNodeComponent[graph.vertexCount()];
+        prepared.getModel().batch(() -> {
+            for (int v = 0; v < graph.vertexCount(); ++v) {
+                String label = labels.apply(v);
+                nodes[v] = prepared.addVertex(label, new Point((int) graph.x(v), (int) graph.y(v)));
+                // A vertex with a label that's taken isn't added, its edges would end at a vertex that isn't there
+                if (prepared.vertexCount() != v + 1) {
+                    throw new IllegalArgumentException("More than one vertex is labelled " + label);
+                }
+            }
+            CompactGraphSource.generateEdges(graph, new GeneratorSink() {
+                @Override
+                public void vertexGenerated(int v, double x, double y) {
+                }
+
+                @Override
+                public void edgeGenerated(int from, int to, int weight) {
+                    prepared.addEdge(nodes[from], nodes[to], weight);
+                }
+            });
+        });
+        return prepared;
+    }
+
+    // Replaces the graph with a prepared one. The model and the indices are taken over as they are, so what's left to
+    // do here is showing the elements, and laying out and repainting once at the end
+    public void loadPreparedGraph(PreparedGraph prepared) {
+        if (prepared.getRenderMode() != renderMode) {
+            throw new IllegalArgumentException("The graph was prepared for the " + prepared.getRenderMode()
+                    + " render mode");
+        }
+        if (isClosedForModification()) {
+            return;
+        }
+        resetGraphState();
+
+        graphModel.takeOver(prepared.getModel());
+        vertexIndex.takeOver(prepared.getVertexIndex());
+        edgeIndex.takeOver(prepared.getEdgeIndex());
+        graphEdgeStorage.addAll(prepared.getEdges());
+        prepared.getVertices().forEach(this::show);
+        prepared.getEdges().forEach(this::show);
+
+        canvasImage.invalidate();
+        revalidate();
+        repaint();
+    }
+
+    private void attach(AddableGraphChild child) {
+        if (child instanceof GraphNodeComponent vertex) {
+            vertexIndex.addDisc(vertex, vertex.getCenterPos(), vertex.getRadius());
+        } else if (child instanceof GraphEdgePair edgePair) {
+            edgeIndex.addSegment(edgePair, edgePair.getFrom().getCenterPos(), edgePair.getTo().getCenterPos(),
+                    appearance.edgeStrokeSize() / 2.0 + EDGE_HIT_TOLERANCE);
+        }
+        show(child);
+    }
+
+    private void show(AddableGraphChild child) {
+        if (renderMode == RenderMode.CANVAS) {
+            child.updateAppearance(appearance);
+            canvas.add(child);
+        } else {
+            child.addToGraph(this);
+        }
+    }
+
+    private void detach(AddableGraphChild child) {
+        if (child instanceof GraphNodeComponent vertex) {
+            vertexIndex.remove(vertex);
+        } else if (child instanceof GraphEdgePair edgePair) {
+            edgeIndex.remove(edgePair);
+        }
+
+        if (renderMode == RenderMode.CANVAS) {
+            canvas.remove(child);
+        } else {
+            child.removeFromGraph(this);
+        }
+    }
+
+    private Dimension vertexArea() {
+        return renderMode == RenderMode.CANVAS ? null : contentPaneDimensions;
+    }
+
+    public RenderMode getRenderMode() {
+        return renderMode;
+    }
+
+    // Moves every element between Swing children and the canvas, keeping the colors they have right now
+    public void setRenderMode(RenderMode mode) {
+        if (mode == renderMode) {
+            return;
+        }
+
+        renderMode = mode;
+        viewport.reset();
+        canvasImage.invalidate();
+        removeAll();
+        canvas.clear();
+        List<AddableGraphChild> children = new ArrayList<>(graphModel.getVertices());
+        children.addAll(graphEdgeStorage);
+        for (var child : children) {
+            if (renderMode == RenderMode.CANVAS) {
+                canvas.add(child);
+            } else {
+                child.addToGraphImpl(this);
+            }
+        }
+
+        revalidate();
+        repaint();
+    }
+
+    public void zoomIn() {
+        zoomAtCenter(ZOOM_STEP);
+    }
+
+    public void zoomOut() {
+        zoomAtCenter(1 / ZOOM_STEP);
+    }
+
+    private void zoomAtCenter(double factor) {
+        if (renderMode == RenderMode.CANVAS) {
+            viewport.zoomAt(new Point(getWidth() / 2, getHeight() / 2), factor);
+            canvasImage.invalidate();
+            repaint();
+        }
+    }
+
+    public void fitGraphToView() {
+        Rectangle2D bounds = canvas.getGraphBounds();
+        if (renderMode == RenderMode.CANVAS && bounds != null) {
+            viewport.fit(bounds, getSize(), FIT_MARGIN);
+            canvasImage.invalidate();
+            repaint();
+        }
+    }
+
+    public void resetView() {
+        viewport.reset();
+        canvasImage.invalidate();
+        repaint();
+    }
+
     public GraphComponentStyle getAppearance() {
         return appearance;
     }
@@ -130,33 +438,40 @@ public class GraphComponent extends JPanel {
         }
 
         removeAll();
+        canvas.clear();
+        viewport.reset();
+        canvasImage.invalidate();
+        vertexIndex.clear();
+        edgeIndex.clear();
         graphModel.resetGraphState();
         activeNodes.clear();
         graphEdgeStorage.clear();
         dirtyComponents.clear();
+        setTimeline(null);
         resetAlgorithmState();
 
         repaint();
     }
 
     public void restoreDirtyComponentsAppearance() {
+        setTimeline(null);
         performActionOnComponentsAndRepaint(dirtyComponents, false, (c) -> c.updateAppearance(getAppearance()));
         dirtyComponents.clear();
     }
 
-    public void addNewVertex(char vertexId, Point pos) {
+    public void addNewVertex(String vertexId, Point pos) {
         if (isClosedForModification()) {
             return;
         }
 
-        GraphNodeComponent newNode = new GraphNodeComponent(vertexId, pos, contentPaneDimensions);
+        GraphNodeComponent newNode = new GraphNodeComponent(vertexId, pos, vertexArea());
         if (!graphModel.addVertex(newNode)) {
             return;
         }
 
         resetActiveNodes();
         activeNodes.add(newNode);
-        performActionOnComponentsAndRepaint(List.of(newNode), true, c -> c.addToGraph(this));
+        performActionOnComponentsAndRepaint(List.of(newNode), true, this::attach);
     }
 
     public void connectVertices(GraphNodeComponent first, GraphNodeComponent second, int weight) {
@@ -178,12 +493,12 @@ public class GraphComponent extends JPanel {
             return;
         }
 
-        GraphEdgePair edgePair = GraphEdgePair.createEdgePair(this, first, second, weight);
+        GraphEdgePair edgePair = GraphEdgePair.createEdgePair(first, second, weight);
         graphModel.connectVertices(first, second, edgePair);
         graphModel.connectVertices(second, first, edgePair);
 
         graphEdgeStorage.add(edgePair);
-        performActionOnComponentsAndRepaint(List.of(edgePair), true, c -> c.addToGraph(this));
+        performActionOnComponentsAndRepaint(List.of(edgePair), true, this::attach);
     }
 
     public void removeVertex(GraphNodeComponent vertex) {
@@ -196,7 +511,7 @@ public class GraphComponent extends JPanel {
         graphEdgeStorage.removeAll(componentsToRemove);
 
         componentsToRemove.add(vertex);
-        performActionOnComponentsAndRepaint(componentsToRemove, true, c -> c.removeFromGraph(this));
+        performActionOnComponentsAndRepaint(componentsToRemove, true, this::detach);
     }
 
     private void removeEdge(GraphEdgePair edgePair) {
@@ -204,17 +519,21 @@ public class GraphComponent extends JPanel {
             return;
         }
 
-        graphModel.removeConnection(edgePair.getMainEdge().getFrom(), edgePair.getMainEdge().getTo());
-        graphEdgeStorage.removeIf(e -> e.equals(edgePair));
-        performActionOnComponentsAndRepaint(List.of(edgePair), true, c -> c.removeFromGraph(this));
+        graphModel.removeConnection(edgePair.getFrom(), edgePair.getTo());
+        graphEdgeStorage.remove(edgePair);
+        performActionOnComponentsAndRepaint(List.of(edgePair), true, this::detach);
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        var parent = SwingUtilities.getWindowAncestor(this);
         Graphics2D g2d = (Graphics2D) g;
+        if (renderMode == RenderMode.CANVAS) {
+            canvasImage.paint(g2d, getSize(), viewport);
+            return;
+        }
 
+        var parent = SwingUtilities.getWindowAncestor(this);
         g2d.setColor(appearance.backgroundColor());
         var rf = new Rectangle2D.Float(0, 0, parent.getWidth(), parent.getHeight());
         g2d.fill(rf);
@@ -285,8 +604,8 @@ public class GraphComponent extends JPanel {
             case ADD_VERTEX -> {
                 if (e.getSource() instanceof GraphNodeComponent || e.getSource() instanceof GraphEdgePair) return;
 
-                processUserInput("Vertex", "Enter the Vertex ID (Should be 1 char):",
-                        s -> s.trim().length() == 1, input -> addNewVertex(input.charAt(0), e.getPoint()));
+                processUserInput("Vertex", "Enter the Vertex ID:",
+                        s -> !s.isBlank(), input -> addNewVertex(input.trim(), e.getPoint()));
             }
             case ADD_EDGES -> {
                 if (!(e.getSource() instanceof GraphNodeComponent)) return;
@@ -355,16 +674,24 @@ public class GraphComponent extends JPanel {
             resetAlgorithmState();
         }
 
+        startAlgorithmIfReady();
+    }
+
+    private void startAlgorithmIfReady() {
         if (currentAlgorithm != null && currentAlgorithm.isReadyToRun()) {
             currentAlgorithm.setAcceptingInput(false);
             currentAlgorithm.postInit();
             componentMode = GraphComponentMode.ALGORITHM_MODE;
 
-            algorithmTask = new AlgorithmExecutionTask();
+            algorithmTask = new AlgorithmExecutionTask(currentAlgorithm, nextTracePath);
+            nextTracePath = null;
+            playback.restart();
             algorithmTask.execute();
         }
     }
 
+    // Swing children are repainted as the union of their boxes. The canvas re-renders each element's own areas
+    // in its cached image instead, so a few elements changing across the graph cost as little as they cover
     private <T extends UpdatableGraphChild> void performActionOnComponentsAndRepaint(List<T> components, boolean revalidate, Consumer<T> perComponentFunction) {
         Rectangle boundingBox = new Rectangle();
 
@@ -372,37 +699,34 @@ public class GraphComponent extends JPanel {
             if (c == null) {
                 continue;
             }
-            boundingBox = boundingBox.union(c.getBoundingBox());
+            if (renderMode == RenderMode.CANVAS) {
+                canvas.dirtyAreas(c, viewport, canvasImage.isCrowded(), area -> {
+                    canvasImage.invalidate(area);
+                    repaint(area);
+                });
+            } else {
+                boundingBox = boundingBox.union(c.getBoundingBox());
+            }
             perComponentFunction.accept(c);
+            if (renderMode == RenderMode.CANVAS) {
+                canvas.refresh(c);
+            }
         }
 
         if (revalidate) {
             revalidate();
         }
-        repaint(boundingBox);
-    }
-
-    public Component getGraphNodeAt(Point pos) {
-        for (var component : getComponents()) {
-            if (component != null && component.isVisible() && component instanceof GraphNodeComponent) {
-                Point localCoordinates = SwingUtilities.convertPoint(this, pos, component);
-                if (component.contains(localCoordinates)) {
-                    return component;
-                }
-            }
+        if (renderMode == RenderMode.COMPONENTS) {
+            repaint(boundingBox);
         }
+    }
 
-        return null;
+    public GraphNodeComponent getGraphNodeAt(Point2D pos) {
+        return vertexIndex.findAt(pos);
     }
 
-    public List<AddableGraphChild> getEdgePairsAt(Point pos) {
-        List<AddableGraphChild> edgePairs = new LinkedList<>();
-        for (var edgePair : graphEdgeStorage) {
-            if (edgePair.getBoundingBox().contains(pos)) {
-                edgePairs.add(edgePair);
-            }
-        }
-        return edgePairs;
+    public GraphEdgePair getEdgePairAt(Point2D pos) {
+        return edgeIndex.findAt(pos);
     }
 
     public void initiateAlgorithmVisualization(GraphAlgorithmStrategy algorithm) {
@@ -414,19 +738,58 @@ public class GraphComponent extends JPanel {
         algorithm.preInit();
         currentAlgorithm = algorithm;
         componentMode = GraphComponentMode.INPUT_MODE;
+        startAlgorithmIfReady();
+    }
+
+    // The next run that starts is streamed to a trace file as it goes
+    public void recordNextRun(Path tracePath) {
+        nextTracePath = tracePath;
     }
 
     public void finalizeAlgorithmExecution() {
-        if (algorithmTask.isDone()) {
-            currentAlgorithm.onComplete(currentAlgorithm.getResult());
+        RunTimeline recordedRun = algorithmTask.timeline;
+        RunTimeline finishedRun = algorithmTask.finished && !recordedRun.isDropped() ? recordedRun : null;
+        if (algorithmTask.finished) {
+            String traceFailure = algorithmTask.traceFailure;
+            currentAlgorithm.onComplete(currentAlgorithm.getResult()
+                    + (traceFailure == null ? "" : " (trace recording failed: " + traceFailure + ")")
+                    + (recordedRun.isDropped() ? " (too long to scrub through)" : ""));
+        } else if (algorithmTask.failure != null) {
+            currentAlgorithm.onComplete("The run failed: " + algorithmTask.failure);
         } else {
             currentAlgorithm.onAborted();
         }
         resetAlgorithmState();
+        setTimeline(finishedRun);
+    }
+
+    // Listeners of the "timeline" property get the number of steps that can be scrubbed through, 0 when there's none
+    private void setTimeline(RunTimeline newTimeline) {
+        int oldLength = getTimelineLength();
+        timeline = newTimeline;
+        firePropertyChange("timeline", oldLength, getTimelineLength());
+    }
+
+    public int getTimelineLength() {
+        return timeline == null ? 0 : timeline.length();
+    }
+
+    public int getTimelinePosition() {
+        return timeline == null ? 0 : timeline.position();
+    }
+
+    // Shows the colors the last run had after the given number of steps
+    public void scrubTo(int step) {
+        if (timeline == null || isClosedForModification()) {
+            return;
+        }
+
+        List<ExternalGraphOrder> orders = new ArrayList<>();
+        timeline.seek(step, (element, color) -> orders.add(new ColorUpdateOrder(element, color)));
+        applyGraphUpdateOrders(orders);
     }
 
     public void resetAlgorithmState() {
-        commandList.clear();
         currentAlgorithm = null;
         algorithmTask = null;
         graphUpdateTimer.stop();
@@ -447,29 +810,177 @@ public class GraphComponent extends JPanel {
         resetAlgorithmState();
     }
 
+    public double getPlaybackSpeed() {
+        return playback.getSpeed();
+    }
+
+    // Relative to one step every ORDER_EXECUTION_DELAY
+    public void setPlaybackSpeed(double speed) {
+        playback.setSpeed(speed);
+    }
+
+    public boolean isPlaybackPaused() {
+        return playback.isPaused();
+    }
+
+    public void setPlaybackPaused(boolean paused) {
+        playback.setPaused(paused);
+    }
+
+    public void stepPlayback() {
+        playback.step();
+    }
+
+    // The algorithm runs on without showing its steps, then the final colors are shown at once
+    public void skipToEnd() {
+        if (algorithmTask == null) {
+            return;
+        }
+        algorithmTask.skipping = true;
+    }
+
     private enum GraphComponentMode {
         EDIT_MODE,
         INPUT_MODE,
         ALGORITHM_MODE
     }
 
-    private class AlgorithmExecutionTask extends SwingWorker<String, List<ExternalGraphOrder>> {
-        @Override
-        protected void process(List<List<ExternalGraphOrder>> commands) {
-            super.process(commands);
-            commandList.addAll(commands);
+    // Steps go to the EDT through a bounded buffer instead of publish, which queues all of them however far the
+    // algorithm gets ahead of the timer showing them. Here the thread waits once it's MAX_STEPS_AHEAD steps ahead,
+    // so a long run takes as much memory as a short one. Aborting interrupts the wait.
+    // Once skipping to the end only the last order for each element is kept, and all of them are sent at the end
+    private class AlgorithmExecutionTask extends SwingWorker<String, Void> {
+        // Kept here, as aborting clears currentAlgorithm on the EDT while this thread may still be in a step
+        private final GraphAlgorithmStrategy algorithm;
+        private final Path tracePath;
+        private final RingBuffer<List<ExternalGraphOrder>> steps = new RingBuffer<>(MAX_STEPS_AHEAD);
+        private volatile String traceFailure = null;
+        // Set once the run completed, before the finalizing order goes out. Cancelling makes the task done as well
+        private volatile boolean finished = false;
+        private volatile boolean skipping = false;
+        private volatile String failure = null;
+        private RunTimeline timeline = null;
+
+        AlgorithmExecutionTask(GraphAlgorithmStrategy algorithm, Path tracePath) {
+            this.algorithm = algorithm;
+            this.tracePath = tracePath;
         }
 
         @Override
-        protected String doInBackground() {
+        protected String doInBackground() throws InterruptedException {
             graphUpdateTimer.start();
 
-            while (!currentAlgorithm.isFinished() && !isCancelled()) {
-                publish(new LinkedList<>(currentAlgorithm.performStep()));
+            TraceElements elements = TraceElements.of(graphModel);
+            TraceRecorder recorder = openTraceRecorder(elements);
+            timeline = new RunTimeline(elements);
+            Map<Object, ExternalGraphOrder> lastOrders = new LinkedHashMap<>();
+            boolean stopped = false;
+            try {
+                while (!algorithm.isFinished() && !isCancelled()) {
+                    List<ExternalGraphOrder> orders = algorithm.performStep();
+                    recorder = recordStep(recorder, orders);
+                    timeline.record(orders);
+                    if (skipping) {
+                        keepLastOrders(lastOrders, orders);
+                    } else {
+                        steps.put(new ArrayList<>(orders));
+                    }
+                }
+                stopped = true;
+            } catch (InterruptedException e) {
+                // Aborted while waiting, the recording is still closed as aborted below
+                stopped = true;
+            } finally {
+                closeTraceRecorder(recorder, stopped);
+            }
+            if (isCancelled()) {
+                return null;
             }
-            publish(List.of(new FinalizeAlgorithmOrder()));
 
-            return currentAlgorithm.getResult();
+            if (!lastOrders.isEmpty()) {
+                steps.put(new ArrayList<>(lastOrders.values()));
+            }
+            String result = algorithm.getResult();
+            finished = true;
+            steps.put(List.of(new FinalizeAlgorithmOrder()));
+            return result;
+        }
+
+        // A run that threw never sends its finalizing order, so the algorithm is finalized from here instead
+        @Override
+        protected void done() {
+            if (isCancelled() || algorithmTask != this) {
+                return;
+            }
+
+            try {
+                get();
+            } catch (ExecutionException e) {
+                failure = String.valueOf(e.getCause());
+                finalizeAlgorithmExecution();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // An order for an element overrides the ones before it, and goes after everything else kept so far
+        private static void keepLastOrders(Map<Object, ExternalGraphOrder> lastOrders, List<ExternalGraphOrder> orders) {
+            for (var order : orders) {
+                Object key = order instanceof RepaintGraphOrder ? ((RepaintGraphOrder) order).getElement() : order;
+                lastOrders.remove(key);
+                lastOrders.put(key, order);
+            }
+        }
+
+        // A failing trace only stops the recording, never the run itself
+        private TraceRecorder openTraceRecorder(TraceElements elements) {
+            if (tracePath == null) {
+                return null;
+            }
+
+            try {
+                return new TraceRecorder(tracePath, elements);
+            } catch (IOException e) {
+                traceFailure = e.getMessage();
+                return null;
+            }
+        }
+
+        private TraceRecorder recordStep(TraceRecorder recorder, List<ExternalGraphOrder> orders) {
+            if (recorder == null) {
+                return null;
+            }
+
+            try {
+                recorder.record(orders);
+                return recorder;
+            } catch (IOException e) {
+                traceFailure = e.getMessage();
+                try {
+                    recorder.abort();
+                } catch (IOException ignored) {
+                    // Already failing
+                }
+                return null;
+            }
+        }
+
+        // A run that stopped, finished or aborted, gets a complete trace. One that failed halfway is left incomplete
+        private void closeTraceRecorder(TraceRecorder recorder, boolean stopped) {
+            if (recorder == null) {
+                return;
+            }
+
+            try {
+                if (stopped) {
+                    recorder.setResult(isCancelled() ? "Aborted" : algorithm.getResult());
+                    recorder.close();
+                } else {
+                    recorder.abort();
+                }
+            } catch (IOException e) {
+                traceFailure = e.getMessage();
+            }
         }
     }
 
@@ -12,56 +12,68 @@ import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 
 // This class is needed because of 2 edges per vertex-to-vertex connection project requirement
-// And edges should be children of graph itself
+// And edges should be children of graph itself.
+// The pair holds what the edge is, the 2 Swing edges are created when it first becomes a Swing child, so the CANVAS
+// render mode, which draws edges itself, never creates any of them
 @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class GraphEdgePair implements AddableGraphChild {
     @Getter
     @EqualsAndHashCode.Include
-    private final GraphEdgeComponent mainEdge;
+    private final GraphNodeComponent from;
+    @Getter
     @EqualsAndHashCode.Include
-    private final GraphEdgeComponent secondEdge;
-    private final WeightLabelComponent weightLabel;
+    private final GraphNodeComponent to;
     @Getter
-    private Shape edgeShape;
-
-    public static GraphEdgePair createEdgePair(GraphComponent graph, GraphNodeComponent v1, GraphNodeComponent v2, int weight) {
-        GraphEdgeComponent firstEdge = new GraphEdgeComponent(graph, v1, v2, weight);
-        GraphEdgeComponent secondEdge = new GraphEdgeComponent(graph, v2, v1, weight);
-        WeightLabelComponent weightLabel = new WeightLabelComponent(String.valueOf(weight), firstEdge);
-
-        GraphEdgePair pair = new GraphEdgePair(firstEdge, secondEdge, weightLabel);
-        pair.configureEdgeShape();
-        firstEdge.setEdgePair(pair);
-        secondEdge.setEdgePair(pair);
-
-        return pair;
+    private final int weight;
+    @Getter
+    private Color color = GraphComponentStyle.DEFAULT_COLOR;
+    private int strokeSize = 1;
+    private GraphEdgeComponent mainEdge = null;
+    private GraphEdgeComponent secondEdge = null;
+    private WeightLabelComponent weightLabel = null;
+    private Shape edgeShape = null;
+
+    public static GraphEdgePair createEdgePair(GraphNodeComponent v1, GraphNodeComponent v2, int weight) {
+        return new GraphEdgePair(v1, v2, weight);
     }
 
-    public int getWeight() {
-        return mainEdge.getWeight();
+    // Relative to the bounding box of the endpoints, where both Swing edges sit
+    Shape getEdgeShape() {
+        if (edgeShape == null) {
+            edgeShape = configureEdgeShape();
+        }
+        return edgeShape;
     }
 
-    private void configureEdgeShape() {
-        GraphNodeComponent from = mainEdge.getFrom();
-        GraphNodeComponent to = mainEdge.getTo();
+    int getStrokeSize() {
+        return strokeSize;
+    }
 
+    private Shape configureEdgeShape() {
+        Rectangle box = from.getBoundingBox(to);
         Point2D firstAbsolute = from.getCenterPos();
         Point2D secondAbsolute = to.getCenterPos();
 
         Point2D firstRelative = new Point2D.Double(
-                firstAbsolute.getX() < secondAbsolute.getX() ? from.getRadius() : mainEdge.getWidth() - from.getRadius(),
-                firstAbsolute.getY() < secondAbsolute.getY() ? from.getRadius() : mainEdge.getHeight() - from.getRadius());
+                firstAbsolute.getX() < secondAbsolute.getX() ? from.getRadius() : box.getWidth() - from.getRadius(),
+                firstAbsolute.getY() < secondAbsolute.getY() ? from.getRadius() : box.getHeight() - from.getRadius());
 
         Point2D secondRelative = new Point2D.Double(
-                firstAbsolute.getX() >= secondAbsolute.getX() ? from.getRadius() : mainEdge.getWidth() - from.getRadius(),
-                firstAbsolute.getY() >= secondAbsolute.getY() ? from.getRadius() : mainEdge.getHeight() - from.getRadius());
+                firstAbsolute.getX() >= secondAbsolute.getX() ? from.getRadius() : box.getWidth() - from.getRadius(),
+                firstAbsolute.getY() >= secondAbsolute.getY() ? from.getRadius() : box.getHeight() - from.getRadius());
 
-        edgeShape = new Line2D.Double(firstRelative, secondRelative);
+        return new Line2D.Double(firstRelative, secondRelative);
     }
 
     @Override
     public void addToGraphImpl(GraphComponent graph) {
+        if (mainEdge == null) {
+            mainEdge = new GraphEdgeComponent(graph, this, from, to);
+            secondEdge = new GraphEdgeComponent(graph, this, to, from);
+            weightLabel = new WeightLabelComponent(String.valueOf(weight), this);
+            weightLabel.updateAppearance(graph.getAppearance());
+        }
         graph.add(weightLabel);
         graph.add(mainEdge);
         graph.add(secondEdge);
@@ -69,26 +81,29 @@ public class GraphEdgePair implements AddableGraphChild {
 
     @Override
     public void removeFromGraph(GraphComponent graph) {
-        graph.remove(mainEdge);
-        graph.remove(secondEdge);
-        graph.remove(weightLabel);
+        if (mainEdge != null) {
+            graph.remove(mainEdge);
+            graph.remove(secondEdge);
+            graph.remove(weightLabel);
+        }
     }
 
     @Override
     public void updateAppearance(GraphComponentStyle appearance) {
-        mainEdge.updateAppearance(appearance);
-        secondEdge.updateAppearance(appearance);
-        weightLabel.updateAppearance(appearance);
+        strokeSize = appearance.edgeStrokeSize();
+        color = appearance.edgeColor();
+        if (weightLabel != null) {
+            weightLabel.updateAppearance(appearance);
+        }
     }
 
     @Override
-    public void updateColor(Color color) {
-        mainEdge.updateColor(color);
-        secondEdge.updateColor(color);
+    public void updateColor(Color newColor) {
+        color = newColor;
     }
 
     @Override
     public Rectangle getBoundingBox() {
-        return mainEdge.getBoundingBox().union(secondEdge.getBoundingBox()).union(weightLabel.getBoundingBox());
+        return from.getBoundingBox(to).union(WeightLabelComponent.boundsFor(this));
     }
 }
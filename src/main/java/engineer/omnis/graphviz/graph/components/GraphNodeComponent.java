@@ -14,59 +14,51 @@ import java.awt.event.MouseEvent;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Point2D;
 
-@EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper = false)
-public class GraphNodeComponent extends JPanel implements AddableGraphChild {
+// The vertex itself is no Swing component. Its panel and label are created when it first becomes a Swing child,
+// so the CANVAS render mode, which draws vertices itself, never creates any of them
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class GraphNodeComponent implements AddableGraphChild {
     @Getter
     private final int radius = 20;
-    private final JLabel nodeLabel;
+    private VertexPanel panel = null;
+    // Top left corner of the vertex's disc
     private final Point pos;
     @Getter
     @EqualsAndHashCode.Include
-    private char id = '@';
+    private String id = "@";
+    @Getter
     private Color nodeColor = Color.WHITE;
     @Getter
     @Setter
     private boolean isActive = true;
 
-    public GraphNodeComponent(char id, Point pos, Dimension contentPaneSize) {
+    public GraphNodeComponent(String id, Point pos, Dimension contentPaneSize) {
         this.pos = pos;
         this.id = id;
-        setLayout(new BorderLayout());
-        setName("Vertex " + this.id);
-        setOpaque(false);
-
-        nodeLabel = new JLabel();
-        nodeLabel.setName("VertexLabel " + this.id);
-        nodeLabel.setText(Character.toString(this.id));
-        nodeLabel.setHorizontalAlignment(SwingConstants.CENTER);
-        add(nodeLabel, BorderLayout.CENTER);
-
         setupBounds(pos, contentPaneSize);
-
-        addMouseListener(new DefaultMouseListener() {
-            @Override
-            public void mousePressed(MouseEvent e) {
-                Container p = SwingUtilities.getUnwrappedParent(GraphNodeComponent.this);
-                e.setSource(GraphNodeComponent.this);
-                p.dispatchEvent(e);
-            }
-        });
     }
 
     @Override
     public void addToGraphImpl(GraphComponent graph) {
-        graph.add(this);
+        if (panel == null) {
+            panel = new VertexPanel(graph.getAppearance().nodeLabelFont());
+        }
+        graph.add(panel);
     }
 
     @Override
     public void removeFromGraph(GraphComponent graph) {
-        graph.remove(this);
+        if (panel != null) {
+            graph.remove(panel);
+        }
     }
 
     @Override
     public void updateAppearance(GraphComponentStyle appearance) {
         nodeColor = isActive() ? appearance.activeNodeColor() : appearance.inactiveNodeColor();
-        nodeLabel.setFont(appearance.nodeLabelFont());
+        if (panel != null) {
+            panel.nodeLabel.setFont(appearance.nodeLabelFont());
+        }
     }
 
     @Override
@@ -76,36 +68,66 @@ public class GraphNodeComponent extends JPanel implements AddableGraphChild {
 
     @Override
     public Rectangle getBoundingBox() {
-        return getBounds();
+        return new Rectangle(pos.x, pos.y, radius * 2, radius * 2);
     }
 
+    // Vertices on the canvas can be anywhere the view pans to, they come without a pane size to be clamped to
     public void setupBounds(Point center, Dimension d) {
-        center.x = Utility.clamp(center.x - radius, 0, d.width - 2 * radius);
-        center.y = Utility.clamp(center.y - radius, 0, d.height - 2 * radius);
-        setBounds(center.x, center.y, radius * 2, radius * 2);
+        center.x = d == null ? center.x - radius : Utility.clamp(center.x - radius, 0, d.width - 2 * radius);
+        center.y = d == null ? center.y - radius : Utility.clamp(center.y - radius, 0, d.height - 2 * radius);
+        if (panel != null) {
+            panel.setBounds(getBoundingBox());
+        }
     }
 
     public Point2D getCenterPos() {
         return new Point2D.Double(pos.x + radius, pos.y + radius);
     }
 
-    @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        Graphics2D g2d = (Graphics2D) g;
-
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-        Ellipse2D e = new Ellipse2D.Double(0.0, 0.0, radius * 2, radius * 2);
-        g2d.setColor(nodeColor);
-        g2d.fill(e);
-    }
-
     public Rectangle getBoundingBox(GraphNodeComponent other) {
-        return getBounds().union(other.getBounds());
+        return getBoundingBox().union(other.getBoundingBox());
     }
 
     public double distanceTo(GraphNodeComponent other) {
         return getCenterPos().distanceSq(other.getCenterPos());
     }
+
+    // Paints the vertex's current color and passes clicks on to the graph as clicks on the vertex
+    private final class VertexPanel extends JPanel {
+        private final JLabel nodeLabel = new JLabel();
+
+        VertexPanel(Font labelFont) {
+            setLayout(new BorderLayout());
+            setName("Vertex " + id);
+            setOpaque(false);
+            setBounds(getBoundingBox());
+
+            nodeLabel.setName("VertexLabel " + id);
+            nodeLabel.setText(id);
+            nodeLabel.setHorizontalAlignment(SwingConstants.CENTER);
+            nodeLabel.setFont(labelFont);
+            add(nodeLabel, BorderLayout.CENTER);
+
+            addMouseListener(new DefaultMouseListener() {
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    Container p = SwingUtilities.getUnwrappedParent(VertexPanel.this);
+                    e.setSource(GraphNodeComponent.this);
+                    p.dispatchEvent(e);
+                }
+            });
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            Graphics2D g2d = (Graphics2D) g;
+
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+            Ellipse2D e = new Ellipse2D.Double(0.0, 0.0, radius * 2, radius * 2);
+            g2d.setColor(nodeColor);
+            g2d.fill(e);
+        }
+    }
 }
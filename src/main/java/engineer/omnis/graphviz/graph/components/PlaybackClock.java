@@ -0,0 +1,72 @@
+package engineer.omnis.graphviz.graph.components;
+
+// Decides how many algorithm steps each frame shows. At normal speed that's one step per step interval, whatever
+// the frame rate. The time between frames is measured rather than assumed, so a late frame catches up instead of
+// slowing the playback down. Paused, only the steps asked for one by one are shown
+final class PlaybackClock {
+    static final double MIN_SPEED = 0.25;
+    static final double MAX_SPEED = 10_000.0;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private final double stepIntervalNanos;
+    // A frame shows at most that many, however long it was since the last one
+    private final int maxStepsPerFrame;
+    private double speed = 1.0;
+    private boolean paused = false;
+    private int pendingSteps = 0;
+    private double owedSteps = 0.0;
+    private long lastFrame = -1;
+
+    PlaybackClock(int stepIntervalMillis, int maxStepsPerFrame) {
+        this.stepIntervalNanos = stepIntervalMillis * NANOS_PER_MILLI;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    double getSpeed() {
+        return speed;
+    }
+
+    void setSpeed(double speed) {
+        if (!(speed >= MIN_SPEED && speed <= MAX_SPEED)) {
+            throw new IllegalArgumentException("Speed must be between " + MIN_SPEED + " and " + MAX_SPEED);
+        }
+        this.speed = speed;
+    }
+
+    boolean isPaused() {
+        return paused;
+    }
+
+    void setPaused(boolean paused) {
+        this.paused = paused;
+        pendingSteps = 0;
+        owedSteps = 0.0;
+    }
+
+    // Pauses, then shows one more step
+    void step() {
+        paused = true;
+        pendingSteps = Math.min(maxStepsPerFrame, pendingSteps + 1);
+    }
+
+    // The next frame is the first one of a run, nothing is owed for the time before it
+    void restart() {
+        lastFrame = -1;
+        pendingSteps = 0;
+        owedSteps = 0.0;
+    }
+
+    int stepsDue(long now) {
+        long elapsed = lastFrame < 0 ? 0 : now - lastFrame;
+        lastFrame = now;
+        if (paused) {
+            int due = pendingSteps;
+            pendingSteps = 0;
+            return due;
+        }
+
+        owedSteps = Math.min(maxStepsPerFrame, owedSteps + elapsed * speed / stepIntervalNanos);
+        int due = (int) owedSteps;
+        owedSteps -= due;
+        return due;
+    }
+}
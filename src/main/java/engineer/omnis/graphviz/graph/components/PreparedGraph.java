@@ -0,0 +1,90 @@
+package engineer.omnis.graphviz.graph.components;
+
+import engineer.omnis.graphviz.GraphModel;
+import engineer.omnis.graphviz.SpatialIndex;
+import engineer.omnis.graphviz.graph.GraphComponentStyle;
+import engineer.omnis.graphviz.graph.RenderMode;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+// A whole graph for a GraphComponent, built away from it and usually off the EDT: the vertices and edges, the model
+// with its snapshot, and the spatial indices. None of it is a Swing component, so all of it can be built on any
+// thread, and the GraphComponent only has to take it over. Vertices are laid out for one render mode, as only the
+// COMPONENTS mode keeps them within the pane
+public final class PreparedGraph {
+    private final RenderMode renderMode;
+    private final Dimension area;
+    private final GraphComponentStyle appearance;
+    private final GraphModel<GraphNodeComponent, GraphEdgePair> model = new GraphModel<>(GraphModel.AdjacencyMode.INDEXED);
+    private final SpatialIndex<GraphNodeComponent> vertexIndex = new SpatialIndex<>(GraphComponent.INDEX_CELL_SIZE);
+    private final SpatialIndex<GraphEdgePair> edgeIndex = new SpatialIndex<>(GraphComponent.INDEX_CELL_SIZE);
+    private final List<GraphNodeComponent> vertices;
+    private final List<GraphEdgePair> edges = new ArrayList<>();
+
+    PreparedGraph(RenderMode renderMode, Dimension area, GraphComponentStyle appearance, int vertexCount) {
+        this.renderMode = renderMode;
+        this.area = area;
+        this.appearance = appearance;
+        vertices = new ArrayList<>(vertexCount);
+    }
+
+    GraphModel<GraphNodeComponent, GraphEdgePair> getModel() {
+        return model;
+    }
+
+    SpatialIndex<GraphNodeComponent> getVertexIndex() {
+        return vertexIndex;
+    }
+
+    SpatialIndex<GraphEdgePair> getEdgeIndex() {
+        return edgeIndex;
+    }
+
+    List<GraphNodeComponent> getVertices() {
+        return vertices;
+    }
+
+    List<GraphEdgePair> getEdges() {
+        return edges;
+    }
+
+    public RenderMode getRenderMode() {
+        return renderMode;
+    }
+
+    public int vertexCount() {
+        return vertices.size();
+    }
+
+    public int edgeCount() {
+        return edges.size();
+    }
+
+    // Like a loaded vertex, it isn't selected
+    GraphNodeComponent addVertex(String vertexId, Point pos) {
+        GraphNodeComponent vertex = new GraphNodeComponent(vertexId, pos, renderMode == RenderMode.CANVAS ? null : area);
+        vertex.setActive(false);
+        vertex.updateAppearance(appearance);
+        if (model.addVertex(vertex)) {
+            vertices.add(vertex);
+            vertexIndex.addDisc(vertex, vertex.getCenterPos(), vertex.getRadius());
+        }
+        return vertex;
+    }
+
+    void addEdge(GraphNodeComponent from, GraphNodeComponent to, int weight) {
+        if (model.areConnected(from, to)) {
+            return;
+        }
+
+        GraphEdgePair edgePair = GraphEdgePair.createEdgePair(from, to, weight);
+        edgePair.updateAppearance(appearance);
+        model.connectVertices(from, to, edgePair);
+        model.connectVertices(to, from, edgePair);
+        edges.add(edgePair);
+        edgeIndex.addSegment(edgePair, from.getCenterPos(), to.getCenterPos(),
+                appearance.edgeStrokeSize() / 2.0 + GraphComponent.EDGE_HIT_TOLERANCE);
+    }
+}
@@ -0,0 +1,156 @@
+package engineer.omnis.graphviz.graph.components;
+
+import engineer.omnis.graphviz.graph.UpdatableGraphChild;
+import engineer.omnis.graphviz.graph.orders.ColorUpdateOrder;
+import engineer.omnis.graphviz.graph.orders.ExternalGraphOrder;
+import engineer.omnis.graphviz.trace.TraceElements;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+// The colors every vertex and edge had after each step of a run, so the view can jump back and forth through it.
+// Each step keeps its color changes as (element, color) pairs in one growing array, like a trace does, and every so
+// often the colors of all elements are kept as a keyframe. Jumping to a step starts from the keyframe before it and
+// replays what's left. A keyframe is taken once KEYFRAME_INTERVAL steps have gone by and they changed at least as many
+// colors as there are elements, so keyframes never take more memory than the changes themselves.
+// A run too long to keep, past MAX_CHANGES changes or MAX_STEPS steps, drops its timeline and records nothing more,
+// so a timeline never takes more than about 150 MB however long the run goes on.
+// Recorded by the thread running the algorithm, then only used on the EDT once the run is over
+final class RunTimeline {
+    private static final int KEYFRAME_INTERVAL = 64;
+    private static final int INITIAL_CAPACITY = 1024;
+    // 64 MB of changes, keyframes take at most half as much
+    private static final int MAX_CHANGES = 8_388_608;
+    private static final int MAX_STEPS = 4_194_304;
+    private final TraceElements elements;
+    // The colors after the step the view is at, ARGB
+    private final int[] shown;
+    private final List<int[]> keyframes = new ArrayList<>();
+    private int[] keyframeSteps = new int[INITIAL_CAPACITY];
+    private int[] stepStarts = new int[INITIAL_CAPACITY];
+    private int[] changedElements = new int[INITIAL_CAPACITY];
+    private int[] changedColors = new int[INITIAL_CAPACITY];
+    private int stepCount = 0;
+    private int changeCount = 0;
+    private int position = 0;
+    private boolean dropped = false;
+
+    RunTimeline(TraceElements elements) {
+        this.elements = elements;
+        shown = new int[elements.size()];
+        for (int i = 0; i < shown.length; ++i) {
+            shown[i] = colorOf(elements.element(i)).getRGB();
+        }
+        keyframes.add(shown.clone());
+    }
+
+    private static Color colorOf(UpdatableGraphChild element) {
+        if (element instanceof GraphNodeComponent vertex) {
+            return vertex.getNodeColor();
+        }
+        return ((GraphEdgePair) element).getColor();
+    }
+
+    int length() {
+        return stepCount;
+    }
+
+    int position() {
+        return position;
+    }
+
+    boolean isDropped() {
+        return dropped;
+    }
+
+    // Only color updates count, like in a trace
+    void record(List<ExternalGraphOrder> orders) {
+        if (dropped) {
+            return;
+        }
+
+        for (ExternalGraphOrder order : orders) {
+            if (order instanceof ColorUpdateOrder colorUpdate) {
+                int element = elements.indexOf(colorUpdate.getElement());
+                if (element == -1) {
+                    continue;
+                }
+                if (changeCount == MAX_CHANGES) {
+                    drop();
+                    return;
+                }
+                addChange(element, colorUpdate.getNewColor().getRGB());
+            }
+        }
+
+        if (stepCount == MAX_STEPS) {
+            drop();
+            return;
+        }
+        if (stepCount + 1 == stepStarts.length) {
+            stepStarts = Arrays.copyOf(stepStarts, 2 * stepStarts.length);
+        }
+        stepStarts[++stepCount] = changeCount;
+        position = stepCount;
+
+        int lastKeyframe = keyframes.size() - 1;
+        if (stepCount - keyframeSteps[lastKeyframe] >= KEYFRAME_INTERVAL
+                && changeCount - stepStarts[keyframeSteps[lastKeyframe]] >= shown.length) {
+            if (keyframes.size() == keyframeSteps.length) {
+                keyframeSteps = Arrays.copyOf(keyframeSteps, 2 * keyframeSteps.length);
+            }
+            keyframeSteps[keyframes.size()] = stepCount;
+            keyframes.add(shown.clone());
+        }
+    }
+
+    private void addChange(int element, int color) {
+        if (changeCount == changedElements.length) {
+            changedElements = Arrays.copyOf(changedElements, 2 * changeCount);
+            changedColors = Arrays.copyOf(changedColors, 2 * changeCount);
+        }
+        changedElements[changeCount] = element;
+        changedColors[changeCount] = color;
+        ++changeCount;
+        shown[element] = color;
+    }
+
+    private void drop() {
+        dropped = true;
+        keyframes.clear();
+        keyframeSteps = new int[0];
+        stepStarts = new int[0];
+        changedElements = new int[0];
+        changedColors = new int[0];
+        stepCount = 0;
+        changeCount = 0;
+        position = 0;
+    }
+
+    // Reports every element whose color differs between the step the view is at and the given one
+    void seek(int step, BiConsumer<UpdatableGraphChild, Color> changed) {
+        if (step < 0 || step > stepCount) {
+            throw new IllegalArgumentException("The run has no step " + step);
+        }
+
+        int keyframe = Arrays.binarySearch(keyframeSteps, 0, keyframes.size(), step);
+        if (keyframe < 0) {
+            keyframe = -keyframe - 2;
+        }
+        int[] colors = keyframes.get(keyframe).clone();
+        for (int change = stepStarts[keyframeSteps[keyframe]]; change < stepStarts[step]; ++change) {
+            colors[changedElements[change]] = changedColors[change];
+        }
+
+        for (int i = 0; i < shown.length; ++i) {
+            if (colors[i] != shown[i]) {
+                shown[i] = colors[i];
+                changed.accept(elements.element(i), new Color(colors[i], true));
+            }
+        }
+        position = step;
+    }
+}
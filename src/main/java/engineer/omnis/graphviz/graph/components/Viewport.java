@@ -0,0 +1,82 @@
+package engineer.omnis.graphviz.graph.components;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+
+// Maps graph coordinates onto the screen for the CANVAS render mode: screen = graph * scale + offset.
+// Graph coordinates are what the vertices were placed with, so the identity shows the graph as the COMPONENTS
+// render mode does. Zooming keeps the point under the cursor in place
+final class Viewport {
+    private static final double MIN_SCALE = 0.01;
+    private static final double MAX_SCALE = 16.0;
+    private double scale = 1.0;
+    private double offsetX = 0.0;
+    private double offsetY = 0.0;
+
+    double getScale() {
+        return scale;
+    }
+
+    AffineTransform getTransform() {
+        AffineTransform transform = AffineTransform.getTranslateInstance(offsetX, offsetY);
+        transform.scale(scale, scale);
+        return transform;
+    }
+
+    double screenX(double graphX) {
+        return graphX * scale + offsetX;
+    }
+
+    double screenY(double graphY) {
+        return graphY * scale + offsetY;
+    }
+
+    Point2D toGraph(Point2D screen) {
+        return new Point2D.Double((screen.getX() - offsetX) / scale, (screen.getY() - offsetY) / scale);
+    }
+
+    Rectangle2D toGraph(Rectangle screen) {
+        return new Rectangle2D.Double((screen.x - offsetX) / scale, (screen.y - offsetY) / scale,
+                screen.width / scale, screen.height / scale);
+    }
+
+    // Rounded outwards, so repainting it covers the whole area
+    Rectangle toScreen(Rectangle2D graph) {
+        int left = (int) Math.floor(screenX(graph.getMinX()));
+        int top = (int) Math.floor(screenY(graph.getMinY()));
+        int right = (int) Math.ceil(screenX(graph.getMaxX()));
+        int bottom = (int) Math.ceil(screenY(graph.getMaxY()));
+        return new Rectangle(left, top, right - left, bottom - top);
+    }
+
+    void panBy(double dx, double dy) {
+        offsetX += dx;
+        offsetY += dy;
+    }
+
+    void zoomAt(Point2D screen, double factor) {
+        double newScale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale * factor));
+        Point2D anchor = toGraph(screen);
+        scale = newScale;
+        offsetX = screen.getX() - anchor.getX() * scale;
+        offsetY = screen.getY() - anchor.getY() * scale;
+    }
+
+    // Centers the area on the screen, as big as it fits with the margin around it
+    void fit(Rectangle2D graph, Dimension screen, double margin) {
+        double width = Math.max(1.0, screen.width - 2 * margin);
+        double height = Math.max(1.0, screen.height - 2 * margin);
+        scale = Math.max(MIN_SCALE, Math.min(MAX_SCALE,
+                Math.min(width / Math.max(1.0, graph.getWidth()), height / Math.max(1.0, graph.getHeight()))));
+        offsetX = screen.width / 2.0 - graph.getCenterX() * scale;
+        offsetY = screen.height / 2.0 - graph.getCenterY() * scale;
+    }
+
+    void reset() {
+        scale = 1.0;
+        offsetX = 0.0;
+        offsetY = 0.0;
+    }
+}
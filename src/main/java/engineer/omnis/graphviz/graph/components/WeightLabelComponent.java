@@ -10,9 +10,11 @@ import java.awt.geom.Point2D;
 
 public class WeightLabelComponent extends JComponent implements AddableGraphChild {
     public static final int CONTAINER_RADIUS = 15;
+    // Fraction of the way from the source vertex to the target one
+    static final double POSITION_ON_EDGE = 0.2;
     private final JLabel label;
 
-    public WeightLabelComponent(String labelText, GraphEdgeComponent edge) {
+    public WeightLabelComponent(String labelText, GraphEdgePair edge) {
         setLayout(new BorderLayout());
 
         label = new JLabel(labelText);
@@ -20,16 +22,15 @@ public class WeightLabelComponent extends JComponent implements AddableGraphChil
         label.setHorizontalAlignment(SwingConstants.CENTER);
         add(label, BorderLayout.CENTER);
 
-        setName("EdgeLabel <" + edge.getConnectedVertices() + ">");
-        setupBounds(edge);
+        setName("EdgeLabel <" + edge.getFrom().getId() + " -> " + edge.getTo().getId() + ">");
+        setBounds(boundsFor(edge));
     }
 
-    @SuppressWarnings("checkstyle:magicnumber")
-    private void setupBounds(GraphEdgeComponent edge) {
+    static Rectangle boundsFor(GraphEdgePair edge) {
         GraphNodeComponent from = edge.getFrom();
         GraphNodeComponent to = edge.getTo();
 
-        double distanceFromSource = 0.2;
+        double distanceFromSource = POSITION_ON_EDGE;
         Point2D fromPos = from.getCenterPos();
         Point2D toPos = to.getCenterPos();
 
@@ -44,7 +45,7 @@ public class WeightLabelComponent extends JComponent implements AddableGraphChil
         int labelX = (int) x;
         int labelY = (int) y;
 
-        setBounds(labelX, labelY, CONTAINER_RADIUS * 2, CONTAINER_RADIUS * 2);
+        return new Rectangle(labelX, labelY, CONTAINER_RADIUS * 2, CONTAINER_RADIUS * 2);
     }
 
     @Override
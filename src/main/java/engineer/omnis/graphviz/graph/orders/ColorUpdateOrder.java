@@ -2,10 +2,12 @@ package engineer.omnis.graphviz.graph.orders;
 
 import engineer.omnis.graphviz.graph.components.GraphComponent;
 import engineer.omnis.graphviz.graph.UpdatableGraphChild;
+import lombok.Getter;
 
 import java.awt.*;
 
 public class ColorUpdateOrder extends RepaintGraphOrder {
+    @Getter
     private final Color newColor;
 
     public ColorUpdateOrder(UpdatableGraphChild element, Color newColor) {
@@ -0,0 +1,384 @@
+package engineer.omnis.graphviz.io;
+
+import engineer.omnis.graphviz.CompactGraph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.CRC32C;
+import java.util.function.IntFunction;
+
+// Our own binary graph format, so a saved graph loads without any parsing.
+// Layout, little-endian, every section starting at a multiple of 8 bytes:
+//   header       magic, version, flags, vertex count, arc count, label bytes, CRC32C of everything after the header
+//   offsets      int[vertexCount + 1], CSR offsets as in CompactGraph
+//   targets      int[arcCount]
+//   weights      int[arcCount]
+//   positions    double[2 * vertexCount], x and y interleaved, if FLAG_POSITIONS is set
+//   labels       int[vertexCount + 1] offsets into the UTF-8 label bytes that follow, if FLAG_LABELS is set
+// The file is written with one gathering write to a temporary file that then replaces the target. Opening checks it
+// and maps it, reads go straight to the mapped sections and nothing is copied until toCompactGraph(). Every section
+// has to fit into a single mapping, i.e. stay below 2 GB
+public final class BinaryGraphFile {
+    public static final String EXTENSION = ".gbin";
+    public static final int VERSION = 1;
+    private static final int MAGIC = 0x5A495647;
+    private static final int FLAG_POSITIONS = 1;
+    private static final int FLAG_LABELS = 2;
+    private static final int HEADER_BYTES = 48;
+    private static final int ALIGNMENT = 8;
+    // Vertices are placed at int pixel coordinates, with room left for their size
+    private static final double MAX_COORDINATE = 1e9;
+    private final Layout layout;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer weights;
+    private final DoubleBuffer positions;
+    private final IntBuffer labelOffsets;
+    private final ByteBuffer labelData;
+
+    private BinaryGraphFile(Layout layout, IntBuffer offsets, IntBuffer targets, IntBuffer weights,
+                            DoubleBuffer positions, IntBuffer labelOffsets, ByteBuffer labelData) {
+        this.layout = layout;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.positions = positions;
+        this.labelOffsets = labelOffsets;
+        this.labelData = labelData;
+    }
+
+    // labels may be null
+    public static void write(Path path, CompactGraph<?, ?> graph, IntFunction<String> labels) throws IOException {
+        int vertexCount = graph.vertexCount();
+        byte[][] encodedLabels = null;
+        long labelBytes = 0;
+        if (labels != null) {
+            encodedLabels = new byte[vertexCount][];
+            for (int v = 0; v < vertexCount; ++v) {
+                encodedLabels[v] = labels.apply(v).getBytes(StandardCharsets.UTF_8);
+                labelBytes += encodedLabels[v].length;
+            }
+        }
+
+        int flags = (graph.hasPositions() ? FLAG_POSITIONS : 0) | (labels != null ? FLAG_LABELS : 0);
+        Layout layout = new Layout(vertexCount, graph.arcCount(), flags, labelBytes);
+        ByteBuffer[] sections = new ByteBuffer[Section.values().length];
+
+        IntBuffer offsetSection = allocate(sections, layout, Section.OFFSETS).asIntBuffer();
+        for (int v = 0; v < vertexCount; ++v) {
+            offsetSection.put(graph.firstArc(v));
+        }
+        offsetSection.put(graph.arcCount());
+
+        IntBuffer targetSection = allocate(sections, layout, Section.TARGETS).asIntBuffer();
+        IntBuffer weightSection = allocate(sections, layout, Section.WEIGHTS).asIntBuffer();
+        for (int arc = 0; arc < graph.arcCount(); ++arc) {
+            targetSection.put(graph.target(arc));
+            weightSection.put(graph.weight(arc));
+        }
+
+        if (graph.hasPositions()) {
+            DoubleBuffer positionSection = allocate(sections, layout, Section.POSITIONS).asDoubleBuffer();
+            for (int v = 0; v < vertexCount; ++v) {
+                positionSection.put(graph.x(v)).put(graph.y(v));
+            }
+        }
+
+        if (encodedLabels != null) {
+            IntBuffer labelOffsetSection = allocate(sections, layout, Section.LABEL_OFFSETS).asIntBuffer();
+            ByteBuffer labelSection = allocate(sections, layout, Section.LABEL_DATA);
+            for (byte[] label : encodedLabels) {
+                labelOffsetSection.put(labelSection.position());
+                labelSection.put(label);
+            }
+            labelOffsetSection.put(labelSection.position());
+            labelSection.clear();
+        }
+
+        CRC32C checksum = new CRC32C();
+        for (ByteBuffer section : sections) {
+            if (section != null) {
+                checksum.update(section.duplicate());
+            }
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(MAGIC).putInt(VERSION).putInt(flags).putInt(vertexCount).putInt(graph.arcCount()).putInt(0)
+                .putLong(labelBytes).putLong(checksum.getValue()).putLong(0).flip();
+
+        ByteBuffer[] buffers = new ByteBuffer[sections.length + 1];
+        buffers[0] = header;
+        System.arraycopy(sections, 0, buffers, 1, sections.length);
+        for (int i = 1; i < buffers.length; ++i) {
+            if (buffers[i] == null) {
+                buffers[i] = ByteBuffer.allocate(0);
+            }
+        }
+
+        // Written next to the target and moved over it once complete, so a failed save leaves the old file intact
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                // A gathering write may stop early, e.g. when interrupted by a signal, so it's repeated until done
+                long remaining = layout.fileBytes();
+                while (remaining > 0) {
+                    remaining -= channel.write(buffers);
+                }
+                channel.force(true);
+            }
+            Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+    }
+
+    public static BinaryGraphFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IllegalArgumentException("Not a graph file");
+            }
+
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a graph file");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported graph file version " + version);
+            }
+
+            int flags = header.getInt();
+            int vertexCount = header.getInt();
+            int arcCount = header.getInt();
+            header.getInt();
+            long labelBytes = header.getLong();
+            long expectedChecksum = header.getLong();
+            if (vertexCount < 0 || arcCount < 0 || labelBytes < 0) {
+                throw new IllegalArgumentException("Corrupted graph file header");
+            }
+
+            Layout layout = new Layout(vertexCount, arcCount, flags, labelBytes);
+            if (layout.fileBytes() != channel.size()) {
+                throw new IllegalArgumentException("Graph file is truncated or corrupted");
+            }
+
+            ByteBuffer[] sections = new ByteBuffer[Section.values().length];
+            CRC32C checksum = new CRC32C();
+            for (Section section : Section.values()) {
+                if (layout.isPresent(section)) {
+                    sections[section.ordinal()] = channel.map(FileChannel.MapMode.READ_ONLY, layout.start(section),
+                            layout.paddedBytes(section)).order(ByteOrder.LITTLE_ENDIAN);
+                    checksum.update(sections[section.ordinal()].duplicate());
+                }
+            }
+            if (checksum.getValue() != expectedChecksum) {
+                throw new IllegalArgumentException("Graph file checksum mismatch");
+            }
+
+            // The checksum only proves the file is what was written, not that it was written right
+            IntBuffer offsets = sections[Section.OFFSETS.ordinal()].asIntBuffer();
+            IntBuffer targets = sections[Section.TARGETS.ordinal()].asIntBuffer();
+            IntBuffer labelOffsets = layout.isPresent(Section.LABEL_OFFSETS)
+                    ? sections[Section.LABEL_OFFSETS.ordinal()].asIntBuffer() : null;
+            if (!isMonotonic(offsets, vertexCount + 1, arcCount)) {
+                throw new IllegalArgumentException("Graph file has malformed arc offsets");
+            }
+            for (int arc = 0; arc < arcCount; ++arc) {
+                int target = targets.get(arc);
+                if (target < 0 || target >= vertexCount) {
+                    throw new IllegalArgumentException("Graph file has an arc to a missing vertex " + target);
+                }
+            }
+            if (labelOffsets != null && !isMonotonic(labelOffsets, vertexCount + 1, labelBytes)) {
+                throw new IllegalArgumentException("Graph file has malformed label offsets");
+            }
+
+            DoubleBuffer positions = layout.isPresent(Section.POSITIONS)
+                    ? sections[Section.POSITIONS.ordinal()].asDoubleBuffer() : null;
+            for (int i = 0; positions != null && i < 2 * vertexCount; ++i) {
+                // Also false for NaN
+                if (!(Math.abs(positions.get(i)) <= MAX_COORDINATE)) {
+                    throw new IllegalArgumentException("Graph file has an invalid position " + positions.get(i));
+                }
+            }
+
+            // Vertices are told apart by their labels, a second vertex with the same one couldn't be added
+            ByteBuffer labelData = sections[Section.LABEL_DATA.ordinal()];
+            if (labelOffsets != null) {
+                Set<String> labels = new HashSet<>();
+                for (int v = 0; v < vertexCount; ++v) {
+                    String label = decodeLabel(labelOffsets, labelData, v);
+                    if (!labels.add(label)) {
+                        throw new IllegalArgumentException("Graph file has more than one vertex labelled " + label);
+                    }
+                }
+            }
+
+            return new BinaryGraphFile(layout, offsets, targets, sections[Section.WEIGHTS.ordinal()].asIntBuffer(),
+                    positions, labelOffsets, labelData);
+        }
+    }
+
+    // Whether the first count values go from 0 up to end without ever decreasing
+    private static boolean isMonotonic(IntBuffer values, int count, long end) {
+        int previous = 0;
+        for (int i = 0; i < count; ++i) {
+            int value = values.get(i);
+            if (value < previous) {
+                return false;
+            }
+            previous = value;
+        }
+        return values.get(0) == 0 && previous == end;
+    }
+
+    private static ByteBuffer allocate(ByteBuffer[] sections, Layout layout, Section section) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) layout.paddedBytes(section)).order(ByteOrder.LITTLE_ENDIAN);
+        sections[section.ordinal()] = buffer;
+        return buffer;
+    }
+
+    public int vertexCount() {
+        return layout.vertexCount();
+    }
+
+    public int arcCount() {
+        return layout.arcCount();
+    }
+
+    public int firstArc(int v) {
+        return offsets.get(v);
+    }
+
+    public int endArc(int v) {
+        return offsets.get(v + 1);
+    }
+
+    public int target(int arc) {
+        return targets.get(arc);
+    }
+
+    public int weight(int arc) {
+        return weights.get(arc);
+    }
+
+    public boolean hasPositions() {
+        return positions != null;
+    }
+
+    public double x(int v) {
+        return positions.get(2 * v);
+    }
+
+    public double y(int v) {
+        return positions.get(2 * v + 1);
+    }
+
+    public boolean hasLabels() {
+        return labelOffsets != null;
+    }
+
+    public String label(int v) {
+        if (labelOffsets == null) {
+            return String.valueOf(v);
+        }
+
+        return decodeLabel(labelOffsets, labelData, v);
+    }
+
+    private static String decodeLabel(IntBuffer labelOffsets, ByteBuffer labelData, int v) {
+        byte[] bytes = new byte[labelOffsets.get(v + 1) - labelOffsets.get(v)];
+        labelData.get(labelOffsets.get(v), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Copies the mapped arrays into a CompactGraph, with bulk copies only
+    public CompactGraph<Integer, Void> toCompactGraph() {
+        int[] offsetArray = new int[vertexCount() + 1];
+        int[] targetArray = new int[arcCount()];
+        int[] weightArray = new int[arcCount()];
+        offsets.get(0, offsetArray);
+        targets.get(0, targetArray);
+        weights.get(0, weightArray);
+
+        CompactGraph<Integer, Void> graph = CompactGraph.fromArrays(offsetArray, targetArray, weightArray);
+        if (positions == null) {
+            return graph;
+        }
+
+        double[] xs = new double[vertexCount()];
+        double[] ys = new double[vertexCount()];
+        for (int v = 0; v < vertexCount(); ++v) {
+            xs[v] = x(v);
+            ys[v] = y(v);
+        }
+        return graph.withPositions(xs, ys);
+    }
+
+    private enum Section {
+        OFFSETS,
+        TARGETS,
+        WEIGHTS,
+        POSITIONS,
+        LABEL_OFFSETS,
+        LABEL_DATA
+    }
+
+    private record Layout(int vertexCount, int arcCount, int flags, long labelBytes) {
+        boolean isPresent(Section section) {
+            return switch (section) {
+                case OFFSETS, TARGETS, WEIGHTS -> true;
+                case POSITIONS -> (flags & FLAG_POSITIONS) != 0;
+                case LABEL_OFFSETS, LABEL_DATA -> (flags & FLAG_LABELS) != 0;
+            };
+        }
+
+        long bytes(Section section) {
+            if (!isPresent(section)) {
+                return 0;
+            }
+            return switch (section) {
+                case OFFSETS, LABEL_OFFSETS -> (vertexCount + 1L) * Integer.BYTES;
+                case TARGETS, WEIGHTS -> (long) arcCount * Integer.BYTES;
+                case POSITIONS -> 2L * vertexCount * Double.BYTES;
+                case LABEL_DATA -> labelBytes;
+            };
+        }
+
+        long paddedBytes(Section section) {
+            long bytes = (bytes(section) + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+            if (bytes > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Graph is too large for the binary graph format");
+            }
+            return bytes;
+        }
+
+        long start(Section section) {
+            long start = HEADER_BYTES;
+            for (Section previous : Section.values()) {
+                if (previous == section) {
+                    break;
+                }
+                start += paddedBytes(previous);
+            }
+            return start;
+        }
+
+        long fileBytes() {
+            return start(Section.LABEL_DATA) + paddedBytes(Section.LABEL_DATA);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package engineer.omnis.graphviz.io;
+
+import java.util.Locale;
+
+// Text formats GraphImporter understands:
+// SNAP edge lists have "from to [weight]" lines with 0-based IDs and '#' comments, and every line is one arc.
+// DIMACS shortest path files (.gr) have a "p sp n m" problem line and "a from to weight" arcs with 1-based IDs.
+// Matrix Market coordinate files (.mtx) have a banner, '%' comments, a "rows columns entries" line and 1-based
+// "row column [value]" entries. Symmetric matrices store each off-diagonal edge once, it becomes two arcs
+public enum GraphFormat {
+    SNAP,
+    DIMACS,
+    MATRIX_MARKET;
+
+    public static GraphFormat forFileName(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".gr")) {
+            return DIMACS;
+        }
+        if (name.endsWith(".mtx")) {
+            return MATRIX_MARKET;
+        }
+        return SNAP;
+    }
+}
@@ -0,0 +1,471 @@
+package engineer.omnis.graphviz.io;
+
+import engineer.omnis.graphviz.CompactGraph;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+
+// Loads large graph files straight into a CompactGraph.
+// The file is memory-mapped and cut into chunks on line boundaries: a chunk owns every line that starts inside it,
+// so chunks can be parsed in parallel, and a chunk maps only its own region, so files beyond 2 GB work as well.
+// Numbers are parsed right from the mapped bytes without creating Strings or boxing anything.
+// Arcs go through two passes, one counting out-degrees and one filling the CSR arrays at their final positions.
+// SNAP files need one more pass up front to find the largest vertex ID, which is taken as vertex count - 1.
+// Afterward, each vertex's arcs are sorted by target, so the result doesn't depend on thread scheduling
+public final class GraphImporter {
+    // 64 MiB
+    private static final long CHUNK_BYTES = 67_108_864;
+    private static final int CHUNKS_PER_THREAD = 4;
+    // A chunk also maps this many bytes past its end to finish its last line
+    private static final int MAX_LINE_BYTES = 65_536;
+    private static final int VERTEX_GRAIN = 4096;
+    // Largest array length every JVM can allocate
+    private static final int MAX_ARCS = Integer.MAX_VALUE - 8;
+    private final ForkJoinPool pool;
+    private final long chunkBytes;
+
+    public GraphImporter() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public GraphImporter(ForkJoinPool pool) {
+        this(pool, CHUNK_BYTES);
+    }
+
+    // Chunks of at most the given size, so that small files are cut as well, e.g. in the middle of lines
+    GraphImporter(ForkJoinPool pool, long chunkBytes) {
+        this.pool = pool;
+        this.chunkBytes = chunkBytes;
+    }
+
+    public CompactGraph<Integer, Void> importGraph(Path path, GraphFormat format) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return importGraph(channel, format);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private CompactGraph<Integer, Void> importGraph(FileChannel channel, GraphFormat format) throws IOException {
+        Header header = readHeader(channel, format);
+        long dataBytes = channel.size() - header.dataStart();
+        int chunks = (int) Math.max(1, Math.max(
+                Math.min(pool.getParallelism() * CHUNKS_PER_THREAD, dataBytes / MAX_LINE_BYTES),
+                (dataBytes + chunkBytes - 1) / chunkBytes));
+        ChunkedFile file = new ChunkedFile(channel, header, format, chunks);
+
+        int vertexCount = header.vertexCount();
+        if (vertexCount < 0) {
+            long[] maxIds = new long[chunks];
+            Arrays.fill(maxIds, -1);
+            runChunks(chunks, chunk -> file.forEachArc(chunk, (from, to, weight) ->
+                    maxIds[chunk] = Math.max(maxIds[chunk], Math.max(from, to))));
+            long maxId = Arrays.stream(maxIds).max().orElse(-1);
+            if (maxId >= Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Vertex ID " + maxId + " is too large");
+            }
+            vertexCount = (int) maxId + 1;
+        }
+
+        int n = vertexCount;
+        AtomicIntegerArray degrees = new AtomicIntegerArray(n);
+        runChunks(chunks, chunk -> file.forEachArc(chunk, (from, to, weight) -> {
+            checkId(from, n, header);
+            checkId(to, n, header);
+            degrees.getAndIncrement((int) from);
+        }));
+
+        int[] offsets = new int[n + 1];
+        long arcCount = 0;
+        for (int v = 0; v < n; ++v) {
+            offsets[v] = (int) arcCount;
+            arcCount += degrees.get(v);
+            if (arcCount > MAX_ARCS) {
+                throw new IllegalArgumentException("Too many arcs for a single CompactGraph");
+            }
+        }
+        offsets[n] = (int) arcCount;
+
+        AtomicIntegerArray next = new AtomicIntegerArray(Arrays.copyOf(offsets, n));
+        int[] targets = new int[(int) arcCount];
+        int[] weights = new int[(int) arcCount];
+        runChunks(chunks, chunk -> file.forEachArc(chunk, (from, to, weight) -> {
+            int arc = next.getAndIncrement((int) from);
+            targets[arc] = (int) to;
+            weights[arc] = weight;
+        }));
+
+        sortArcs(offsets, targets, weights);
+        return CompactGraph.fromArrays(offsets, targets, weights);
+    }
+
+    private void sortArcs(int[] offsets, int[] targets, int[] weights) {
+        int vertexCount = offsets.length - 1;
+        int chunks = (int) Math.max(1, Math.min(pool.getParallelism() * CHUNKS_PER_THREAD,
+                ((long) vertexCount + VERTEX_GRAIN - 1) / VERTEX_GRAIN));
+        int chunkLength = (vertexCount + chunks - 1) / chunks;
+        runChunks(chunks, chunk -> {
+            long[] keys = new long[0];
+            for (int v = chunk * chunkLength; v < Math.min(vertexCount, (chunk + 1) * chunkLength); ++v) {
+                int first = offsets[v];
+                int degree = offsets[v + 1] - first;
+                if (degree < 2) {
+                    continue;
+                }
+                if (keys.length < degree) {
+                    keys = new long[Math.max(degree, 2 * keys.length)];
+                }
+
+                for (int i = 0; i < degree; ++i) {
+                    keys[i] = (long) targets[first + i] << Integer.SIZE | Integer.toUnsignedLong(weights[first + i]);
+                }
+                Arrays.sort(keys, 0, degree);
+                for (int i = 0; i < degree; ++i) {
+                    targets[first + i] = (int) (keys[i] >>> Integer.SIZE);
+                    weights[first + i] = (int) keys[i];
+                }
+            }
+        });
+    }
+
+    private void runChunks(int chunks, IntConsumer chunkAction) {
+        if (chunks == 1) {
+            chunkAction.accept(0);
+            return;
+        }
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chunks);
+        for (int chunk = 0; chunk < chunks; ++chunk) {
+            int index = chunk;
+            tasks.add(ForkJoinTask.adapt(() -> chunkAction.accept(index)));
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+
+    // Header lines are few and at the start, so they are read sequentially
+    @SuppressWarnings("checkstyle:magicnumber")
+    private static Header readHeader(FileChannel channel, GraphFormat format) throws IOException {
+        if (format == GraphFormat.SNAP) {
+            return new Header(0, -1, 0, false);
+        }
+
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), Integer.MAX_VALUE));
+        ByteCursor cursor = new ByteCursor(buffer, 0);
+        if (format == GraphFormat.DIMACS) {
+            while (!cursor.isAtEnd()) {
+                if (cursor.peek() == 'p') {
+                    cursor.skip(1);
+                    cursor.nextWord();
+                    long vertexCount = cursor.nextLong();
+                    checkVertexCount(vertexCount);
+                    return new Header(0, (int) vertexCount, 1, false);
+                }
+                cursor.skipLine();
+            }
+            throw new IllegalArgumentException("DIMACS file without a problem line");
+        }
+
+        String banner = cursor.nextLineText().toLowerCase(Locale.ROOT);
+        String[] words = banner.trim().split("\\s+");
+        if (words.length < 5 || !words[0].equals("%%matrixmarket") || !words[1].equals("matrix")) {
+            throw new IllegalArgumentException("Not a Matrix Market file");
+        }
+        if (!words[2].equals("coordinate") || words[3].equals("complex")
+                || !(words[4].equals("general") || words[4].equals("symmetric"))) {
+            throw new IllegalArgumentException("Only general or symmetric coordinate matrices of real, integer or pattern values are supported");
+        }
+
+        while (!cursor.isAtEnd() && (cursor.peek() == '%' || cursor.isBlankLine())) {
+            cursor.skipLine();
+        }
+        long rows = cursor.nextLong();
+        long columns = cursor.nextLong();
+        cursor.skipLine();
+        checkVertexCount(Math.max(rows, columns));
+        return new Header(cursor.position(), (int) Math.max(rows, columns), 1, words[4].equals("symmetric"));
+    }
+
+    private static void checkId(long id, int vertexCount, Header header) {
+        if (id < 0 || id >= vertexCount) {
+            throw new IllegalArgumentException("Vertex ID " + (id + header.firstId()) + " is out of range for "
+                    + vertexCount + " vertices");
+        }
+    }
+
+    private static void checkVertexCount(long vertexCount) {
+        if (vertexCount >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(vertexCount + " vertices are too many for a single CompactGraph");
+        }
+    }
+
+    // dataStart is where arcs may begin, vertexCount is -1 if the file doesn't state it
+    private record Header(long dataStart, int vertexCount, int firstId, boolean symmetric) {
+    }
+
+    @FunctionalInterface
+    private interface ArcVisitor {
+        // IDs are already 0-based
+        void visit(long from, long to, int weight);
+    }
+
+    private static final class ChunkedFile {
+        private final FileChannel channel;
+        private final Header header;
+        private final GraphFormat format;
+        private final long[] boundaries;
+
+        private ChunkedFile(FileChannel channel, Header header, GraphFormat format, int chunks) {
+            this.channel = channel;
+            this.header = header;
+            this.format = format;
+            boundaries = new long[chunks + 1];
+            long size;
+            try {
+                size = channel.size();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            for (int chunk = 0; chunk <= chunks; ++chunk) {
+                boundaries[chunk] = header.dataStart() + (size - header.dataStart()) * chunk / chunks;
+            }
+        }
+
+        void forEachArc(int chunk, ArcVisitor visitor) {
+            long start = boundaries[chunk];
+            long end = boundaries[chunk + 1];
+            // One byte before the chunk tells whether its first line starts right at the boundary
+            long mapStart = start > header.dataStart() ? start - 1 : start;
+            long mapEnd = Math.min(boundaries[boundaries.length - 1], end + MAX_LINE_BYTES);
+            MappedByteBuffer buffer;
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            ByteCursor cursor = new ByteCursor(buffer, mapStart);
+            if (mapStart < start && buffer.get(0) != '\n') {
+                cursor.skipLine();
+            } else if (mapStart < start) {
+                cursor.skip(1);
+            }
+
+            int ownedEnd = (int) (end - mapStart);
+            boolean truncated = mapEnd < boundaries[boundaries.length - 1];
+            while (cursor.position() < ownedEnd && !cursor.isAtEnd()) {
+                parseLine(cursor, visitor);
+                if (!cursor.skipLine() && truncated) {
+                    throw new IllegalArgumentException("Line longer than " + MAX_LINE_BYTES + " bytes");
+                }
+            }
+        }
+
+        private void parseLine(ByteCursor cursor, ArcVisitor visitor) {
+            if (cursor.isBlankLine()) {
+                return;
+            }
+
+            byte first = cursor.peek();
+            switch (format) {
+                case SNAP -> {
+                    if (first == '#' || first == '%') {
+                        return;
+                    }
+                    long from = cursor.nextLong();
+                    long to = cursor.nextLong();
+                    int weight = cursor.isBlankLine() ? 1 : toWeight(cursor.nextDouble());
+                    visitor.visit(from, to, weight);
+                }
+                case DIMACS -> {
+                    if (first != 'a') {
+                        return;
+                    }
+                    cursor.skip(1);
+                    long from = cursor.nextLong() - 1;
+                    long to = cursor.nextLong() - 1;
+                    visitor.visit(from, to, toWeight(cursor.nextDouble()));
+                }
+                case MATRIX_MARKET -> {
+                    if (first == '%') {
+                        return;
+                    }
+                    long from = cursor.nextLong() - 1;
+                    long to = cursor.nextLong() - 1;
+                    int weight = cursor.isBlankLine() ? 1 : toWeight(cursor.nextDouble());
+                    visitor.visit(from, to, weight);
+                    if (header.symmetric() && from != to) {
+                        visitor.visit(to, from, weight);
+                    }
+                }
+                default -> throw new UnsupportedOperationException("Unsupported format");
+            }
+        }
+
+        private static int toWeight(double value) {
+            long weight = Math.round(value);
+            if (weight != (int) weight) {
+                throw new IllegalArgumentException("Weight " + value + " doesn't fit into an int");
+            }
+            return (int) weight;
+        }
+    }
+
+    // Reads numbers and lines from a byte buffer without allocating. fileOffset is where the buffer starts in the file
+    private static final class ByteCursor {
+        private static final int RADIX = 10;
+        private static final int MAX_ID_DIGITS = 18;
+        private static final int MAX_EXPONENT = 400;
+        // Powers of ten that doubles represent exactly
+        private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22,
+        };
+        private final MappedByteBuffer buffer;
+        private final long fileOffset;
+        private final int limit;
+        private int position = 0;
+
+        private ByteCursor(MappedByteBuffer buffer, long fileOffset) {
+            this.buffer = buffer;
+            this.fileOffset = fileOffset;
+            limit = buffer.limit();
+        }
+
+        int position() {
+            return position;
+        }
+
+        boolean isAtEnd() {
+            return position >= limit;
+        }
+
+        byte peek() {
+            return buffer.get(position);
+        }
+
+        void skip(int bytes) {
+            position += bytes;
+        }
+
+        // Moves past the next line break, returns false if there was none
+        boolean skipLine() {
+            while (position < limit) {
+                if (buffer.get(position++) == '\n') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // True if only blanks are left on the current line. Skips them
+        boolean isBlankLine() {
+            skipBlanks();
+            return position >= limit || buffer.get(position) == '\n';
+        }
+
+        private void skipBlanks() {
+            while (position < limit) {
+                byte b = buffer.get(position);
+                if (b != ' ' && b != '\t' && b != '\r' && b != ',') {
+                    return;
+                }
+                ++position;
+            }
+        }
+
+        void nextWord() {
+            skipBlanks();
+            while (position < limit && buffer.get(position) > ' ') {
+                ++position;
+            }
+        }
+
+        long nextLong() {
+            skipBlanks();
+            int start = position;
+            long value = 0;
+            while (position < limit) {
+                int digit = buffer.get(position) - '0';
+                if (digit < 0 || digit >= RADIX) {
+                    break;
+                }
+                value = value * RADIX + digit;
+                ++position;
+            }
+            if (position == start || position - start > MAX_ID_DIGITS) {
+                throw new IllegalArgumentException("Expected a vertex ID at byte " + (fileOffset + start));
+            }
+            return value;
+        }
+
+        // Plain decimal numbers with an optional sign, fraction and exponent
+        double nextDouble() {
+            skipBlanks();
+            int start = position;
+            boolean negative = position < limit && buffer.get(position) == '-';
+            if (negative || position < limit && buffer.get(position) == '+') {
+                ++position;
+            }
+
+            double mantissa = 0;
+            int exponent = 0;
+            boolean digits = false;
+            boolean fraction = false;
+            while (position < limit) {
+                byte b = buffer.get(position);
+                if (b >= '0' && b <= '9') {
+                    mantissa = mantissa * RADIX + (b - '0');
+                    exponent -= fraction ? 1 : 0;
+                    digits = true;
+                } else if (b == '.' && !fraction) {
+                    fraction = true;
+                } else {
+                    break;
+                }
+                ++position;
+            }
+            if (!digits) {
+                throw new IllegalArgumentException("Expected a number at byte " + (fileOffset + start));
+            }
+
+            if (position < limit && (buffer.get(position) == 'e' || buffer.get(position) == 'E')) {
+                ++position;
+                boolean negativeExponent = position < limit && buffer.get(position) == '-';
+                if (negativeExponent || position < limit && buffer.get(position) == '+') {
+                    ++position;
+                }
+                long explicitExponent = nextLong();
+                exponent += (int) Math.min(MAX_EXPONENT, explicitExponent) * (negativeExponent ? -1 : 1);
+            }
+
+            // Dividing by an exact power of ten is more precise than multiplying by an inexact one
+            double value = exponent >= 0 ? mantissa * powerOfTen(exponent) : mantissa / powerOfTen(-exponent);
+            return negative ? -value : value;
+        }
+
+        private static double powerOfTen(int exponent) {
+            return exponent < POWERS_OF_TEN.length ? POWERS_OF_TEN[exponent] : Math.pow(RADIX, exponent);
+        }
+
+        String nextLineText() {
+            int start = position;
+            skipLine();
+            byte[] bytes = new byte[position - start];
+            buffer.get(start, bytes);
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package engineer.omnis.graphviz.trace;
+
+import engineer.omnis.graphviz.GraphModel;
+import engineer.omnis.graphviz.GraphSnapshot;
+import engineer.omnis.graphviz.graph.UpdatableGraphChild;
+import engineer.omnis.graphviz.graph.components.GraphEdgePair;
+import engineer.omnis.graphviz.graph.components.GraphNodeComponent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Numbers the vertices and edge pairs of a graph for a trace. Traces refer to vertices by ID and to edges by their
+// endpoints, so a trace recorded on one machine replays on any graph with the same IDs and edges, e.g. a saved one
+public final class TraceElements {
+    private final List<UpdatableGraphChild> elements;
+    private final Map<UpdatableGraphChild, Integer> indices = new HashMap<>();
+    private final int vertexCount;
+
+    private TraceElements(List<UpdatableGraphChild> elements, int vertexCount) {
+        this.elements = elements;
+        this.vertexCount = vertexCount;
+        for (int i = 0; i < elements.size(); ++i) {
+            indices.put(elements.get(i), i);
+        }
+    }
+
+    public static TraceElements of(GraphModel<GraphNodeComponent, GraphEdgePair> model) {
+        GraphSnapshot<GraphNodeComponent, GraphEdgePair> snapshot = model.snapshot();
+        List<UpdatableGraphChild> elements = new ArrayList<>(snapshot.getVertices());
+        for (GraphNodeComponent v : snapshot.getVertices()) {
+            for (var neighbor : snapshot.getNeighbors(v)) {
+                // Every pair is stored in both directions but numbered once, from its main edge
+                if (neighbor.getValue().getFrom().equals(v)) {
+                    elements.add(neighbor.getValue());
+                }
+            }
+        }
+        return new TraceElements(elements, snapshot.getVertices().size());
+    }
+
+    public static TraceElements resolve(TraceReader trace, GraphModel<GraphNodeComponent, GraphEdgePair> model) {
+        Map<String, GraphNodeComponent> verticesById = new HashMap<>();
+        for (GraphNodeComponent v : model.getVertices()) {
+            verticesById.put(v.getId(), v);
+        }
+
+        List<UpdatableGraphChild> elements = new ArrayList<>();
+        for (int v = 0; v < trace.vertexCount(); ++v) {
+            GraphNodeComponent vertex = verticesById.get(trace.vertexId(v));
+            if (vertex == null) {
+                throw new IllegalArgumentException("The trace doesn't match the graph: no vertex " + trace.vertexId(v));
+            }
+            elements.add(vertex);
+        }
+        for (int e = 0; e < trace.edgeCount(); ++e) {
+            GraphNodeComponent from = (GraphNodeComponent) elements.get(trace.edgeFrom(e));
+            GraphNodeComponent to = (GraphNodeComponent) elements.get(trace.edgeTo(e));
+            elements.add(model.getEdgeBetween(from, to).orElseThrow(() -> new IllegalArgumentException(
+                    "The trace doesn't match the graph: no edge " + from.getId() + " - " + to.getId())));
+        }
+        return new TraceElements(elements, trace.vertexCount());
+    }
+
+    public int size() {
+        return elements.size();
+    }
+
+    public UpdatableGraphChild element(int index) {
+        return elements.get(index);
+    }
+
+    // -1 for elements that aren't part of the graph
+    public int indexOf(UpdatableGraphChild element) {
+        return indices.getOrDefault(element, -1);
+    }
+
+    String[] vertexIds() {
+        String[] ids = new String[vertexCount];
+        for (int v = 0; v < vertexCount; ++v) {
+            ids[v] = ((GraphNodeComponent) elements.get(v)).getId();
+        }
+        return ids;
+    }
+
+    int[] edgeEndpoints() {
+        int[] endpoints = new int[2 * (elements.size() - vertexCount)];
+        for (int e = vertexCount; e < elements.size(); ++e) {
+            GraphEdgePair pair = (GraphEdgePair) elements.get(e);
+            endpoints[2 * (e - vertexCount)] = indices.get(pair.getFrom());
+            endpoints[2 * (e - vertexCount) + 1] = indices.get(pair.getTo());
+        }
+        return endpoints;
+    }
+}
@@ -0,0 +1,198 @@
+package engineer.omnis.graphviz.trace;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Random access to a recorded run through a memory-mapped file. Layout, little-endian:
+//   header    magic, version, vertex count, edge count, trailer offset (0 while recording), records offset
+//   elements  per vertex an int length and its UTF-8 id, then two vertex indices per edge
+//   records   8 bytes each, the element index and the color index, whose top bit marks the first record of a step
+//   trailer   record count, step count, color count, result length, ARGB colors, UTF-8 result,
+//             then the index of the first record of every step, so any step can be found without scanning
+// Records are mapped in windows, so a trace isn't limited by the 2 GB of a single mapping
+public final class TraceReader {
+    private static final int WINDOW_RECORD_BITS = 27;
+    private static final long WINDOW_RECORDS = 1L << WINDOW_RECORD_BITS;
+    private final String[] vertexIds;
+    private final int[] edgeEndpoints;
+    private final IntBuffer[] recordWindows;
+    private final long recordCount;
+    private final LongBuffer stepStarts;
+    private final Color[] colors;
+    private final String result;
+
+    private TraceReader(String[] vertexIds, int[] edgeEndpoints, IntBuffer[] recordWindows, long recordCount,
+                        LongBuffer stepStarts, Color[] colors, String result) {
+        this.vertexIds = vertexIds;
+        this.edgeEndpoints = edgeEndpoints;
+        this.recordWindows = recordWindows;
+        this.recordCount = recordCount;
+        this.stepStarts = stepStarts;
+        this.colors = colors;
+        this.result = result;
+    }
+
+    public static TraceReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileBytes = channel.size();
+            if (fileBytes < TraceWriter.HEADER_BYTES) {
+                throw new IllegalArgumentException("Not a trace file");
+            }
+
+            ByteBuffer header = map(channel, 0, TraceWriter.HEADER_BYTES);
+            if (header.getInt() != TraceWriter.MAGIC) {
+                throw new IllegalArgumentException("Not a trace file");
+            }
+            int version = header.getInt();
+            if (version != TraceWriter.VERSION) {
+                throw new IllegalArgumentException("Unsupported trace version " + version);
+            }
+            int vertexCount = header.getInt();
+            int edgeCount = header.getInt();
+            long trailerOffset = header.getLong();
+            long recordsOffset = header.getLong();
+            if (trailerOffset == 0) {
+                throw new IllegalArgumentException("The trace is incomplete, its run didn't finish recording");
+            }
+            if (vertexCount < 0 || edgeCount < 0 || recordsOffset < TraceWriter.HEADER_BYTES
+                    || trailerOffset < recordsOffset || trailerOffset > fileBytes) {
+                throw new IllegalArgumentException("Corrupted trace header");
+            }
+
+            ByteBuffer elements = map(channel, TraceWriter.HEADER_BYTES, recordsOffset - TraceWriter.HEADER_BYTES);
+            String[] vertexIds = new String[vertexCount];
+            for (int v = 0; v < vertexCount; ++v) {
+                byte[] id = new byte[elements.getInt()];
+                elements.get(id);
+                vertexIds[v] = new String(id, StandardCharsets.UTF_8);
+            }
+            int[] edgeEndpoints = new int[2 * edgeCount];
+            elements.asIntBuffer().get(edgeEndpoints);
+            for (int endpoint : edgeEndpoints) {
+                if (endpoint < 0 || endpoint >= vertexCount) {
+                    throw new IllegalArgumentException("Corrupted trace: edge endpoint " + endpoint);
+                }
+            }
+
+            ByteBuffer trailer = map(channel, trailerOffset, fileBytes - trailerOffset);
+            long recordCount = trailer.getLong();
+            long stepCount = trailer.getLong();
+            Color[] colors = new Color[trailer.getInt()];
+            byte[] result = new byte[trailer.getInt()];
+            if (recordCount != (trailerOffset - recordsOffset) / TraceWriter.RECORD_BYTES) {
+                throw new IllegalArgumentException("Corrupted trace trailer");
+            }
+            for (int i = 0; i < colors.length; ++i) {
+                colors[i] = new Color(trailer.getInt(), true);
+            }
+            trailer.get(result);
+            trailer.position((int) TraceWriter.align(trailer.position()));
+            LongBuffer stepStarts = trailer.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            if (stepStarts.limit() != stepCount) {
+                throw new IllegalArgumentException("Corrupted trace trailer");
+            }
+            long previousStart = 0;
+            for (int step = 0; step < stepCount; ++step) {
+                long start = stepStarts.get(step);
+                if (start < previousStart || start > recordCount) {
+                    throw new IllegalArgumentException("Corrupted trace: step " + step + " starts at record " + start);
+                }
+                previousStart = start;
+            }
+
+            IntBuffer[] recordWindows = new IntBuffer[(int) ((recordCount + WINDOW_RECORDS - 1) / WINDOW_RECORDS)];
+            for (int w = 0; w < recordWindows.length; ++w) {
+                long first = w * WINDOW_RECORDS;
+                long records = Math.min(WINDOW_RECORDS, recordCount - first);
+                recordWindows[w] = map(channel, recordsOffset + first * TraceWriter.RECORD_BYTES,
+                        records * TraceWriter.RECORD_BYTES).asIntBuffer();
+            }
+
+            checkRecords(recordWindows, (long) vertexCount + edgeCount, colors.length);
+            return new TraceReader(vertexIds, edgeEndpoints, recordWindows, recordCount, stepStarts, colors,
+                    new String(result, StandardCharsets.UTF_8));
+        }
+    }
+
+    // One sequential pass over the mapped records, so that replays can't fail halfway through on a bad index
+    private static void checkRecords(IntBuffer[] recordWindows, long elementCount, int colorCount) {
+        for (IntBuffer window : recordWindows) {
+            for (int i = 0; i < window.limit(); i += 2) {
+                int element = window.get(i);
+                int color = window.get(i + 1) & ~TraceWriter.STEP_START;
+                if (element < 0 || element >= elementCount || color >= colorCount) {
+                    throw new IllegalArgumentException("Corrupted trace: record of element " + element
+                            + " and color " + color);
+                }
+            }
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Trace section too large to map");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public int vertexCount() {
+        return vertexIds.length;
+    }
+
+    public String vertexId(int v) {
+        return vertexIds[v];
+    }
+
+    public int edgeCount() {
+        return edgeEndpoints.length / 2;
+    }
+
+    public int edgeFrom(int edge) {
+        return edgeEndpoints[2 * edge];
+    }
+
+    public int edgeTo(int edge) {
+        return edgeEndpoints[2 * edge + 1];
+    }
+
+    public long recordCount() {
+        return recordCount;
+    }
+
+    public long stepCount() {
+        return stepStarts.limit();
+    }
+
+    public long stepStart(long step) {
+        return stepStarts.get((int) step);
+    }
+
+    public long stepEnd(long step) {
+        return step + 1 < stepCount() ? stepStart(step + 1) : recordCount;
+    }
+
+    // Vertices first, then edges, as in the element table
+    public int element(long record) {
+        return window(record).get(2 * (int) (record & (WINDOW_RECORDS - 1)));
+    }
+
+    public Color color(long record) {
+        return colors[window(record).get(2 * (int) (record & (WINDOW_RECORDS - 1)) + 1) & ~TraceWriter.STEP_START];
+    }
+
+    private IntBuffer window(long record) {
+        return recordWindows[(int) (record >>> WINDOW_RECORD_BITS)];
+    }
+
+    public String getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,46 @@
+package engineer.omnis.graphviz.trace;
+
+import engineer.omnis.graphviz.graph.orders.ColorUpdateOrder;
+import engineer.omnis.graphviz.graph.orders.ExternalGraphOrder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+// Writes the order batches of a run to a trace, one step per batch. Only color updates are kept,
+// the rest of the orders are about driving the run rather than what it shows
+public final class TraceRecorder implements Closeable {
+    private final TraceElements elements;
+    private final TraceWriter writer;
+
+    public TraceRecorder(Path path, TraceElements elements) throws IOException {
+        this.elements = elements;
+        writer = new TraceWriter(path, elements.vertexIds(), elements.edgeEndpoints());
+    }
+
+    public void record(List<ExternalGraphOrder> orders) throws IOException {
+        writer.beginStep();
+        for (ExternalGraphOrder order : orders) {
+            if (order instanceof ColorUpdateOrder colorUpdate) {
+                int element = elements.indexOf(colorUpdate.getElement());
+                if (element != -1) {
+                    writer.record(element, colorUpdate.getNewColor());
+                }
+            }
+        }
+    }
+
+    public void setResult(String result) {
+        writer.setResult(result);
+    }
+
+    public void abort() throws IOException {
+        writer.abort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
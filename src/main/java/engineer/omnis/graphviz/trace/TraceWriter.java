@@ -0,0 +1,176 @@
+package engineer.omnis.graphviz.trace;
+
+import java.awt.*;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Streams an algorithm run to disk as it happens, see TraceReader for the layout. Elements are plain indices into
+// the element table given up front: the vertices first, then the edges as pairs of vertex indices.
+// Writes go through RandomAccessFile rather than a FileChannel, so cancelling a run by interrupting its thread
+// doesn't close the file under the writer
+public final class TraceWriter implements Closeable {
+    static final int MAGIC = 0x52545647;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int RECORD_BYTES = 8;
+    static final int STEP_START = Integer.MIN_VALUE;
+    private static final int BUFFER_BYTES = 1_048_576;
+    private static final int TRAILER_OFFSET_POSITION = 16;
+    private static final int INITIAL_STEP_CAPACITY = 1024;
+    private final RandomAccessFile file;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final int elementCount;
+    private final Map<Color, Integer> colorIndices = new HashMap<>();
+    private long[] stepStarts = new long[INITIAL_STEP_CAPACITY];
+    private long stepCount = 0;
+    private long recordCount = 0;
+    private boolean stepPending = false;
+    private String result = "";
+
+    public TraceWriter(Path path, String[] vertexIds, int[] edgeEndpoints) throws IOException {
+        if (edgeEndpoints.length % 2 != 0) {
+            throw new IllegalArgumentException("Edges need two endpoints each");
+        }
+
+        elementCount = vertexIds.length + edgeEndpoints.length / 2;
+        file = new RandomAccessFile(path.toFile(), "rw");
+        file.setLength(0);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(vertexIds.length).putInt(edgeEndpoints.length / 2);
+        // Trailer offset, zero until the trace is closed
+        header.putLong(0);
+        long tableBytes = 0;
+        byte[][] encodedIds = new byte[vertexIds.length][];
+        for (int v = 0; v < vertexIds.length; ++v) {
+            encodedIds[v] = vertexIds[v].getBytes(StandardCharsets.UTF_8);
+            tableBytes += Integer.BYTES + encodedIds[v].length;
+        }
+        tableBytes += (long) edgeEndpoints.length * Integer.BYTES;
+        header.putLong(align(HEADER_BYTES + tableBytes));
+        write(header.flip());
+
+        for (byte[] id : encodedIds) {
+            ensureCapacity(Integer.BYTES);
+            buffer.putInt(id.length);
+            putBytes(id);
+        }
+        for (int endpoint : edgeEndpoints) {
+            if (endpoint < 0 || endpoint >= vertexIds.length) {
+                throw new IllegalArgumentException("Edge endpoint " + endpoint + " is not a vertex");
+            }
+            ensureCapacity(Integer.BYTES);
+            buffer.putInt(endpoint);
+        }
+        pad(HEADER_BYTES + tableBytes);
+    }
+
+    static long align(long bytes) {
+        return (bytes + RECORD_BYTES - 1) / RECORD_BYTES * RECORD_BYTES;
+    }
+
+    // The next record starts a new step. Steps without records are dropped, like the animation skips them
+    public void beginStep() {
+        stepPending = true;
+    }
+
+    public void record(int element, Color color) throws IOException {
+        if (element < 0 || element >= elementCount) {
+            throw new IllegalArgumentException("Element " + element + " is not in the element table");
+        }
+
+        int colorIndex = colorIndices.computeIfAbsent(color, c -> colorIndices.size());
+        if (stepPending || stepCount == 0) {
+            if (stepCount == stepStarts.length) {
+                stepStarts = Arrays.copyOf(stepStarts, stepStarts.length * 2);
+            }
+            stepStarts[(int) stepCount++] = recordCount;
+            colorIndex |= STEP_START;
+            stepPending = false;
+        }
+
+        ensureCapacity(RECORD_BYTES);
+        buffer.putInt(element).putInt(colorIndex);
+        ++recordCount;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            long trailerOffset = file.getFilePointer() + buffer.position();
+            Color[] colors = new Color[colorIndices.size()];
+            colorIndices.forEach((color, index) -> colors[index] = color);
+            byte[] encodedResult = result.getBytes(StandardCharsets.UTF_8);
+
+            ensureCapacity(2 * Long.BYTES + 2 * Integer.BYTES);
+            buffer.putLong(recordCount).putLong(stepCount).putInt(colors.length).putInt(encodedResult.length);
+            for (Color color : colors) {
+                ensureCapacity(Integer.BYTES);
+                buffer.putInt(color.getRGB());
+            }
+            putBytes(encodedResult);
+            pad(trailerOffset + 2 * Long.BYTES + 2 * Integer.BYTES + (long) colors.length * Integer.BYTES
+                    + encodedResult.length);
+            for (int step = 0; step < stepCount; ++step) {
+                ensureCapacity(Long.BYTES);
+                buffer.putLong(stepStarts[step]);
+            }
+            flush();
+
+            // Only a complete trace gets its trailer offset, so a crashed run is recognizable as such
+            file.seek(TRAILER_OFFSET_POSITION);
+            write(ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(trailerOffset).flip());
+        } finally {
+            file.close();
+        }
+    }
+
+    // Closes the file without a trailer, leaving an incomplete trace that TraceReader refuses
+    public void abort() throws IOException {
+        file.close();
+    }
+
+    private void pad(long writtenBytes) throws IOException {
+        int padding = (int) (align(writtenBytes) - writtenBytes);
+        ensureCapacity(padding);
+        buffer.put(new byte[padding]);
+    }
+
+    // In as many pieces as it takes, the bytes can be longer than the buffer
+    private void putBytes(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            ensureCapacity(1);
+            int count = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, count);
+            offset += count;
+        }
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        write(buffer.flip());
+        buffer.clear();
+    }
+
+    private void write(ByteBuffer bytes) throws IOException {
+        file.write(bytes.array(), bytes.position(), bytes.remaining());
+    }
+}
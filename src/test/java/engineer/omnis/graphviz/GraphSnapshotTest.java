@@ -0,0 +1,120 @@
+package engineer.omnis.graphviz;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GraphSnapshotTest {
+    private static final int VERTEX_COUNT = 200;
+    private static final int OPERATIONS = 30_000;
+    private static final int CHECK_INTERVAL = 1_000;
+    // Most edges start at the hub, so its row fills up and is emptied often enough to be packed again and again
+    private static final int HUB = 0;
+
+    @Test
+    void matchesTheModelUnderRandomEdits() {
+        for (var mode : GraphModel.AdjacencyMode.values()) {
+            for (int seed = 0; seed < 3; ++seed) {
+                checkRandomEdits(mode, new Random(seed));
+            }
+        }
+    }
+
+    // Both modes keep every row in insertion order, which is the order snapshots hand out too
+    private static void checkRandomEdits(GraphModel.AdjacencyMode mode, Random random) {
+        GraphModel<Integer, Integer> model = new GraphModel<>(mode);
+        for (int v = 0; v < VERTEX_COUNT; ++v) {
+            model.addVertex(v);
+        }
+        List<GraphSnapshot<Integer, Integer>> versions = new ArrayList<>();
+        List<Map<Integer, List<SimpleEntry<Integer, Integer>>>> expectedVersions = new ArrayList<>();
+
+        for (int operation = 0; operation < OPERATIONS; ++operation) {
+            int from = random.nextInt(3) == 0 ? random.nextInt(VERTEX_COUNT) : HUB;
+            int to = random.nextInt(VERTEX_COUNT);
+            switch (random.nextInt(8)) {
+                case 0, 1, 2 -> model.connectVertices(from, to, random.nextInt(10));
+                case 3, 4, 5 -> model.removeEdge(from, to);
+                case 6 -> {
+                    // Removes the vertex with all its edges, then brings it back without any
+                    model.removeVertex(to);
+                    model.addVertex(to);
+                }
+                default -> {
+                    // A removed and re-added edge goes to the end of the row, in the model as in the snapshot
+                    model.removeEdge(HUB, to);
+                    model.connectVertices(HUB, to, random.nextInt(10));
+                }
+            }
+
+            GraphSnapshot<Integer, Integer> snapshot = model.snapshot();
+            assertEquals(model.getVersion(), snapshot.getVersion());
+            assertEquals(model.getNeighbors(from), snapshot.getNeighbors(from));
+            assertEquals(model.getEdgeBetween(from, to), snapshot.getEdgeBetween(from, to));
+            if (operation % CHECK_INTERVAL == 0) {
+                assertSameGraph(model, snapshot);
+                assertSameGraph(model, GraphSnapshot.of(model, model.getVersion()));
+                versions.add(snapshot);
+                expectedVersions.add(rows(model));
+            }
+        }
+
+        // Older snapshots still show the graph as it was when they were taken
+        for (int i = 0; i < versions.size(); ++i) {
+            assertEquals(expectedVersions.get(i), rows(versions.get(i)));
+        }
+    }
+
+    @Test
+    void rowIndexingSkipsRemovedEdges() {
+        GraphModel<Integer, Integer> model = new GraphModel<>(GraphModel.AdjacencyMode.LIST);
+        for (int v = 0; v < VERTEX_COUNT; ++v) {
+            model.addVertex(v);
+        }
+        for (int v = 1; v < VERTEX_COUNT; ++v) {
+            model.connectVertices(HUB, v, v);
+        }
+        // Fewer than half removed, so the gaps stay
+        for (int v = 1; v < VERTEX_COUNT / 3; v += 2) {
+            model.removeEdge(HUB, v);
+        }
+
+        var expected = model.getNeighbors(HUB);
+        var neighbors = model.snapshot().getNeighbors(HUB);
+        assertEquals(expected.size(), neighbors.size());
+        for (int i = 0; i < expected.size(); ++i) {
+            assertEquals(expected.get(i), neighbors.get(i));
+        }
+        assertNull(model.snapshot().getNeighbors(VERTEX_COUNT));
+    }
+
+    private static void assertSameGraph(GraphModel<Integer, Integer> model, GraphSnapshot<Integer, Integer> snapshot) {
+        assertEquals(model.getVertices(), new HashSet<>(snapshot.getVertices()));
+        assertEquals(rows(model), rows(snapshot));
+        for (int v : model.getVertices()) {
+            assertEquals(model.getPredecessors(v), snapshot.getPredecessors(v));
+            for (var neighbor : model.getNeighbors(v)) {
+                assertEquals(model.getEdgeBetween(v, neighbor.getKey()), snapshot.getEdgeBetween(v, neighbor.getKey()));
+            }
+        }
+    }
+
+    private static Map<Integer, List<SimpleEntry<Integer, Integer>>> rows(GraphView<Integer, Integer> graph) {
+        Map<Integer, List<SimpleEntry<Integer, Integer>>> rows = new HashMap<>();
+        Set<Integer> vertices = graph.getVertices();
+        for (int v : vertices) {
+            rows.put(v, new ArrayList<>(graph.getNeighbors(v)));
+        }
+        return rows;
+    }
+}
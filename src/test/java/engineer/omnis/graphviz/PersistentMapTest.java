@@ -0,0 +1,147 @@
+package engineer.omnis.graphviz;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersistentMapTest {
+    private static final int OPERATIONS = 20_000;
+    private static final int KEY_RANGE = 1_500;
+    private static final int CHECK_INTERVAL = 500;
+    private static final int SEEDS = 3;
+
+    // Hashes to key ids with, from spread out to all of them colliding
+    private static final Map<String, IntUnaryOperator> HASHES = Map.of(
+            "spread", id -> id * 0x9E3779B9,
+            "few full collisions", id -> id % 7,
+            "all colliding", id -> 42,
+            // Equal in the lower 27 bits, so keys only part five levels down, and some are negative
+            "long common prefix", id -> (id % 37) << 27 | 0x5A5A5A5,
+            "sequential", id -> id);
+
+    @Test
+    void matchesHashMapUnderRandomUpdates() {
+        for (var hash : HASHES.entrySet()) {
+            for (int seed = 0; seed < SEEDS; ++seed) {
+                checkRandomUpdates(hash.getValue(), new Random(seed), hash.getKey());
+            }
+        }
+    }
+
+    @Test
+    void removingEverythingLeavesAnEmptyMap() {
+        for (var hash : HASHES.entrySet()) {
+            Random random = new Random(1);
+            PersistentMap<Key, Integer> map = PersistentMap.empty();
+            Map<Key, Integer> expected = new HashMap<>();
+            for (int id = 0; id < KEY_RANGE; ++id) {
+                Key key = new Key(id, hash.getValue().applyAsInt(id));
+                map = map.plus(key, id);
+                expected.put(key, id);
+            }
+
+            List<Key> keys = new ArrayList<>(expected.keySet());
+            Collections.shuffle(keys, random);
+            for (int i = 0; i < keys.size(); ++i) {
+                map = map.minus(keys.get(i));
+                expected.remove(keys.get(i));
+                assertFalse(map.containsKey(keys.get(i)), hash.getKey());
+                if (i % CHECK_INTERVAL == 0 || keys.size() - i < CHECK_INTERVAL / 10) {
+                    assertSameContent(expected, map, hash.getKey());
+                }
+            }
+            assertTrue(map.isEmpty(), hash.getKey());
+            assertFalse(map.iterator().hasNext(), hash.getKey());
+
+            // And it still works as a fresh map
+            map = map.plus(keys.get(0), 1);
+            assertEquals(1, map.size());
+            assertEquals(1, map.get(keys.get(0)));
+        }
+    }
+
+    @Test
+    void updatesReturnTheSameMapWhenNothingChanges() {
+        Integer value = 1;
+        Key key = new Key(1, 1);
+        PersistentMap<Key, Integer> map = PersistentMap.<Key, Integer>empty().plus(key, value);
+        assertSame(map, map.plus(key, value));
+        assertSame(map, map.minus(new Key(2, 1)));
+        assertSame(map, map.minus(new Key(2, 2)));
+    }
+
+    private static void checkRandomUpdates(IntUnaryOperator hash, Random random, String name) {
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        Map<Key, Integer> expected = new HashMap<>();
+        // Earlier versions, which no later update may change
+        List<PersistentMap<Key, Integer>> versions = new ArrayList<>();
+        List<Map<Key, Integer>> expectedVersions = new ArrayList<>();
+
+        for (int operation = 0; operation < OPERATIONS; ++operation) {
+            int id = random.nextInt(KEY_RANGE);
+            Key key = new Key(id, hash.applyAsInt(id));
+            if (random.nextInt(3) == 0) {
+                map = map.minus(key);
+                expected.remove(key);
+            } else {
+                // Null values are allowed, and some updates keep the value the key already has
+                Integer value = random.nextInt(10) == 0 ? null : random.nextInt(5);
+                map = map.plus(key, value);
+                expected.put(key, value);
+            }
+
+            assertEquals(expected.size(), map.size(), name);
+            assertEquals(expected.containsKey(key), map.containsKey(key), name);
+            assertEquals(expected.get(key), map.get(key), name);
+            if (operation % CHECK_INTERVAL == 0) {
+                assertSameContent(expected, map, name);
+                versions.add(map);
+                expectedVersions.add(new HashMap<>(expected));
+            }
+        }
+
+        assertSameContent(expected, map, name);
+        for (int i = 0; i < versions.size(); ++i) {
+            assertSameContent(expectedVersions.get(i), versions.get(i), name);
+        }
+    }
+
+    // Lookups for every key that is or might have been there, and every entry exactly once when iterating
+    private static void assertSameContent(Map<Key, Integer> expected, PersistentMap<Key, Integer> map, String name) {
+        assertEquals(expected.size(), map.size(), name);
+        Map<Key, Integer> iterated = new HashMap<>();
+        for (var entry : map) {
+            assertFalse(iterated.containsKey(entry.getKey()), name);
+            iterated.put(entry.getKey(), entry.getValue());
+        }
+        assertEquals(expected, iterated, name);
+        for (var entry : expected.entrySet()) {
+            assertTrue(map.containsKey(entry.getKey()), name);
+            assertEquals(entry.getValue(), map.get(entry.getKey()), name);
+        }
+    }
+
+    // Equal by id alone, with whatever hash the test gives it, so keys can be made to collide
+    private record Key(int id, int hash) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && other.id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
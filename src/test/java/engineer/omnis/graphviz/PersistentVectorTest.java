@@ -0,0 +1,102 @@
+package engineer.omnis.graphviz;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PersistentVectorTest {
+    // Past 32^3, so the trie gets four levels
+    private static final int MAX_SIZE = 40_000;
+    private static final int CHECK_INTERVAL = 2_500;
+    // Just below, at and just past the sizes where a level fills up or a new one starts
+    private static final int[] BOUNDARY_SIZES = {0, 1, 31, 32, 33, 1023, 1024, 1025, 32_767, 32_768, 32_769};
+
+    @Test
+    void matchesArrayListUnderRandomUpdates() {
+        for (int seed = 0; seed < 3; ++seed) {
+            Random random = new Random(seed);
+            PersistentVector<Integer> vector = PersistentVector.empty();
+            List<Integer> expected = new ArrayList<>();
+            List<PersistentVector<Integer>> versions = new ArrayList<>();
+            List<List<Integer>> expectedVersions = new ArrayList<>();
+
+            while (expected.size() < MAX_SIZE) {
+                if (expected.isEmpty() || random.nextInt(3) != 0) {
+                    // Null elements are allowed
+                    Integer element = random.nextInt(20) == 0 ? null : random.nextInt();
+                    vector = vector.plus(element);
+                    expected.add(element);
+                } else {
+                    int index = random.nextInt(expected.size());
+                    Integer element = random.nextInt();
+                    vector = vector.with(index, element);
+                    expected.set(index, element);
+                }
+
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.get(index), vector.get(index));
+                if (expected.size() % CHECK_INTERVAL == 0) {
+                    assertSameContent(expected, vector);
+                    versions.add(vector);
+                    expectedVersions.add(new ArrayList<>(expected));
+                }
+            }
+
+            assertSameContent(expected, vector);
+            for (int i = 0; i < versions.size(); ++i) {
+                assertSameContent(expectedVersions.get(i), versions.get(i));
+            }
+        }
+    }
+
+    @Test
+    void builtVectorsGrowAndUpdateLikeAppendedOnes() {
+        for (int size : BOUNDARY_SIZES) {
+            List<Integer> expected = new ArrayList<>(IntStream.range(0, size).boxed().toList());
+            PersistentVector<Integer> built = PersistentVector.of(expected);
+            PersistentVector<Integer> appended = PersistentVector.empty();
+            for (Integer element : expected) {
+                appended = appended.plus(element);
+            }
+            assertSameContent(expected, built);
+            assertSameContent(expected, appended);
+
+            for (int i = 0; i < 2 * 32 + 1; ++i) {
+                built = built.plus(-i);
+                appended = appended.plus(-i);
+                expected.add(-i);
+            }
+            built = built.with(0, 7).with(expected.size() - 1, 8);
+            appended = appended.with(0, 7).with(expected.size() - 1, 8);
+            expected.set(0, 7);
+            expected.set(expected.size() - 1, 8);
+            assertSameContent(expected, built);
+            assertSameContent(expected, appended);
+        }
+    }
+
+    @Test
+    void rejectsIndicesOutsideTheVector() {
+        PersistentVector<Integer> vector = PersistentVector.of(List.of(1, 2, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> vector.get(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> vector.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> vector.with(3, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> PersistentVector.empty().get(0));
+    }
+
+    private static void assertSameContent(List<Integer> expected, PersistentVector<Integer> vector) {
+        assertEquals(expected.size(), vector.size());
+        List<Integer> iterated = new ArrayList<>();
+        vector.forEach(iterated::add);
+        assertEquals(expected, iterated);
+        for (int i = 0; i < expected.size(); ++i) {
+            assertEquals(expected.get(i), vector.get(i));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package engineer.omnis.graphviz.engine;
+
+import engineer.omnis.graphviz.CompactGraph;
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AllPairsShortestPathsTest {
+    // Around the 64 vertex Floyd–Warshall block, so the last block is full, partial or alone
+    private static final int[] VERTEX_COUNTS = {1, 2, 63, 64, 65, 130, 200};
+    // Average out-degrees, from mostly unreachable pairs to a graph dense enough for compute() to pick Floyd–Warshall
+    private static final int[] DEGREES = {1, 3, 12};
+    private static final int MAX_WEIGHT = 20;
+    private static final int SEEDS = 3;
+    private static final int THREADS = 4;
+
+    @Test
+    void matchesDijkstraFromEverySource() {
+        ForkJoinPool pool = new ForkJoinPool(THREADS);
+        try {
+            for (int vertexCount : VERTEX_COUNTS) {
+                for (int degree : DEGREES) {
+                    for (int seed = 0; seed < SEEDS; ++seed) {
+                        CompactGraph<Integer, Void> graph = randomGraph(vertexCount, degree, new Random(seed));
+                        AllPairsShortestPaths allPairs = new AllPairsShortestPaths(graph, pool);
+                        String name = vertexCount + " vertices, degree " + degree + ", seed " + seed;
+
+                        assertMatchesDijkstra(graph, allPairs.computeWithDijkstra(false), name + ", Dijkstra");
+                        assertMatchesDijkstra(graph, allPairs.computeWithDijkstra(true), name + ", Dijkstra off heap");
+                        assertMatchesDijkstra(graph, allPairs.computeWithFloydWarshall(false), name + ", Floyd–Warshall");
+                        assertMatchesDijkstra(graph, allPairs.computeWithFloydWarshall(true),
+                                name + ", Floyd–Warshall off heap");
+                        assertMatchesDijkstra(graph, allPairs.compute(false), name + ", picked");
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsNegativeWeightsForDijkstraAndNegativeCycles() {
+        // 0 -> 1 of -2, 1 -> 0 of 1
+        CompactGraph<Integer, Void> cycle = CompactGraph.fromArrays(new int[]{0, 1, 2}, new int[]{1, 0}, new int[]{-2, 1});
+        AllPairsShortestPaths allPairs = new AllPairsShortestPaths(cycle);
+        assertThrows(IllegalArgumentException.class, () -> allPairs.computeWithDijkstra(false));
+        assertThrows(IllegalArgumentException.class, () -> allPairs.compute(false));
+
+        // 0 -> 1 of -2, 1 -> 0 of 3
+        CompactGraph<Integer, Void> noCycle = CompactGraph.fromArrays(new int[]{0, 1, 2}, new int[]{1, 0}, new int[]{-2, 3});
+        DistanceMatrix matrix = new AllPairsShortestPaths(noCycle).compute(false);
+        assertEquals(-2, matrix.get(0, 1));
+        assertEquals(3, matrix.get(1, 0));
+        assertEquals(0, matrix.get(1, 1));
+    }
+
+    private static void assertMatchesDijkstra(CompactGraph<Integer, Void> graph, DistanceMatrix matrix, String name) {
+        assertEquals(graph.vertexCount(), matrix.vertexCount(), name);
+        for (int source = 0; source < graph.vertexCount(); ++source) {
+            DijkstraShortestPaths dijkstra = new DijkstraShortestPaths(graph);
+            dijkstra.start(source);
+            while (!dijkstra.isFinished()) {
+                dijkstra.step(AlgorithmSink.NONE);
+            }
+
+            IntBuffer row = matrix.row(source);
+            assertEquals(graph.vertexCount(), row.remaining(), name);
+            for (int v = 0; v < graph.vertexCount(); ++v) {
+                assertEquals(dijkstra.getDistance(v), matrix.get(source, v), name + ", " + source + " -> " + v);
+                assertEquals(matrix.get(source, v), row.get(v), name);
+            }
+            assertTrue(matrix.isReachable(source, source), name);
+        }
+    }
+
+    // Random arcs, self-loops and parallel arcs of different weights included
+    private static CompactGraph<Integer, Void> randomGraph(int vertexCount, int degree, Random random) {
+        int[] offsets = new int[vertexCount + 1];
+        for (int v = 0; v < vertexCount; ++v) {
+            offsets[v + 1] = offsets[v] + random.nextInt(2 * degree + 1);
+        }
+
+        int[] targets = new int[offsets[vertexCount]];
+        int[] weights = new int[targets.length];
+        for (int arc = 0; arc < targets.length; ++arc) {
+            targets[arc] = random.nextInt(vertexCount);
+            weights[arc] = random.nextInt(MAX_WEIGHT + 1);
+        }
+        return CompactGraph.fromArrays(offsets, targets, weights);
+    }
+}
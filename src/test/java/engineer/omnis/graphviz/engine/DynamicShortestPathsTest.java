@@ -0,0 +1,140 @@
+package engineer.omnis.graphviz.engine;
+
+import engineer.omnis.graphviz.CompactGraph;
+import engineer.omnis.graphviz.GraphModel;
+import engineer.omnis.graphviz.GraphSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DynamicShortestPathsTest {
+    private static final int VERTEX_COUNT = 60;
+    private static final int EDGE_COUNT = 180;
+    private static final int EDIT_COUNT = 400;
+    private static final int MAX_WEIGHT = 9;
+    private static final int SEEDS = 20;
+
+    @Test
+    void editBetweenSnapshotAndFollowInvalidatesTheTree() {
+        GraphModel<Integer, Integer> model = path(GraphModel.AdjacencyMode.INDEXED);
+        GraphSnapshot<Integer, Integer> snapshot = model.snapshot();
+        var tracker = new DynamicShortestPaths<>(model, snapshot, Integer::intValue, 0);
+
+        // E.g. made on the EDT while the worker was still computing the tree
+        model.connectVertices(0, 2, 1);
+        tracker.follow();
+
+        assertFalse(tracker.isValid());
+        assertTrue(model.findListener(DynamicShortestPaths.class).isEmpty());
+    }
+
+    @Test
+    void followsEditsMadeAfterFollow() {
+        GraphModel<Integer, Integer> model = path(GraphModel.AdjacencyMode.INDEXED);
+        var tracker = new DynamicShortestPaths<>(model, model.snapshot(), Integer::intValue, 0);
+        assertTrue(model.findListener(DynamicShortestPaths.class).isEmpty());
+
+        tracker.follow();
+        model.connectVertices(0, 2, 1);
+
+        assertTrue(tracker.isValid());
+        assertEquals(1, tracker.getDistance(2));
+        assertEquals(List.of(0, 2), tracker.pathTo(2));
+    }
+
+    @Test
+    void randomEditsMatchFreshDijkstra() {
+        for (var mode : GraphModel.AdjacencyMode.values()) {
+            for (int seed = 0; seed < SEEDS; ++seed) {
+                checkRandomEdits(mode, new Random(seed));
+            }
+        }
+    }
+
+    private static void checkRandomEdits(GraphModel.AdjacencyMode mode, Random random) {
+        GraphModel<Integer, Integer> model = new GraphModel<>(mode);
+        for (int v = 0; v < VERTEX_COUNT; ++v) {
+            model.addVertex(v);
+        }
+        for (int e = 0; e < EDGE_COUNT; ++e) {
+            model.connectVertices(random.nextInt(VERTEX_COUNT), random.nextInt(VERTEX_COUNT), random.nextInt(MAX_WEIGHT + 1));
+        }
+
+        var tracker = new DynamicShortestPaths<>(model, model.snapshot(), Integer::intValue, 0);
+        tracker.follow();
+        for (int edit = 0; edit < EDIT_COUNT; ++edit) {
+            int from = random.nextInt(VERTEX_COUNT);
+            int to = random.nextInt(VERTEX_COUNT);
+            switch (random.nextInt(4)) {
+                case 0, 1 -> model.connectVertices(from, to, random.nextInt(MAX_WEIGHT + 1));
+                case 2 -> removeRandomEdge(model, tracker, from, random);
+                default -> {
+                    // Never the source, which would only invalidate the tree
+                    if (from != 0) {
+                        model.removeVertex(from);
+                        model.addVertex(from);
+                    }
+                }
+            }
+
+            assertTrue(tracker.isValid());
+            assertMatchesDijkstra(model, tracker);
+        }
+        tracker.detach();
+    }
+
+    // Half of the removals hit the tree edge into the vertex, as only those have anything to repair
+    private static void removeRandomEdge(GraphModel<Integer, Integer> model, DynamicShortestPaths<Integer, Integer> tracker,
+                                         int from, Random random) {
+        if (random.nextBoolean()) {
+            tracker.getParent(from).ifPresent(parent -> model.removeEdge(parent, from));
+            return;
+        }
+
+        List<Integer> targets = new ArrayList<>();
+        for (var neighbor : model.getNeighbors(from)) {
+            targets.add(neighbor.getKey());
+        }
+        if (!targets.isEmpty()) {
+            model.removeEdge(from, targets.get(random.nextInt(targets.size())));
+        }
+    }
+
+    private static void assertMatchesDijkstra(GraphModel<Integer, Integer> model,
+                                              DynamicShortestPaths<Integer, Integer> tracker) {
+        CompactGraph<Integer, Integer> graph = CompactGraph.freeze(model, Integer::intValue);
+        DijkstraShortestPaths dijkstra = new DijkstraShortestPaths(graph);
+        dijkstra.start(graph.indexOf(0));
+        while (!dijkstra.isFinished()) {
+            dijkstra.step(AlgorithmSink.NONE);
+        }
+
+        for (int v = 0; v < graph.vertexCount(); ++v) {
+            Integer vertex = graph.vertex(v);
+            assertEquals(dijkstra.getDistance(v), tracker.getDistance(vertex), "distance of " + vertex);
+            // Ties may pick another parent, but it has to be one the distance goes through
+            int parentDistance = tracker.getParent(vertex).map(tracker::getDistance).orElse(0);
+            int edgeWeight = tracker.getParent(vertex).flatMap(p -> model.getEdgeBetween(p, vertex)).orElse(0);
+            if (tracker.getParent(vertex).isPresent()) {
+                assertEquals(tracker.getDistance(vertex), parentDistance + edgeWeight, "parent of " + vertex);
+            }
+        }
+    }
+
+    // 0 -> 1 -> 2, both of weight 5
+    private static GraphModel<Integer, Integer> path(GraphModel.AdjacencyMode mode) {
+        GraphModel<Integer, Integer> model = new GraphModel<>(mode);
+        for (int v = 0; v < 3; ++v) {
+            model.addVertex(v);
+        }
+        model.connectVertices(0, 1, 5);
+        model.connectVertices(1, 2, 5);
+        return model;
+    }
+}
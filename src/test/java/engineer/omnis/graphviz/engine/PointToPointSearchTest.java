@@ -0,0 +1,182 @@
+package engineer.omnis.graphviz.engine;
+
+import engineer.omnis.graphviz.CompactGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static engineer.omnis.graphviz.Utility.BIG_INT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PointToPointSearchTest {
+    private static final int VERTEX_COUNT = 150;
+    private static final int GRID_SIDE = 12;
+    private static final int GRID_SPACING = 10;
+    private static final int AREA = 1_000;
+    private static final int MAX_EXTRA_WEIGHT = 30;
+    private static final int SEEDS = 5;
+    private static final int SOURCES = 10;
+    private static final int TARGETS = 15;
+
+    @Test
+    void randomGraphsMatchDijkstra() {
+        for (int seed = 0; seed < SEEDS; ++seed) {
+            Random random = new Random(seed);
+            // Weights at least as long as the arcs, so A* is guided by the positions
+            CompactGraph<Integer, Void> graph = randomGraph(random, true);
+            assertMatchesDijkstra(graph, random, "geometric, seed " + seed);
+            // Zero and short weights, where A* has to fall back to a weaker heuristic
+            assertMatchesDijkstra(randomGraph(random, false), random, "unrelated weights, seed " + seed);
+            // Without positions A* is Dijkstra
+            CompactGraph<Integer, Void> withoutPositions = CompactGraph.fromArrays(
+                    offsets(graph), targets(graph), weights(graph));
+            assertMatchesDijkstra(withoutPositions, random, "no positions, seed " + seed);
+        }
+    }
+
+    @Test
+    void gridsMatchDijkstra() {
+        for (int seed = 0; seed < SEEDS; ++seed) {
+            Random random = new Random(seed);
+            assertMatchesDijkstra(grid(random), random, "grid, seed " + seed);
+        }
+    }
+
+    @Test
+    void rejectsNegativeWeightsAndMissingTargets() {
+        CompactGraph<Integer, Void> graph = CompactGraph.fromArrays(new int[]{0, 1, 1}, new int[]{1}, new int[]{-1});
+        assertThrows(IllegalArgumentException.class, () -> new AStarSearch(graph));
+        assertThrows(IllegalArgumentException.class, () -> new BidirectionalDijkstra(graph));
+
+        CompactGraph<Integer, Void> valid = CompactGraph.fromArrays(new int[]{0, 1, 1}, new int[]{1}, new int[]{1});
+        assertThrows(IllegalArgumentException.class, () -> new AStarSearch(valid).start(0));
+        assertThrows(IllegalArgumentException.class, () -> new BidirectionalDijkstra(valid).start(0));
+    }
+
+    private static void assertMatchesDijkstra(CompactGraph<Integer, Void> graph, Random random, String name) {
+        for (int s = 0; s < SOURCES; ++s) {
+            int source = random.nextInt(graph.vertexCount());
+            DijkstraShortestPaths dijkstra = new DijkstraShortestPaths(graph);
+            dijkstra.start(source);
+            while (!dijkstra.isFinished()) {
+                dijkstra.step(AlgorithmSink.NONE);
+            }
+
+            // The source itself is one of the targets
+            for (int t = 0; t <= TARGETS; ++t) {
+                int target = t == 0 ? source : random.nextInt(graph.vertexCount());
+                String query = name + ", " + source + " -> " + target;
+                assertQuery(graph, new AStarSearch(graph), source, target, dijkstra.getDistance(target), "A* " + query);
+                assertQuery(graph, new BidirectionalDijkstra(graph), source, target, dijkstra.getDistance(target),
+                        "bidirectional " + query);
+            }
+        }
+    }
+
+    // Same distance as Dijkstra, and a path along existing arcs that is exactly that long
+    private static void assertQuery(CompactGraph<Integer, Void> graph, PointToPointSearch search, int source, int target,
+                                    int expected, String name) {
+        search.start(source, target);
+        while (!search.isFinished()) {
+            search.step(AlgorithmSink.NONE);
+        }
+        assertEquals(expected, search.getDistance(), name);
+
+        int[] path = search.getPath();
+        if (expected >= BIG_INT) {
+            assertEquals(0, path.length, name);
+            return;
+        }
+        assertEquals(source, path[0], name);
+        assertEquals(target, path[path.length - 1], name);
+        int length = 0;
+        for (int i = 1; i < path.length; ++i) {
+            int arc = graph.lightestArc(path[i - 1], path[i]);
+            assertTrue(arc != -1, name);
+            length += graph.weight(arc);
+        }
+        assertEquals(expected, length, name);
+    }
+
+    // Directed arcs between random points, some vertices left without any
+    private static CompactGraph<Integer, Void> randomGraph(Random random, boolean geometric) {
+        double[] xs = new double[VERTEX_COUNT];
+        double[] ys = new double[VERTEX_COUNT];
+        for (int v = 0; v < VERTEX_COUNT; ++v) {
+            xs[v] = random.nextDouble() * AREA;
+            ys[v] = random.nextDouble() * AREA;
+        }
+
+        int[] offsets = new int[VERTEX_COUNT + 1];
+        for (int v = 0; v < VERTEX_COUNT; ++v) {
+            offsets[v + 1] = offsets[v] + random.nextInt(4);
+        }
+        int[] targets = new int[offsets[VERTEX_COUNT]];
+        int[] weights = new int[targets.length];
+        for (int v = 0; v < VERTEX_COUNT; ++v) {
+            for (int arc = offsets[v]; arc < offsets[v + 1]; ++arc) {
+                targets[arc] = random.nextInt(VERTEX_COUNT);
+                weights[arc] = geometric
+                        ? (int) Math.ceil(Math.hypot(xs[v] - xs[targets[arc]], ys[v] - ys[targets[arc]]))
+                                + random.nextInt(MAX_EXTRA_WEIGHT)
+                        : random.nextInt(MAX_EXTRA_WEIGHT);
+            }
+        }
+        return CompactGraph.fromArrays(offsets, targets, weights).withPositions(xs, ys);
+    }
+
+    // Both directions between grid neighbors, with weights that differ per direction
+    private static CompactGraph<Integer, Void> grid(Random random) {
+        int vertexCount = GRID_SIDE * GRID_SIDE;
+        int[] offsets = new int[vertexCount + 1];
+        int[] targets = new int[4 * vertexCount];
+        int[] weights = new int[4 * vertexCount];
+        double[] xs = new double[vertexCount];
+        double[] ys = new double[vertexCount];
+        int arc = 0;
+        for (int v = 0; v < vertexCount; ++v) {
+            int x = v % GRID_SIDE;
+            int y = v / GRID_SIDE;
+            xs[v] = x * GRID_SPACING;
+            ys[v] = y * GRID_SPACING;
+            int[] neighbors = {x > 0 ? v - 1 : -1, x < GRID_SIDE - 1 ? v + 1 : -1,
+                    y > 0 ? v - GRID_SIDE : -1, y < GRID_SIDE - 1 ? v + GRID_SIDE : -1};
+            for (int neighbor : neighbors) {
+                if (neighbor != -1) {
+                    targets[arc] = neighbor;
+                    weights[arc++] = GRID_SPACING + random.nextInt(MAX_EXTRA_WEIGHT);
+                }
+            }
+            offsets[v + 1] = arc;
+        }
+        return CompactGraph.fromArrays(offsets, Arrays.copyOf(targets, arc), Arrays.copyOf(weights, arc))
+                .withPositions(xs, ys);
+    }
+
+    private static int[] offsets(CompactGraph<?, ?> graph) {
+        int[] offsets = new int[graph.vertexCount() + 1];
+        for (int v = 0; v < graph.vertexCount(); ++v) {
+            offsets[v + 1] = graph.endArc(v);
+        }
+        return offsets;
+    }
+
+    private static int[] targets(CompactGraph<?, ?> graph) {
+        int[] targets = new int[graph.arcCount()];
+        for (int arc = 0; arc < targets.length; ++arc) {
+            targets[arc] = graph.target(arc);
+        }
+        return targets;
+    }
+
+    private static int[] weights(CompactGraph<?, ?> graph) {
+        int[] weights = new int[graph.arcCount()];
+        for (int arc = 0; arc < weights.length; ++arc) {
+            weights[arc] = graph.weight(arc);
+        }
+        return weights;
+    }
+}
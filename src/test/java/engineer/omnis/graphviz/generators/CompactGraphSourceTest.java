@@ -0,0 +1,117 @@
+package engineer.omnis.graphviz.generators;
+
+import engineer.omnis.graphviz.CompactGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactGraphSourceTest {
+    private static final int VERTEX_COUNT = 40;
+    private static final int ARC_COUNT = 300;
+    private static final int MAX_WEIGHT = 50;
+    private static final int SEEDS = 10;
+
+    @Test
+    void collapsesArcsIntoOneEdgePerPairWithTheLightestWeight() {
+        for (int seed = 0; seed < SEEDS; ++seed) {
+            Random random = new Random(seed);
+            int[] from = new int[ARC_COUNT];
+            int[] to = new int[ARC_COUNT];
+            int[] weights = new int[ARC_COUNT];
+            // Unordered pair to the lightest weight of any arc between them, in either direction
+            Map<Long, Integer> expected = new HashMap<>();
+            for (int arc = 0; arc < ARC_COUNT; ++arc) {
+                from[arc] = random.nextInt(VERTEX_COUNT);
+                to[arc] = random.nextInt(VERTEX_COUNT);
+                weights[arc] = random.nextInt(MAX_WEIGHT);
+                if (from[arc] != to[arc]) {
+                    expected.merge(pair(from[arc], to[arc]), weights[arc], Math::min);
+                }
+            }
+
+            Map<Long, Integer> generated = new HashMap<>();
+            CompactGraphSource.generateEdges(graph(from, to, weights, random), new EdgeCollector(generated));
+            assertEquals(expected, generated, "seed " + seed);
+        }
+    }
+
+    @Test
+    void scalesPositionsIntoTheUnitSquare() {
+        CompactGraph<Integer, Void> graph = CompactGraph.fromArrays(new int[]{0, 0, 0, 0}, new int[0], new int[0])
+                .withPositions(new double[]{-100, 300, 100}, new double[]{7, 7, 7});
+        List<double[]> positions = new ArrayList<>();
+        new CompactGraphSource(graph, 0).generate(new GeneratorSink() {
+            @Override
+            public void vertexGenerated(int v, double x, double y) {
+                positions.add(new double[]{x, y});
+            }
+
+            @Override
+            public void edgeGenerated(int from, int to, int weight) {
+                throw new AssertionError("No edges expected");
+            }
+        });
+
+        assertEquals(3, positions.size());
+        assertEquals(0, positions.get(0)[0]);
+        assertEquals(1, positions.get(1)[0]);
+        assertEquals(0.5, positions.get(2)[0]);
+        // All on one line, so they are centered
+        for (double[] position : positions) {
+            assertEquals(0.5, position[1]);
+        }
+    }
+
+    // CSR arrays with every vertex's arcs in random order, so the source has to sort them itself
+    private static CompactGraph<Integer, Void> graph(int[] from, int[] to, int[] weights, Random random) {
+        List<List<int[]>> rows = new ArrayList<>();
+        for (int v = 0; v < VERTEX_COUNT; ++v) {
+            rows.add(new ArrayList<>());
+        }
+        for (int arc = 0; arc < from.length; ++arc) {
+            List<int[]> row = rows.get(from[arc]);
+            row.add(random.nextInt(row.size() + 1), new int[]{to[arc], weights[arc]});
+        }
+
+        int[] offsets = new int[VERTEX_COUNT + 1];
+        int[] targets = new int[from.length];
+        int[] arcWeights = new int[from.length];
+        int arc = 0;
+        for (int v = 0; v < VERTEX_COUNT; ++v) {
+            for (int[] target : rows.get(v)) {
+                targets[arc] = target[0];
+                arcWeights[arc++] = target[1];
+            }
+            offsets[v + 1] = arc;
+        }
+        return CompactGraph.fromArrays(offsets, targets, arcWeights);
+    }
+
+    private static long pair(int a, int b) {
+        return (long) Math.min(a, b) << Integer.SIZE | Math.max(a, b);
+    }
+
+    // Fails on self-loops and on a pair generated twice, in either direction
+    private record EdgeCollector(Map<Long, Integer> edges) implements GeneratorSink {
+        @Override
+        public void vertexGenerated(int v, double x, double y) {
+            throw new AssertionError("Only edges expected");
+        }
+
+        @Override
+        public void edgeGenerated(int from, int to, int weight) {
+            assertFalse(from == to, "self-loop at " + from);
+            assertTrue(from >= 0 && to < VERTEX_COUNT && to >= 0 && from < VERTEX_COUNT);
+            assertNull(edges.put(pair(from, to), weight), "second edge between " + from + " and " + to);
+        }
+    }
+}
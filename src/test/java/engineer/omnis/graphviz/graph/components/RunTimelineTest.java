@@ -0,0 +1,133 @@
+package engineer.omnis.graphviz.graph.components;
+
+import engineer.omnis.graphviz.GraphModel;
+import engineer.omnis.graphviz.graph.UpdatableGraphChild;
+import engineer.omnis.graphviz.graph.orders.ColorUpdateOrder;
+import engineer.omnis.graphviz.graph.orders.ExternalGraphOrder;
+import engineer.omnis.graphviz.trace.TraceElements;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RunTimelineTest {
+    private static final int VERTEX_COUNT = 30;
+    private static final int EDGE_COUNT = 50;
+    private static final int STEP_COUNT = 2_000;
+    private static final int SEEK_COUNT = 500;
+    private static final int SEEDS = 3;
+    private static final Color[] COLORS = {Color.RED, Color.GREEN, Color.BLUE, Color.WHITE, new Color(1, 2, 3, 4)};
+    // As many steps as a timeline keeps
+    private static final int MAX_STEPS = 4_194_304;
+
+    @Test
+    void seekingShowsTheColorsALinearReplayReaches() {
+        for (int seed = 0; seed < SEEDS; ++seed) {
+            Random random = new Random(seed);
+            TraceElements elements = TraceElements.of(graph(random));
+            RunTimeline timeline = new RunTimeline(elements);
+            GraphNodeComponent stranger = new GraphNodeComponent("stranger", new Point(0, 0), null);
+
+            // The colors after every step, found by applying the steps one after another
+            List<int[]> replayed = new ArrayList<>();
+            int[] colors = initialColors(elements);
+            replayed.add(colors.clone());
+            for (int step = 0; step < STEP_COUNT; ++step) {
+                List<ExternalGraphOrder> orders = new ArrayList<>();
+                // Mostly small steps, some empty ones and some recoloring more than every element, so keyframes are taken
+                int changes = random.nextInt(10) == 0 ? elements.size() + random.nextInt(elements.size())
+                        : random.nextInt(4);
+                for (int i = 0; i < changes; ++i) {
+                    int element = random.nextInt(elements.size());
+                    Color color = COLORS[random.nextInt(COLORS.length)];
+                    orders.add(new ColorUpdateOrder(elements.element(element), color));
+                    colors[element] = color.getRGB();
+                }
+                // Elements that aren't part of the graph are left out, like in a trace
+                if (random.nextInt(20) == 0) {
+                    orders.add(new ColorUpdateOrder(stranger, Color.RED));
+                }
+                timeline.record(orders);
+                replayed.add(colors.clone());
+            }
+            assertEquals(STEP_COUNT, timeline.length());
+            assertEquals(STEP_COUNT, timeline.position());
+
+            // What the view shows, updated with nothing but the changes the timeline reports
+            int[] view = colors.clone();
+            for (int seek = 0; seek < SEEK_COUNT; ++seek) {
+                int step = switch (random.nextInt(4)) {
+                    case 0 -> 0;
+                    case 1 -> STEP_COUNT;
+                    // One step back or forward, or the same step again, like stepping through with the keyboard
+                    case 2 -> Math.max(0, Math.min(STEP_COUNT, timeline.position() + random.nextInt(3) - 1));
+                    default -> random.nextInt(STEP_COUNT + 1);
+                };
+                int[] before = view.clone();
+                timeline.seek(step, (element, color) -> {
+                    int index = elements.indexOf(element);
+                    assertNotEquals(before[index], color.getRGB(), "an unchanged element was reported");
+                    view[index] = color.getRGB();
+                });
+                assertArrayEquals(replayed.get(step), view, "seed " + seed + ", step " + step);
+                assertEquals(step, timeline.position());
+            }
+
+            assertThrows(IllegalArgumentException.class, () -> timeline.seek(-1, (element, color) -> { }));
+            assertThrows(IllegalArgumentException.class, () -> timeline.seek(STEP_COUNT + 1, (element, color) -> { }));
+        }
+    }
+
+    @Test
+    void dropsATimelineThatGrowsPastItsCap() {
+        RunTimeline timeline = new RunTimeline(TraceElements.of(graph(new Random(0))));
+        for (int step = 0; step < MAX_STEPS; ++step) {
+            timeline.record(List.of());
+        }
+        assertEquals(MAX_STEPS, timeline.length());
+
+        timeline.record(List.of());
+        assertTrue(timeline.isDropped());
+        assertEquals(0, timeline.length());
+        timeline.record(List.of());
+        assertEquals(0, timeline.length());
+    }
+
+    private static int[] initialColors(TraceElements elements) {
+        int[] colors = new int[elements.size()];
+        for (int i = 0; i < colors.length; ++i) {
+            UpdatableGraphChild element = elements.element(i);
+            colors[i] = (element instanceof GraphNodeComponent vertex ? vertex.getNodeColor()
+                    : ((GraphEdgePair) element).getColor()).getRGB();
+        }
+        return colors;
+    }
+
+    // Vertices without Swing panels, as in the CANVAS render mode, and every edge stored in both directions
+    private static GraphModel<GraphNodeComponent, GraphEdgePair> graph(Random random) {
+        GraphModel<GraphNodeComponent, GraphEdgePair> model = new GraphModel<>();
+        GraphNodeComponent[] vertices = new GraphNodeComponent[VERTEX_COUNT];
+        for (int v = 0; v < VERTEX_COUNT; ++v) {
+            vertices[v] = new GraphNodeComponent("v" + v, new Point(v, v), null);
+            model.addVertex(vertices[v]);
+        }
+        for (int e = 0; e < EDGE_COUNT; ++e) {
+            GraphNodeComponent from = vertices[random.nextInt(VERTEX_COUNT)];
+            GraphNodeComponent to = vertices[random.nextInt(VERTEX_COUNT)];
+            if (from != to && model.getEdgeBetween(from, to).isEmpty()) {
+                GraphEdgePair pair = GraphEdgePair.createEdgePair(from, to, 1);
+                model.connectVertices(from, to, pair);
+                model.connectVertices(to, from, pair);
+            }
+        }
+        return model;
+    }
+}
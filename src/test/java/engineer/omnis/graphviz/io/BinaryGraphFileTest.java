@@ -0,0 +1,148 @@
+package engineer.omnis.graphviz.io;
+
+import engineer.omnis.graphviz.CompactGraph;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryGraphFileTest {
+    // Where the sections of the graph below start, see the layout in BinaryGraphFile
+    private static final int HEADER_BYTES = 48;
+    private static final int CHECKSUM_AT = 32;
+    private static final int OFFSETS_AT = 48;
+    private static final int TARGETS_AT = 64;
+    private static final int POSITIONS_AT = 96;
+    private static final int LABEL_OFFSETS_AT = 144;
+    private static final int LABEL_DATA_AT = 160;
+    private static final IntFunction<String> LABELS = v -> "v" + v;
+
+    @TempDir
+    Path directory;
+
+    // 0 - 1 - 2, both directions of both edges
+    private static CompactGraph<Integer, Void> graph() {
+        return CompactGraph.fromArrays(new int[]{0, 1, 3, 4}, new int[]{1, 0, 2, 1}, new int[]{5, 5, 7, 7})
+                .withPositions(new double[]{0, 100, 200}, new double[]{10, 20, 30});
+    }
+
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        Path path = directory.resolve("graph.gbin");
+        BinaryGraphFile.write(path, graph(), LABELS);
+
+        BinaryGraphFile file = BinaryGraphFile.open(path);
+        assertEquals(3, file.vertexCount());
+        assertEquals(4, file.arcCount());
+        assertEquals("v2", file.label(2));
+        assertEquals(100, file.x(1));
+        assertEquals(30, file.y(2));
+        CompactGraph<Integer, Void> read = file.toCompactGraph();
+        for (int arc = 0; arc < read.arcCount(); ++arc) {
+            assertEquals(graph().target(arc), read.target(arc));
+            assertEquals(graph().weight(arc), read.weight(arc));
+        }
+    }
+
+    @Test
+    void replacesAnExistingFileWithoutLeavingATemporaryOne() throws IOException {
+        Path path = directory.resolve("graph.gbin");
+        BinaryGraphFile.write(path, graph(), LABELS);
+        BinaryGraphFile.write(path, graph(), v -> "w" + v);
+
+        assertEquals("w1", BinaryGraphFile.open(path).label(1));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(path), files.toList());
+        }
+    }
+
+    @Test
+    void keepsTheOldFileWhenTheNewOneCantBeMovedOverIt() throws IOException {
+        Path path = directory.resolve("graph.gbin");
+        Files.createDirectory(path);
+        Files.createFile(path.resolve("inside"));
+
+        assertThrows(IOException.class, () -> BinaryGraphFile.write(path, graph(), LABELS));
+        assertTrue(Files.isDirectory(path));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(path), files.toList());
+        }
+    }
+
+    @Test
+    void rejectsMalformedOffsetsAndTargets() throws IOException {
+        byte[] written = written();
+        assertRejected(withInt(written, OFFSETS_AT, 1));
+        assertRejected(withInt(written, OFFSETS_AT + 2 * Integer.BYTES, 0));
+        assertRejected(withInt(written, OFFSETS_AT + 3 * Integer.BYTES, 3));
+        assertRejected(withInt(written, TARGETS_AT + 2 * Integer.BYTES, 3));
+        assertRejected(withInt(written, TARGETS_AT, -1));
+        assertRejected(withInt(written, LABEL_OFFSETS_AT + Integer.BYTES, 9));
+    }
+
+    @Test
+    void rejectsPositionsThatAreNoCoordinates() throws IOException {
+        byte[] written = written();
+        assertRejected(withDouble(written, POSITIONS_AT, Double.NaN));
+        assertRejected(withDouble(written, POSITIONS_AT + Double.BYTES, Double.POSITIVE_INFINITY));
+        assertRejected(withDouble(written, POSITIONS_AT + 2 * Double.BYTES, -1e300));
+    }
+
+    @Test
+    void rejectsTwoVerticesWithTheSameLabel() throws IOException {
+        byte[] written = written();
+        // "v0v1v2", the second label becomes "v0"
+        byte[] duplicate = written.clone();
+        duplicate[LABEL_DATA_AT + 3] = '0';
+        assertRejected(withChecksum(duplicate));
+    }
+
+    private byte[] written() throws IOException {
+        Path path = directory.resolve("graph.gbin");
+        BinaryGraphFile.write(path, graph(), LABELS);
+        byte[] bytes = Files.readAllBytes(path);
+        assertArrayEquals("v0v1v2".getBytes(StandardCharsets.UTF_8), Arrays.copyOfRange(bytes, LABEL_DATA_AT, LABEL_DATA_AT + 6));
+        return bytes;
+    }
+
+    private void assertRejected(byte[] bytes) throws IOException {
+        Path path = directory.resolve("corrupted.gbin");
+        Files.write(path, bytes);
+        assertThrows(IllegalArgumentException.class, () -> BinaryGraphFile.open(path));
+    }
+
+    private static byte[] withInt(byte[] bytes, int at, int value) {
+        byte[] changed = bytes.clone();
+        ByteBuffer.wrap(changed).order(ByteOrder.LITTLE_ENDIAN).putInt(at, value);
+        return withChecksum(changed);
+    }
+
+    private static byte[] withDouble(byte[] bytes, int at, double value) {
+        byte[] changed = bytes.clone();
+        ByteBuffer.wrap(changed).order(ByteOrder.LITTLE_ENDIAN).putDouble(at, value);
+        return withChecksum(changed);
+    }
+
+    // The checksum is made to match, so only the checks of the content itself can catch what was changed
+    private static byte[] withChecksum(byte[] bytes) {
+        CRC32C checksum = new CRC32C();
+        checksum.update(bytes, HEADER_BYTES, bytes.length - HEADER_BYTES);
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putLong(CHECKSUM_AT, checksum.getValue());
+        return bytes;
+    }
+}
@@ -0,0 +1,201 @@
+package engineer.omnis.graphviz.io;
+
+import engineer.omnis.graphviz.CompactGraph;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GraphImporterTest {
+    private static final int VERTEX_COUNT = 30;
+    private static final int ARC_COUNT = 40;
+    private static final int MAX_WEIGHT = 99;
+    // Chunks from a fraction of a line to a few lines. Being prime, they cut lines at every offset, line breaks
+    // included. Every chunk is a mapping of its own, so going down to single bytes would only exhaust mappings
+    private static final int[] CHUNK_BYTES = {2, 3, 5, 7, 11, 13, 17, 23, 31};
+    private static final int THREADS = 4;
+    private static final int SEEDS = 2;
+    private final ForkJoinPool pool = new ForkJoinPool(THREADS);
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void shutDownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void readsSnapEdgeLists() throws IOException {
+        for (int seed = 0; seed < SEEDS; ++seed) {
+            Random random = new Random(seed);
+            List<int[]> arcs = randomArcs(random);
+            StringBuilder text = new StringBuilder("# Directed graph\n# FromNodeId\tToNodeId\n");
+            for (int[] arc : arcs) {
+                // Tabs or spaces, weights left out where they'd be 1, and some Windows line breaks and blank lines
+                text.append(arc[0]).append(random.nextBoolean() ? '\t' : ' ').append(arc[1]);
+                if (arc[2] != 1 || random.nextBoolean()) {
+                    text.append(' ').append(arc[2]);
+                }
+                text.append(random.nextInt(4) == 0 ? "\r\n" : "\n");
+                if (random.nextInt(10) == 0) {
+                    text.append('\n');
+                }
+            }
+
+            assertImportedAtEveryChunkSize(write("graph.txt", text), GraphFormat.SNAP, csr(arcs, maxId(arcs) + 1));
+        }
+    }
+
+    @Test
+    void readsDimacsShortestPathFiles() throws IOException {
+        for (int seed = 0; seed < SEEDS; ++seed) {
+            List<int[]> arcs = randomArcs(new Random(seed));
+            StringBuilder text = new StringBuilder("c 9th DIMACS challenge\nc\np sp ")
+                    .append(VERTEX_COUNT).append(' ').append(arcs.size()).append('\n');
+            for (int[] arc : arcs) {
+                text.append("a ").append(arc[0] + 1).append(' ').append(arc[1] + 1).append(' ').append(arc[2]).append('\n');
+            }
+
+            assertImportedAtEveryChunkSize(write("graph.gr", text), GraphFormat.DIMACS, csr(arcs, VERTEX_COUNT));
+        }
+    }
+
+    @Test
+    void readsGeneralMatrixMarketFiles() throws IOException {
+        for (int seed = 0; seed < SEEDS; ++seed) {
+            Random random = new Random(seed);
+            List<int[]> arcs = randomArcs(random);
+            StringBuilder text = new StringBuilder("%%MatrixMarket matrix coordinate real general\n% comment\n%\n")
+                    .append(VERTEX_COUNT).append(' ').append(VERTEX_COUNT).append(' ').append(arcs.size()).append('\n');
+            for (int[] arc : arcs) {
+                // The same value written as a plain integer, a fraction or with an exponent
+                String value = switch (random.nextInt(3)) {
+                    case 0 -> String.valueOf(arc[2]);
+                    case 1 -> arc[2] + ".0";
+                    default -> arc[2] / 10 + "." + arc[2] % 10 + "e1";
+                };
+                text.append(arc[0] + 1).append(' ').append(arc[1] + 1).append(' ').append(value).append('\n');
+            }
+
+            assertImportedAtEveryChunkSize(write("graph.mtx", text), GraphFormat.MATRIX_MARKET, csr(arcs, VERTEX_COUNT));
+        }
+    }
+
+    @Test
+    void mirrorsSymmetricMatrixMarketPatterns() throws IOException {
+        for (int seed = 0; seed < SEEDS; ++seed) {
+            List<int[]> entries = randomArcs(new Random(seed));
+            List<int[]> arcs = new ArrayList<>();
+            StringBuilder text = new StringBuilder("%%MatrixMarket matrix coordinate pattern symmetric\n")
+                    .append(VERTEX_COUNT).append(' ').append(VERTEX_COUNT).append(' ').append(entries.size()).append('\n');
+            for (int[] entry : entries) {
+                // Symmetric files only store the lower triangle, diagonal included
+                int row = Math.max(entry[0], entry[1]);
+                int column = Math.min(entry[0], entry[1]);
+                text.append(row + 1).append(' ').append(column + 1).append('\n');
+                arcs.add(new int[]{row, column, 1});
+                if (row != column) {
+                    arcs.add(new int[]{column, row, 1});
+                }
+            }
+
+            assertImportedAtEveryChunkSize(write("graph.mtx", text), GraphFormat.MATRIX_MARKET, csr(arcs, VERTEX_COUNT));
+        }
+    }
+
+    @Test
+    void rejectsMalformedFiles() throws IOException {
+        GraphImporter importer = new GraphImporter(pool);
+        Path outOfRange = write("graph.gr", new StringBuilder("p sp 2 1\na 1 3 1\n"));
+        assertThrows(IllegalArgumentException.class, () -> importer.importGraph(outOfRange, GraphFormat.DIMACS));
+        Path noProblemLine = write("graph.gr", new StringBuilder("a 1 2 1\n"));
+        assertThrows(IllegalArgumentException.class, () -> importer.importGraph(noProblemLine, GraphFormat.DIMACS));
+        Path notANumber = write("graph.txt", new StringBuilder("0 1\nx 2\n"));
+        assertThrows(IllegalArgumentException.class, () -> importer.importGraph(notANumber, GraphFormat.SNAP));
+        Path dense = write("graph.mtx", new StringBuilder("%%MatrixMarket matrix array real general\n2 2\n1\n2\n3\n4\n"));
+        assertThrows(IllegalArgumentException.class, () -> importer.importGraph(dense, GraphFormat.MATRIX_MARKET));
+    }
+
+    private void assertImportedAtEveryChunkSize(Path path, GraphFormat format, Csr expected) throws IOException {
+        for (int chunkBytes : CHUNK_BYTES) {
+            CompactGraph<Integer, Void> graph = new GraphImporter(pool, chunkBytes).importGraph(path, format);
+            String name = format + " in chunks of " + chunkBytes + " bytes";
+            assertEquals(expected.offsets().length - 1, graph.vertexCount(), name);
+            int[] offsets = new int[graph.vertexCount() + 1];
+            for (int v = 0; v < graph.vertexCount(); ++v) {
+                offsets[v + 1] = graph.endArc(v);
+            }
+            assertArrayEquals(expected.offsets(), offsets, name);
+            for (int arc = 0; arc < graph.arcCount(); ++arc) {
+                assertEquals(expected.targets()[arc], graph.target(arc), name + ", target of arc " + arc);
+                assertEquals(expected.weights()[arc], graph.weight(arc), name + ", weight of arc " + arc);
+            }
+        }
+        // The default chunking, which is a single chunk for a file this small
+        CompactGraph<Integer, Void> graph = new GraphImporter(pool).importGraph(path, format);
+        assertEquals(expected.targets().length, graph.arcCount());
+    }
+
+    // Self-loops and parallel arcs included, and some vertices without any arc
+    private static List<int[]> randomArcs(Random random) {
+        List<int[]> arcs = new ArrayList<>();
+        for (int i = 0; i < ARC_COUNT; ++i) {
+            int from = random.nextInt(VERTEX_COUNT - 2);
+            int to = random.nextInt(4) == 0 ? from : random.nextInt(VERTEX_COUNT - 2);
+            arcs.add(new int[]{from, to, random.nextInt(MAX_WEIGHT + 1)});
+            if (random.nextInt(8) == 0) {
+                arcs.add(new int[]{from, to, random.nextInt(MAX_WEIGHT + 1)});
+            }
+        }
+        return arcs;
+    }
+
+    private static int maxId(List<int[]> arcs) {
+        int max = -1;
+        for (int[] arc : arcs) {
+            max = Math.max(max, Math.max(arc[0], arc[1]));
+        }
+        return max;
+    }
+
+    // The arcs of every vertex sorted by target and then weight, like the importer leaves them
+    private static Csr csr(List<int[]> arcs, int vertexCount) {
+        List<int[]> sorted = new ArrayList<>(arcs);
+        sorted.sort((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0])
+                : a[1] != b[1] ? Integer.compare(a[1], b[1]) : Integer.compare(a[2], b[2]));
+        int[] offsets = new int[vertexCount + 1];
+        int[] targets = new int[sorted.size()];
+        int[] weights = new int[sorted.size()];
+        for (int i = 0; i < sorted.size(); ++i) {
+            ++offsets[sorted.get(i)[0] + 1];
+            targets[i] = sorted.get(i)[1];
+            weights[i] = sorted.get(i)[2];
+        }
+        for (int v = 0; v < vertexCount; ++v) {
+            offsets[v + 1] += offsets[v];
+        }
+        return new Csr(offsets, targets, weights);
+    }
+
+    private Path write(String fileName, CharSequence text) throws IOException {
+        Path path = directory.resolve(fileName);
+        Files.writeString(path, text, StandardCharsets.US_ASCII);
+        return path;
+    }
+
+    private record Csr(int[] offsets, int[] targets, int[] weights) {
+    }
+}
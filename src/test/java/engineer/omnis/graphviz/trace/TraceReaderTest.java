@@ -0,0 +1,105 @@
+package engineer.omnis.graphviz.trace;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TraceReaderTest {
+    // Where the parts of the trace below start: ids of four bytes keep the element table free of padding
+    private static final int ENDPOINTS_AT = 56;
+    private static final int RECORDS_AT = 64;
+    private static final String[] VERTEX_IDS = {"aaaa", "bbbb", "cccc"};
+    private static final int[] EDGE_ENDPOINTS = {0, 2};
+
+    @TempDir
+    Path directory;
+
+    // Two steps, the first coloring vertex 0 and the edge, the second vertex 1
+    private byte[] written() throws IOException {
+        Path path = directory.resolve("run.gtrace");
+        try (TraceWriter writer = new TraceWriter(path, VERTEX_IDS, EDGE_ENDPOINTS)) {
+            writer.beginStep();
+            writer.record(0, Color.RED);
+            writer.record(3, Color.GREEN);
+            writer.beginStep();
+            writer.record(1, Color.RED);
+        }
+
+        TraceReader trace = TraceReader.open(path);
+        assertEquals(3, trace.recordCount());
+        assertEquals(2, trace.stepCount());
+        assertEquals(3, trace.element(1));
+        assertEquals(Color.GREEN, trace.color(1));
+        assertEquals(Color.RED, trace.color(2));
+        return Files.readAllBytes(path);
+    }
+
+    @Test
+    void acceptsWhatTheWriterWrote() throws IOException {
+        byte[] written = written();
+        assertDoesNotThrow(() -> open(written));
+    }
+
+    @Test
+    void rejectsRecordsOfElementsOutsideTheTable() throws IOException {
+        byte[] written = written();
+        assertRejected(withInt(written, RECORDS_AT, 4));
+        assertRejected(withInt(written, RECORDS_AT + TraceWriter.RECORD_BYTES, -1));
+    }
+
+    @Test
+    void rejectsRecordsOfColorsOutsideThePalette() throws IOException {
+        byte[] written = written();
+        assertRejected(withInt(written, RECORDS_AT + Integer.BYTES, TraceWriter.STEP_START | 2));
+        assertRejected(withInt(written, RECORDS_AT + TraceWriter.RECORD_BYTES + Integer.BYTES, 2));
+    }
+
+    @Test
+    void rejectsEdgesBetweenVerticesOutsideTheTable() throws IOException {
+        byte[] written = written();
+        assertRejected(withInt(written, ENDPOINTS_AT + Integer.BYTES, 3));
+        assertRejected(withInt(written, ENDPOINTS_AT, -1));
+    }
+
+    @Test
+    void rejectsStepsStartingOutOfOrderOrPastTheRecords() throws IOException {
+        byte[] written = written();
+        // The step starts are the last two longs of the file
+        int lastStepAt = written.length - Long.BYTES;
+        assertRejected(withLong(written, lastStepAt, 4));
+        assertRejected(withLong(written, lastStepAt - Long.BYTES, 3));
+        assertRejected(withLong(written, lastStepAt - Long.BYTES, -1));
+    }
+
+    private TraceReader open(byte[] bytes) throws IOException {
+        Path path = directory.resolve("corrupted.gtrace");
+        Files.write(path, bytes);
+        return TraceReader.open(path);
+    }
+
+    private void assertRejected(byte[] bytes) {
+        assertThrows(IllegalArgumentException.class, () -> open(bytes));
+    }
+
+    private static byte[] withInt(byte[] bytes, int at, int value) {
+        byte[] changed = bytes.clone();
+        ByteBuffer.wrap(changed).order(ByteOrder.LITTLE_ENDIAN).putInt(at, value);
+        return changed;
+    }
+
+    private static byte[] withLong(byte[] bytes, int at, long value) {
+        byte[] changed = bytes.clone();
+        ByteBuffer.wrap(changed).order(ByteOrder.LITTLE_ENDIAN).putLong(at, value);
+        return changed;
+    }
+}
@@ -0,0 +1,66 @@
+package engineer.omnis.graphviz.trace;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TraceRoundTripTest {
+    // Well past the writer's 1 MiB buffer, so the table and the result are both written in several pieces
+    private static final int VERTEX_COUNT = 150_000;
+    private static final int RESULT_LENGTH = 2_000_000;
+    private static final Color[] COLORS = {Color.RED, Color.GREEN, new Color(1, 2, 3, 4)};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @Timeout(60)
+    void readsBackWhatWasWritten() throws IOException {
+        String[] vertexIds = new String[VERTEX_COUNT];
+        for (int v = 0; v < VERTEX_COUNT; ++v) {
+            // Lengths vary, so ids straddle the buffer boundary at different offsets
+            vertexIds[v] = "vértex-" + v + "-".repeat(v % 7);
+        }
+        int[] edgeEndpoints = {0, 1, 1, VERTEX_COUNT - 1, VERTEX_COUNT - 2, 0};
+        int elementCount = VERTEX_COUNT + edgeEndpoints.length / 2;
+        String result = "ü".repeat(RESULT_LENGTH / 2) + "x".repeat(RESULT_LENGTH / 2);
+
+        Path path = directory.resolve("run.gtrace");
+        try (TraceWriter writer = new TraceWriter(path, vertexIds, edgeEndpoints)) {
+            for (int step = 0; step < 3; ++step) {
+                writer.beginStep();
+                for (int i = 0; i <= step; ++i) {
+                    writer.record((step * 31 + i) % elementCount, COLORS[(step + i) % COLORS.length]);
+                }
+            }
+            writer.setResult(result);
+        }
+
+        TraceReader trace = TraceReader.open(path);
+        assertEquals(VERTEX_COUNT, trace.vertexCount());
+        for (int v = 0; v < VERTEX_COUNT; ++v) {
+            assertEquals(vertexIds[v], trace.vertexId(v));
+        }
+        assertEquals(edgeEndpoints.length / 2, trace.edgeCount());
+        for (int e = 0; e < trace.edgeCount(); ++e) {
+            assertEquals(edgeEndpoints[2 * e], trace.edgeFrom(e));
+            assertEquals(edgeEndpoints[2 * e + 1], trace.edgeTo(e));
+        }
+        assertEquals(3, trace.stepCount());
+        for (int step = 0; step < 3; ++step) {
+            assertEquals(step + 1, trace.stepEnd(step) - trace.stepStart(step));
+            for (int i = 0; i <= step; ++i) {
+                long record = trace.stepStart(step) + i;
+                assertEquals((step * 31 + i) % elementCount, trace.element(record));
+                assertEquals(COLORS[(step + i) % COLORS.length], trace.color(record));
+            }
+        }
+        assertEquals(result, trace.getResult());
+    }
+}